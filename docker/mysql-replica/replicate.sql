@@ -0,0 +1,9 @@
+-- Runs once, when the replica container initialises its data directory
+CHANGE REPLICATION SOURCE TO
+    SOURCE_HOST = 'mysql-db',
+    SOURCE_USER = 'root',
+    SOURCE_PASSWORD = 'password',
+    SOURCE_AUTO_POSITION = 1,
+    GET_SOURCE_PUBLIC_KEY = 1;
+
+START REPLICA;
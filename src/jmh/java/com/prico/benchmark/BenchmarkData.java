@@ -0,0 +1,148 @@
+package com.prico.benchmark;
+
+import com.prico.dto.comparison.ProductVariationRow;
+import com.prico.dto.crud.*;
+import com.prico.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic fixtures for the benchmarks. Every generator takes a fixed seed so that runs on different
+ * machines or commits measure exactly the same data.
+ */
+final class BenchmarkData {
+
+    static final long SEED = 20240301L;
+
+    // A product is rarely sold by more than a couple of dozen retailers
+    static final int MAX_STORES = 25;
+
+    private BenchmarkData() {
+    }
+
+    static Brand brand() {
+        return Brand.builder().id(7L).name("Yoplait").description("French yoghurt brand owned by General Mills").build();
+    }
+
+    static Category category() {
+        return Category.builder().id(3L).name("Dairy").description("Milk, cheese, yoghurt and eggs").build();
+    }
+
+    static Store store(long id) {
+        return Store
+                .builder()
+                .id(id)
+                .name("Store " + id)
+                .location("Level 1, " + id + " George Street, Sydney NSW 2000")
+                .website("https://store" + id + ".com.au")
+                .build();
+    }
+
+    static Product product() {
+        return Product
+                .builder()
+                .id(42L)
+                .name("Yoplait Strawberry Yoghurt | 1kg")
+                .description("Made in Australia and available in 4 delicious flavours.")
+                .imageUrl("https://cdn.prico.com/products/42.jpg")
+                .brand(brand())
+                .category(category())
+                .lowestPrice(5.9F)
+                .cheapestStoreId(2L)
+                .cheapestStoreName("Store 2")
+                .offerCount(12)
+                .storeCount(4)
+                .build();
+    }
+
+    static List<ProductStore> offers(int count) {
+        Random random = new Random(SEED);
+        Product product = product();
+        int storeCount = Math.min(count, MAX_STORES);
+        List<Store> stores = new ArrayList<>(storeCount);
+
+        for (int i = 1; i <= storeCount; i++) {
+            stores.add(store(i));
+        }
+
+        List<ProductStore> offers = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            Store store = stores.get(random.nextInt(storeCount));
+            offers.add(ProductStore
+                    .builder()
+                    .id(1000L + i)
+                    .name(product.getName() + " - pack " + (i + 1))
+                    .url(store.getWebsite() + "/p/" + (100000 + random.nextInt(900000)))
+                    .imageUrl(store.getWebsite() + "/images/" + i + ".jpg")
+                    .price(1 + random.nextInt(2000) / 100F)
+                    .product(product)
+                    .store(store)
+                    .build());
+        }
+
+        return offers;
+    }
+
+    static List<ProductVariationRow> rows(List<ProductStore> offers) {
+        List<ProductVariationRow> rows = new ArrayList<>(offers.size());
+
+        for (ProductStore offer : offers) {
+            rows.add(new ProductVariationRow(
+                    offer.getProduct().getId(),
+                    offer.getProduct().getName(),
+                    offer.getProduct().getImageUrl(),
+                    offer.getStore().getId(),
+                    offer.getStore().getName(),
+                    offer.getStore().getWebsite(),
+                    offer.getId(),
+                    offer.getName(),
+                    offer.getUrl(),
+                    offer.getImageUrl(),
+                    offer.getPrice()));
+        }
+
+        return rows;
+    }
+
+    static BrandRequestDto brandRequest() {
+        return BrandRequestDto.builder().name("Yoplait").description("French yoghurt brand owned by General Mills").build();
+    }
+
+    static CategoryRequestDto categoryRequest() {
+        return CategoryRequestDto.builder().name("Dairy").description("Milk, cheese, yoghurt and eggs").build();
+    }
+
+    static StoreRequestDto storeRequest() {
+        return StoreRequestDto
+                .builder()
+                .name("Woolworths")
+                .location("Level 1, 1 George Street, Sydney NSW 2000")
+                .website("https://woolworths.com.au")
+                .build();
+    }
+
+    static ProductRequestDto productRequest() {
+        return ProductRequestDto
+                .builder()
+                .name("Yoplait Strawberry Yoghurt | 1kg")
+                .description("Made in Australia and available in 4 delicious flavours.")
+                .brandId(7L)
+                .categoryId(3L)
+                .build();
+    }
+
+    static ProductStoreRequestDto productStoreRequest() {
+        return ProductStoreRequestDto
+                .builder()
+                .name("Yoplait Strawberry 1kg")
+                .url("https://woolworths.com.au/p/123456")
+                .imageUrl("https://woolworths.com.au/images/123456.jpg")
+                .price(6.5F)
+                .productId(42L)
+                .storeId(1L)
+                .build();
+    }
+}
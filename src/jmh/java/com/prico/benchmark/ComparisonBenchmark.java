@@ -0,0 +1,84 @@
+package com.prico.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.prico.dto.comparison.ProductVariationResponseDto;
+import com.prico.dto.comparison.ProductVariationRow;
+import com.prico.dto.comparison.StoreDto;
+import com.prico.model.Product;
+import com.prico.model.ProductStore;
+import com.prico.util.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The comparison endpoint from loaded data to response bytes, at offer counts seen in production.
+ * {@code groupEntities} is the original grouping of {@code ProductStore} entities by their {@code Store};
+ * {@code groupRows} is the projection-based grouping {@code getVariationsByProduct} uses today.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ComparisonBenchmark {
+
+    @Param({"1", "10", "100", "500"})
+    private int offers;
+
+    private List<ProductStore> entities;
+
+    private List<ProductVariationRow> rows;
+
+    private ProductVariationResponseDto response;
+
+    private com.fasterxml.jackson.databind.ObjectMapper jsonMapper;
+
+    @Setup
+    public void setUp() {
+        entities = BenchmarkData.offers(offers);
+        rows = BenchmarkData.rows(entities);
+        response = ObjectMapper.toDto(rows);
+        jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public ProductVariationResponseDto groupEntities() {
+        Product product = entities.get(0).getProduct();
+
+        List<StoreDto> stores = entities
+                .stream()
+                .collect(Collectors.groupingBy(ProductStore::getStore))
+                .entrySet()
+                .stream()
+                .map(x -> ObjectMapper.toDto(x))
+                .collect(Collectors.toList());
+
+        return ProductVariationResponseDto
+                .builder()
+                .productId(product.getId())
+                .productName(product.getName())
+                .productImageUrl(product.getImageUrl())
+                .stores(stores)
+                .build();
+    }
+
+    @Benchmark
+    public ProductVariationResponseDto groupRows() {
+        return ObjectMapper.toDto(rows);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return jsonMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] groupRowsAndSerialize() throws JsonProcessingException {
+        return jsonMapper.writeValueAsBytes(ObjectMapper.toDto(rows));
+    }
+}
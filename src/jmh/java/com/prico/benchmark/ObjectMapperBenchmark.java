@@ -0,0 +1,110 @@
+package com.prico.benchmark;
+
+import com.prico.dto.comparison.StoreDto;
+import com.prico.dto.crud.*;
+import com.prico.model.*;
+import com.prico.util.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of each entity/DTO mapping in {@link ObjectMapper} for a single, fully populated instance.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ObjectMapperBenchmark {
+
+    private Brand brand;
+    private Category category;
+    private Store store;
+    private Product product;
+    private ProductStore productStore;
+    private Map.Entry<Store, List<ProductStore>> storeVariations;
+
+    private BrandRequestDto brandRequest;
+    private CategoryRequestDto categoryRequest;
+    private StoreRequestDto storeRequest;
+    private ProductRequestDto productRequest;
+    private ProductStoreRequestDto productStoreRequest;
+
+    @Setup
+    public void setUp() {
+        brand = BenchmarkData.brand();
+        category = BenchmarkData.category();
+        store = BenchmarkData.store(1L);
+        product = BenchmarkData.product();
+
+        List<ProductStore> offers = BenchmarkData.offers(1);
+        productStore = offers.get(0);
+        storeVariations = new AbstractMap.SimpleImmutableEntry<>(productStore.getStore(), offers);
+
+        brandRequest = BenchmarkData.brandRequest();
+        categoryRequest = BenchmarkData.categoryRequest();
+        storeRequest = BenchmarkData.storeRequest();
+        productRequest = BenchmarkData.productRequest();
+        productStoreRequest = BenchmarkData.productStoreRequest();
+    }
+
+    @Benchmark
+    public BrandResponseDto brandToDto() {
+        return ObjectMapper.toDto(brand);
+    }
+
+    @Benchmark
+    public Brand brandToEntity() {
+        return ObjectMapper.toEntity(brandRequest);
+    }
+
+    @Benchmark
+    public CategoryResponseDto categoryToDto() {
+        return ObjectMapper.toDto(category);
+    }
+
+    @Benchmark
+    public Category categoryToEntity() {
+        return ObjectMapper.toEntity(categoryRequest);
+    }
+
+    @Benchmark
+    public StoreResponseDto storeToDto() {
+        return ObjectMapper.toDto(store);
+    }
+
+    @Benchmark
+    public Store storeToEntity() {
+        return ObjectMapper.toEntity(storeRequest);
+    }
+
+    @Benchmark
+    public ProductResponseDto productToDto() {
+        return ObjectMapper.toDto(product);
+    }
+
+    @Benchmark
+    public Product productToEntity() {
+        return ObjectMapper.toEntity(productRequest);
+    }
+
+    @Benchmark
+    public ProductStoreResponseDto productStoreToDto() {
+        return ObjectMapper.toDto(productStore);
+    }
+
+    @Benchmark
+    public ProductStore productStoreToEntity() {
+        return ObjectMapper.toEntity(productStoreRequest);
+    }
+
+    @Benchmark
+    public StoreDto storeVariationsToDto() {
+        return ObjectMapper.toDto(storeVariations);
+    }
+}
@@ -0,0 +1,84 @@
+package com.prico.benchmark;
+
+import com.prico.index.PriceAlertIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching an offer write against the {@link PriceAlertIndex} with 10M alerts spread over the products.
+ * {@code unchanged} is the common case of a write that does not lower the lowest price below any threshold;
+ * {@code drop} lowers it past about {@code fired} alerts, then restores the price and the alerts so every
+ * invocation sees the same index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class PriceAlertMatchBenchmark {
+
+    private static final float LOWEST_PRICE = 20F;
+
+    @Param({"10000000"})
+    private int alerts;
+
+    @Param({"100000"})
+    private int products;
+
+    @Param({"1", "100"})
+    private int fired;
+
+    private PriceAlertIndex index;
+
+    private float dropPrice;
+
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        Random data = new Random(BenchmarkData.SEED);
+        index = new PriceAlertIndex();
+        PriceAlertIndex.Loader loader = index.loader();
+        Map<Long, Float> lowestPrices = new HashMap<>();
+
+        for (long id = 1; id <= alerts; id++) {
+            loader.add(id % products, id, 1 + data.nextInt(1900) / 100F);
+        }
+
+        for (long productId = 0; productId < products; productId++) {
+            lowestPrices.put(productId, LOWEST_PRICE);
+        }
+
+        loader.finish(lowestPrices);
+
+        // Thresholds are uniform over [1, 20), so the top fired / alertsPerProduct of the range fires
+        dropPrice = LOWEST_PRICE - 19F * Math.min(1F, fired / ((float) alerts / products));
+
+        random = new Random(BenchmarkData.SEED);
+    }
+
+    @Benchmark
+    public List<PriceAlertIndex.Match> unchanged() {
+        return index.update((long) random.nextInt(products), LOWEST_PRICE);
+    }
+
+    @Benchmark
+    public int drop() {
+        long productId = random.nextInt(products);
+        List<PriceAlertIndex.Match> matches = index.update(productId, dropPrice);
+
+        index.update(productId, LOWEST_PRICE);
+
+        for (PriceAlertIndex.Match match : matches) {
+            index.add(productId, match.getAlertId(), match.getThreshold(), LOWEST_PRICE);
+        }
+
+        return matches.size();
+    }
+}
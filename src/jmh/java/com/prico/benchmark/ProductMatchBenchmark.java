@@ -0,0 +1,109 @@
+package com.prico.benchmark;
+
+import com.prico.index.ProductMatchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proposing products for an offer name with the {@link ProductMatchIndex} over a catalog of 5M synthetic
+ * products, named from a vocabulary of 20k words drawn with a skew towards common ones. {@code listing} looks
+ * up a product's name as a store lists it, without the brand and with the size spelt differently;
+ * {@code unknown} looks up a name made of random words, which matches no product.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class ProductMatchBenchmark {
+
+    private static final int QUERIES = 4096;
+
+    @Param({"5000000"})
+    private int products;
+
+    private ProductMatchIndex index;
+
+    private String[] listings;
+
+    private String[] unknown;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random data = new Random(BenchmarkData.SEED);
+        String[] words = new String[20_000];
+        String[] brands = new String[2_000];
+
+        for (int i = 0; i < words.length; i++) {
+            words[i] = word(data);
+        }
+
+        for (int i = 0; i < brands.length; i++) {
+            brands[i] = word(data);
+        }
+
+        index = new ProductMatchIndex();
+        ProductMatchIndex.Loader loader = index.loader();
+        listings = new String[QUERIES];
+
+        for (int id = 0; id < products; id++) {
+            StringBuilder name = new StringBuilder();
+            int count = 3 + data.nextInt(5);
+
+            for (int w = 0; w < count; w++) {
+                name.append(words[skewed(data, words.length)]).append(' ');
+            }
+
+            int size = 1 + data.nextInt(2000);
+            String brand = brands[skewed(data, brands.length)];
+
+            loader.add(id, name + "| " + size + "g", brand);
+
+            if (id < QUERIES) {
+                listings[id] = name.toString() + size + " G";
+            }
+        }
+
+        loader.finish();
+
+        unknown = new String[QUERIES];
+
+        for (int i = 0; i < QUERIES; i++) {
+            unknown[i] = word(data) + " " + word(data) + " " + word(data) + " " + data.nextInt(2000) + "g";
+        }
+    }
+
+    @Benchmark
+    public List<ProductMatchIndex.Candidate> listing() {
+        return index.candidates(listings[next++ & (QUERIES - 1)], 5);
+    }
+
+    @Benchmark
+    public List<ProductMatchIndex.Candidate> unknown() {
+        return index.candidates(unknown[next++ & (QUERIES - 1)], 5);
+    }
+
+    private static String word(Random random) {
+        char[] word = new char[4 + random.nextInt(6)];
+
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(26));
+        }
+
+        word[0] = Character.toUpperCase(word[0]);
+
+        return new String(word);
+    }
+
+    // Squaring a uniform draw favours the start of the range
+    private static int skewed(Random random, int bound) {
+        double uniform = random.nextDouble();
+        return (int) (uniform * uniform * bound);
+    }
+}
@@ -0,0 +1,146 @@
+package com.prico.benchmark;
+
+import com.prico.PricoApplication;
+import com.prico.model.Product;
+import com.prico.model.ProductStore;
+import com.prico.model.Store;
+import com.prico.repository.ProductRepository;
+import com.prico.repository.ProductStoreRepository;
+import com.prico.repository.StoreRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end request throughput of the Tomcat thread pool against the virtual-thread mode, with
+ * {@link #CLIENTS} requests in flight at once. Runs against an in-memory H2 database by default;
+ * pass {@code -p jdbcUrl=jdbc:mysql://localhost:3307/prico} to measure against MySQL.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class RequestThroughputBenchmark {
+
+    static final int CLIENTS = 1000;
+
+    static final int PRODUCTS = 200;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"/products?limit=50", "/products/%d/variations"})
+    private String path;
+
+    @Param({"jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1"})
+    private String jdbcUrl;
+
+    private ConfigurableApplicationContext context;
+
+    private ExecutorService clientExecutor;
+
+    private HttpClient client;
+
+    private List<URI> uris;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(PricoApplication.class).run(
+                "--server.port=0",
+                "--prico.virtual-threads.enabled=" + virtualThreads,
+                "--spring.datasource.url=" + jdbcUrl,
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework=WARN");
+
+        List<Long> productIds = seed();
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        Random random = new Random(BenchmarkData.SEED);
+        uris = new ArrayList<>(CLIENTS);
+
+        for (int i = 0; i < CLIENTS; i++) {
+            uris.add(URI.create(base + String.format(path, productIds.get(random.nextInt(productIds.size())))));
+        }
+
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clientExecutor).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientExecutor.shutdownNow();
+        context.close();
+    }
+
+    /**
+     * Fires {@link #CLIENTS} concurrent requests and waits for all of them. Returns the number that did not
+     * succeed, so a mode that sheds load shows up instead of looking faster.
+     */
+    @Benchmark
+    @OperationsPerInvocation(CLIENTS)
+    public int burst() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(CLIENTS);
+
+        for (URI uri : uris) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding()));
+        }
+
+        int failed = 0;
+
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() != 200) {
+                failed++;
+            }
+        }
+
+        return failed;
+    }
+
+    private List<Long> seed() {
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        StoreRepository storeRepository = context.getBean(StoreRepository.class);
+        ProductStoreRepository productStoreRepository = context.getBean(ProductStoreRepository.class);
+
+        List<Store> stores = new ArrayList<>();
+
+        for (long i = 1; i <= BenchmarkData.MAX_STORES; i++) {
+            Store store = BenchmarkData.store(i);
+            store.setId(null);
+            stores.add(storeRepository.save(store));
+        }
+
+        Random random = new Random(BenchmarkData.SEED);
+        List<Long> productIds = new ArrayList<>(PRODUCTS);
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = productRepository.save(Product.builder().name("Benchmark product " + i).build());
+            productIds.add(product.getId());
+
+            for (int j = 0; j < 10; j++) {
+                productStoreRepository.save(ProductStore
+                        .builder()
+                        .name(product.getName())
+                        .url("https://example.com/" + i + "/" + j)
+                        .price(1 + random.nextInt(2000) / 100F)
+                        .product(product)
+                        .store(stores.get(random.nextInt(stores.size())))
+                        .build());
+            }
+        }
+
+        return productIds;
+    }
+}
@@ -2,12 +2,18 @@ package com.prico;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class PricoApplication {
 
+	// Startup steps kept for the actuator startup endpoint
+	private static final int STARTUP_STEPS = 4096;
+
 	public static void main(String[] args) {
-		SpringApplication.run(PricoApplication.class, args);
+		SpringApplication application = new SpringApplication(PricoApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+		application.run(args);
 	}
 
 }
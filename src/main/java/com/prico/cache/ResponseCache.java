@@ -0,0 +1,180 @@
+package com.prico.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.prico.dto.VersionedDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialised bodies of hot GET responses, kept as UTF-8 JSON and, when that is smaller, gzipped, so a hit
+ * is written straight to the output stream without mapping or serialising anything. Entries remember the
+ * ETag they were rendered for and are only served while it still matches, which also covers writes that
+ * do not evict them, such as brand renames. The cache is bounded by the bytes it holds.
+ */
+public class ResponseCache {
+
+    public static final String NAME = "responses";
+
+    public enum Resource {
+        PRODUCT,
+        VARIATIONS
+    }
+
+    // Key, entry and array headers
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final boolean enabled;
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<String, Entry> cache;
+
+    public ResponseCache(boolean enabled, long maxBytes, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine
+                .newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Entry entry) -> entry.size())
+                .recordStats()
+                .build();
+
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+
+            Gauge
+                    .builder("prico.response.cache.bytes", this, ResponseCache::sizeInBytes)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+
+            Gauge
+                    .builder("prico.response.cache.hit.ratio", this, ResponseCache::hitRatio)
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Writes the representation tagged with the ETag as the response body, rendering and caching it first
+     * when it is missing or was rendered for another ETag. A rendered body is cached under the ETag it was
+     * read with, which is also sent, since the database it came from can be behind the one the given ETag
+     * came from.
+     */
+    public void write(Resource resource, Long id, String etag, Supplier<? extends VersionedDto<?>> body,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String key = key(resource, id);
+        Entry entry = cache.getIfPresent(key);
+
+        if (entry == null || !entry.getEtag().equals(etag)) {
+            VersionedDto<?> versioned = body.get();
+            entry = render(versioned.getEtag(), versioned.getBody());
+            cache.put(key, entry);
+
+            if (!entry.getEtag().equals(etag)) {
+                response.setHeader(HttpHeaders.ETAG, entry.getEtag());
+            }
+        }
+
+        byte[] bytes = entry.getJson();
+
+        if (entry.getGzip() != null && acceptsGzip(request)) {
+            bytes = entry.getGzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    /**
+     * Drops every cached representation of the product.
+     */
+    public void evict(Long productId) {
+        for (Resource resource : Resource.values()) {
+            cache.invalidate(key(resource, productId));
+        }
+    }
+
+    public long sizeInBytes() {
+        cache.cleanUp();
+        return cache.policy().eviction().map(x -> x.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    public double hitRatio() {
+        return cache.stats().hitRate();
+    }
+
+    private Entry render(String etag, Object body) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        byte[] gzip = gzip(json);
+
+        return new Entry(etag, json, gzip.length < json.length ? gzip : null);
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2 + 32);
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return compressed.toByteArray();
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.trim().split(";");
+
+                if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                    return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static String key(Resource resource, Long id) {
+        return resource.name() + ':' + id;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class Entry {
+
+        private final String etag;
+
+        private final byte[] json;
+
+        // Null when gzip would not make the body smaller
+        private final byte[] gzip;
+
+        int size() {
+            return ENTRY_OVERHEAD + etag.length() + json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.prico.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prico.cache.ResponseCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Caches are Caffeine-backed and configured through {@code spring.cache.*}; statistics are
+ * published as {@code cache.*} metrics on the actuator. The {@link ResponseCache} of serialised
+ * bodies is configured through {@code prico.response-cache.*}.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String VARIATIONS_CACHE = "variations";
+
+    @Bean
+    public ResponseCache responseCache(@Value("${prico.response-cache.enabled:false}") boolean enabled,
+                                       @Value("${prico.response-cache.max-size:64MB}") DataSize maxSize,
+                                       ObjectMapper objectMapper,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ResponseCache(enabled, maxSize.toBytes(), objectMapper, meterRegistry.getIfAvailable());
+    }
+}
@@ -0,0 +1,89 @@
+package com.prico.config;
+
+import com.prico.datasource.ReplicaRoutingDataSource;
+import com.prico.filter.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opt-in ({@code prico.datasource.routing.enabled=true}) read/write split: read-only transactions run on
+ * the {@code prico.datasource.replicas}, everything else on the {@code spring.datasource} primary. Each
+ * database gets its own Hikari pool, named {@code primary} and {@code replica-1}, {@code replica-2}...,
+ * whose {@code hikaricp.*} metrics are tagged with that name.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "prico.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties,
+                                                             Environment environment,
+                                                             @Value("${prico.datasource.replicas:}") List<String> replicaUrls,
+                                                             @Value("${prico.datasource.replica-connection-timeout:1s}") Duration replicaTimeout) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+
+        for (String url : replicaUrls) {
+            if (url.trim().isEmpty()) {
+                continue;
+            }
+
+            // Same credentials and pool settings, but a failing replica is given up on quickly
+            HikariDataSource replica = new HikariDataSource();
+            primary.copyStateTo(replica);
+            replica.setJdbcUrl(url.trim());
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setConnectionTimeout(replicaTimeout.toMillis());
+            replicas.add(replica);
+        }
+
+        log.info("Routing read-only transactions to {} replicas", replicas.size());
+
+        return new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    // With open-in-view the session outlives its transactions, and a connection it held on to would keep
+    // the first transaction's database for the rest of the request
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(@Value("${prico.datasource.read-your-writes:5s}") Duration stickiness) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(stickiness));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,34 @@
+package com.prico.config;
+
+import com.prico.ingest.OfferDigests;
+import com.prico.ingest.OfferWriteCoalescer;
+import com.prico.service.ProductStoreService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * The crawler write path of {@code PUT /product-stores/{id}}, configured through {@code prico.ingest.*}.
+ */
+@Configuration
+public class IngestConfig {
+
+    @Bean
+    public OfferDigests offerDigests(@Value("${prico.ingest.digests.max-size:1000000}") long maxSize,
+                                     @Value("${prico.ingest.digests.ttl:10m}") Duration ttl,
+                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return new OfferDigests(maxSize, ttl, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    public OfferWriteCoalescer offerWriteCoalescer(ProductStoreService productStoreService,
+                                                   OfferDigests offerDigests,
+                                                   @Value("${prico.ingest.window:200ms}") Duration window,
+                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return new OfferWriteCoalescer(productStoreService, offerDigests, window, meterRegistry.getIfAvailable());
+    }
+}
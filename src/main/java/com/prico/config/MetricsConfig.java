@@ -0,0 +1,56 @@
+package com.prico.config;
+
+import com.prico.metrics.EntityLoadCountingIntegrator;
+import com.prico.metrics.QueryCountInterceptor;
+import com.prico.metrics.QueryCounter;
+import com.prico.metrics.QueryCountingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+
+/**
+ * Per-request SQL statement and entity load counts. Hibernate's own statistics are per session factory,
+ * so statements are counted by wrapping the data source, which also sees {@code JdbcTemplate} SQL, and
+ * loads with a post-load listener, both feeding the thread-bound {@link QueryCounter}.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    // Only the data source everything else is given, as it may delegate to other data source beans
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource && beanName.equals("dataSource")
+                        ? new QueryCountingDataSource((DataSource) bean)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityLoadCountingCustomizer() {
+        return properties -> properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> Collections.singletonList(new EntityLoadCountingIntegrator()));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryCountInterceptor(meterRegistry));
+    }
+}
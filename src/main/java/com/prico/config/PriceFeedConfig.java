@@ -0,0 +1,29 @@
+package com.prico.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prico.feed.PriceFeed;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * The {@link PriceFeed} behind {@code /price-feed}, configured through {@code prico.price-feed.*}.
+ */
+@Configuration
+public class PriceFeedConfig {
+
+    @Bean
+    public PriceFeed priceFeed(@Value("${prico.price-feed.buffer-size:64}") int bufferSize,
+                               @Value("${prico.price-feed.sender-threads:4}") int senderThreads,
+                               @Value("${prico.price-feed.heartbeat:15s}") Duration heartbeat,
+                               @Value("${prico.price-feed.timeout:30m}") Duration timeout,
+                               @Value("${prico.price-feed.send-timeout:10s}") Duration sendTimeout,
+                               ObjectMapper objectMapper,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        return new PriceFeed(bufferSize, senderThreads, heartbeat, timeout, sendTimeout, objectMapper, meterRegistry.getIfAvailable());
+    }
+}
@@ -0,0 +1,77 @@
+package com.prico.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.prico.model.Brand;
+import com.prico.model.Category;
+import com.prico.model.Store;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache for reference data ({@link Brand}, {@link Category}, {@link Store}) and the
+ * queries listing it, kept in-process with Caffeine through JCache. This is separate from the Spring caches in
+ * {@link CacheConfig}. Hibernate statistics are switched on, so region hits and misses are published as
+ * {@code hibernate.second.level.cache.*} and {@code hibernate.cache.query.*} metrics.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Value("${prico.cache.reference.max-size:10000}")
+    private long maxSize;
+
+    @Value("${prico.cache.reference.ttl:1h}")
+    private Duration ttl;
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, cacheManager());
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    /**
+     * Each application context gets its own provider, so its regions are closed together with its
+     * session factory.
+     */
+    private CacheManager cacheManager() {
+        CaffeineCachingProvider provider = new CaffeineCachingProvider();
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        for (Class<?> entity : Arrays.asList(Brand.class, Category.class, Store.class)) {
+            cacheManager.createCache(entity.getName(), configuration(OptionalLong.of(maxSize), OptionalLong.of(ttl.toNanos())));
+        }
+
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                configuration(OptionalLong.of(maxSize), OptionalLong.of(ttl.toNanos())));
+
+        // Update timestamps must outlive every cached query result, so this region is never evicted
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                configuration(OptionalLong.empty(), OptionalLong.empty()));
+
+        return cacheManager;
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration(OptionalLong maximumSize, OptionalLong expireAfterWrite) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maximumSize);
+        configuration.setExpireAfterWrite(expireAfterWrite);
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,43 @@
+package com.prico.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * Startup behaviour for the {@code prod} profile, which turns on lazy bean initialisation.
+ */
+@Slf4j
+@Configuration
+public class StartupConfig {
+
+    /**
+     * The connection pool and the entity manager factory stay eager even when beans are lazy, so a bad
+     * connection or a schema that fails validation stops the deploy instead of the first request.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerPersistence() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class);
+    }
+
+    /**
+     * Used by the CDS training run ({@code -Pcds}): the JVM dumps the classes loaded during startup
+     * when the application exits.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "prico.startup.exit-on-ready", havingValue = "true")
+    public ApplicationListener<ApplicationReadyEvent> exitOnReady() {
+        return event -> {
+            log.info("Started, exiting because prico.startup.exit-on-ready is set");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        };
+    }
+}
@@ -1,25 +1,64 @@
 package com.prico.config;
 
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Configuration
 @EnableSwagger2
 public class SwaggerConfig {
 
+    // Only our controllers; Spring Data REST and actuator handlers are left out of the docs and the startup scan
     @Bean
     public Docket api() {
         return new Docket(DocumentationType.SWAGGER_2)
                 .select()
-                .apis(RequestHandlerSelectors.any())
+                .apis(RequestHandlerSelectors.basePackage("com.prico.controller"))
                 .paths(PathSelectors.any())
                 .build();
     }
+
+    // Springfox 3 cannot read the path-pattern based mappings registered by the actuator
+    @Bean
+    public static BeanPostProcessor springfoxHandlerProviderBeanPostProcessor() {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof WebMvcRequestHandlerProvider) {
+                    List<RequestMappingInfoHandlerMapping> mappings = getHandlerMappings(bean);
+                    List<RequestMappingInfoHandlerMapping> supported = mappings
+                            .stream()
+                            .filter(mapping -> mapping.getPatternParser() == null)
+                            .collect(Collectors.toList());
+
+                    mappings.clear();
+                    mappings.addAll(supported);
+                }
+
+                return bean;
+            }
+
+            @SuppressWarnings("unchecked")
+            private List<RequestMappingInfoHandlerMapping> getHandlerMappings(Object bean) {
+                Field field = ReflectionUtils.findField(bean.getClass(), "handlerMappings");
+                ReflectionUtils.makeAccessible(field);
+                return (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean);
+            }
+        };
+    }
 }
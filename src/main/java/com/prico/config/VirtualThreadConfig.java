@@ -0,0 +1,73 @@
+package com.prico.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prico.filter.ConnectionLimitFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in ({@code prico.virtual-threads.enabled=true}) mode that handles every request, and the async
+ * work it starts, on its own virtual thread. Concurrency is then bounded by {@link ConnectionLimitFilter}
+ * rather than by the Tomcat thread pool.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "prico.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConnectionLimitFilter> connectionLimitFilter(DataSource dataSource,
+                                                                               ObjectMapper jsonMapper,
+                                                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                                                               @Value("${prico.virtual-threads.max-concurrency:0}") int maxConcurrency,
+                                                                               @Value("${prico.virtual-threads.acquire-timeout:5s}") Duration timeout) throws SQLException {
+        int permits = maxConcurrency > 0 ? maxConcurrency : poolSize(dataSource);
+        ConnectionLimitFilter filter = new ConnectionLimitFilter(permits, timeout, jsonMapper);
+        log.info("Virtual threads enabled, at most {} requests in flight", permits);
+
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("prico.connection.limiter.available", filter, ConnectionLimitFilter::availablePermits).register(registry);
+            Gauge.builder("prico.connection.limiter.waiting", filter, ConnectionLimitFilter::queueLength).register(registry);
+        });
+
+        FilterRegistrationBean<ConnectionLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static int poolSize(DataSource dataSource) throws SQLException {
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        }
+
+        throw new IllegalStateException("Set prico.virtual-threads.max-concurrency when the data source is not Hikari");
+    }
+}
@@ -5,11 +5,13 @@ import com.prico.dto.crud.BrandRequestDto;
 import com.prico.dto.crud.BrandResponseDto;
 import com.prico.model.Brand;
 import com.prico.service.BrandService;
+import com.prico.util.Pagination;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -23,9 +25,20 @@ public class BrandController {
     private BrandService service;
 
     @GetMapping()
-    public ResponseEntity<List<BrandResponseDto>> getAll() {
-        List<BrandResponseDto> brands = service.getAll();
-        return ResponseEntity.ok(brands);
+    public ResponseEntity<List<BrandResponseDto>> getAll(@RequestParam(required = false) Long after,
+                                                         @RequestParam(required = false) Integer page,
+                                                         @RequestParam(defaultValue = Pagination.DEFAULT_LIMIT) int limit,
+                                                         WebRequest request) {
+        if (request.checkNotModified(service.getListVersion().getEtag())) {
+            return null;
+        }
+
+        if (page != null) {
+            return Pagination.pageResponse(service.getPage(page, limit));
+        }
+
+        List<BrandResponseDto> brands = service.getAll(after, limit);
+        return Pagination.keysetResponse(brands, limit, BrandResponseDto::getId);
     }
 
     @GetMapping("/{id}")
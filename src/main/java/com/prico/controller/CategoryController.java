@@ -5,6 +5,7 @@ import com.prico.dto.crud.CategoryRequestDto;
 import com.prico.dto.crud.CategoryResponseDto;
 import com.prico.model.Category;
 import com.prico.service.CategoryService;
+import com.prico.util.Pagination;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -23,9 +24,15 @@ public class CategoryController {
     private CategoryService service;
 
     @GetMapping()
-    public ResponseEntity<List<CategoryResponseDto>> getAll() {
-        List<CategoryResponseDto> productCategories = service.getAll();
-        return ResponseEntity.ok(productCategories);
+    public ResponseEntity<List<CategoryResponseDto>> getAll(@RequestParam(required = false) Long after,
+                                                            @RequestParam(required = false) Integer page,
+                                                            @RequestParam(defaultValue = Pagination.DEFAULT_LIMIT) int limit) {
+        if (page != null) {
+            return Pagination.pageResponse(service.getPage(page, limit));
+        }
+
+        List<CategoryResponseDto> productCategories = service.getAll(after, limit);
+        return Pagination.keysetResponse(productCategories, limit, CategoryResponseDto::getId);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,52 @@
+package com.prico.controller;
+
+import com.prico.dto.ApiResponse;
+import com.prico.dto.alert.PriceAlertRequestDto;
+import com.prico.dto.alert.PriceAlertResponseDto;
+import com.prico.model.PriceAlert;
+import com.prico.service.PriceAlertService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+@Slf4j
+@RestController
+@RequestMapping("/price-alerts")
+public class PriceAlertController {
+
+    @Autowired
+    private PriceAlertService service;
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PriceAlertResponseDto> getById(@PathVariable Long id) {
+        PriceAlertResponseDto alert = service.getById(id);
+        return ResponseEntity.ok(alert);
+    }
+
+    @PostMapping()
+    public ResponseEntity<ApiResponse<?>> create(@Valid @RequestBody PriceAlertRequestDto alert) {
+        PriceAlertResponseDto createdAlert = service.create(alert);
+
+        ApiResponse<PriceAlertResponseDto> response = new ApiResponse<>();
+        response.setData(createdAlert);
+        response.setMessage(createdAlert.getTriggeredAt() == null
+                ? "Price alert has been created successfully"
+                : "Price alert has been created and triggered straight away");
+
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<?>> delete(@PathVariable Long id) {
+        service.delete(id);
+
+        ApiResponse<PriceAlert> response = new ApiResponse<>();
+        response.setMessage("Price alert has been deleted successfully");
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,44 @@
+package com.prico.controller;
+
+import com.prico.exception.BadRequestException;
+import com.prico.feed.PriceFeed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collections;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/price-feed")
+public class PriceFeedController {
+
+    public static final int MAX_IDS = 100;
+
+    @Autowired
+    private PriceFeed priceFeed;
+
+    /**
+     * Streams a {@code price} event for every committed price change of an offer of one of the products or
+     * stores, including offers added to or removed from them ({@code price} is null for removals).
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam(name = "productId", required = false) List<Long> productIds,
+                                @RequestParam(name = "storeId", required = false) List<Long> storeIds) {
+        List<Long> products = productIds != null ? productIds : Collections.emptyList();
+        List<Long> stores = storeIds != null ? storeIds : Collections.emptyList();
+
+        if (products.isEmpty() && stores.isEmpty()) {
+            throw new BadRequestException("Subscribe to at least one productId or storeId");
+        }
+
+        if (products.size() + stores.size() > MAX_IDS) {
+            throw new BadRequestException("Subscribe to at most " + MAX_IDS + " products and stores");
+        }
+
+        return priceFeed.subscribe(products, stores);
+    }
+}
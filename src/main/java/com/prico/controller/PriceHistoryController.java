@@ -0,0 +1,31 @@
+package com.prico.controller;
+
+import com.prico.dto.history.PriceHistoryResponseDto;
+import com.prico.dto.history.PriceInterval;
+import com.prico.service.PriceHistoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@Slf4j
+@RestController
+@RequestMapping("/products/{id}/price-history")
+public class PriceHistoryController {
+
+    @Autowired
+    private PriceHistoryService service;
+
+    @GetMapping()
+    public ResponseEntity<PriceHistoryResponseDto> getHistory(@PathVariable Long id,
+                                                              @RequestParam(required = false) Long storeId,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                              @RequestParam(defaultValue = "DAY") PriceInterval interval) {
+        PriceHistoryResponseDto history = service.getHistory(id, storeId, from, to, interval);
+        return ResponseEntity.ok(history);
+    }
+}
@@ -1,20 +1,29 @@
 package com.prico.controller;
 
+import com.prico.cache.ResponseCache;
 import com.prico.dto.ApiResponse;
 import com.prico.dto.comparison.ProductVariationResponseDto;
+import com.prico.dto.comparison.ProductVariationsRequestDto;
 import com.prico.dto.crud.ProductRequestDto;
 import com.prico.dto.crud.ProductResponseDto;
+import com.prico.dto.ResourceVersionDto;
 import com.prico.dto.SearchRequestDto;
+import com.prico.dto.SearchResponseDto;
+import com.prico.dto.SuggestionDto;
 import com.prico.model.Product;
 import com.prico.service.ProductService;
+import com.prico.util.Pagination;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import javax.validation.Valid;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @RestController
@@ -24,14 +33,35 @@ public class ProductController {
     @Autowired
     private ProductService service;
 
+    @Autowired
+    private ResponseCache responseCache;
+
     @GetMapping()
-    public ResponseEntity<List<ProductResponseDto>> getAll() {
-        List<ProductResponseDto> products = service.getAll();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductResponseDto>> getAll(@RequestParam(required = false) Long after,
+                                                           @RequestParam(required = false) Integer page,
+                                                           @RequestParam(defaultValue = Pagination.DEFAULT_LIMIT) int limit) {
+        if (page != null) {
+            return Pagination.pageResponse(service.getPage(page, limit));
+        }
+
+        List<ProductResponseDto> products = service.getAll(after, limit);
+        return Pagination.keysetResponse(products, limit, ProductResponseDto::getId);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponseDto> getById(@PathVariable Long id) {
+    public ResponseEntity<ProductResponseDto> getById(@PathVariable Long id, ServletWebRequest request) throws IOException {
+        ResourceVersionDto version = service.getVersion(id);
+
+        if (request.checkNotModified(version.getEtag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+
+        if (responseCache.isEnabled()) {
+            responseCache.write(ResponseCache.Resource.PRODUCT, id, version.getEtag(), () -> service.getVersionedById(id),
+                    request.getRequest(), request.getResponse());
+            return null;
+        }
+
         ProductResponseDto product = service.getById(id);
         return ResponseEntity.ok(product);
     }
@@ -68,14 +98,39 @@ public class ProductController {
     }
 
     @PostMapping("/search")
-    public ResponseEntity<List<ProductResponseDto>> search(@Valid @RequestBody SearchRequestDto search) {
-        List<ProductResponseDto> products = service.search(search);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<SearchResponseDto> search(@Valid @RequestBody SearchRequestDto search) {
+        SearchResponseDto response = service.search(search);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggest(@RequestParam String q,
+                                                       @RequestParam(defaultValue = "10") int limit) {
+        List<SuggestionDto> suggestions = service.suggest(q, limit);
+        return ResponseEntity.ok(suggestions);
     }
 
     @GetMapping("/{id}/variations")
-    public ResponseEntity<ProductVariationResponseDto> getVariationsByProduct(@PathVariable Long id) {
+    public ResponseEntity<ProductVariationResponseDto> getVariationsByProduct(@PathVariable Long id, ServletWebRequest request) throws IOException {
+        ResourceVersionDto version = service.getVariationsVersion(id);
+
+        if (request.checkNotModified(version.getEtag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+
+        if (responseCache.isEnabled()) {
+            responseCache.write(ResponseCache.Resource.VARIATIONS, id, version.getEtag(), () -> service.getVersionedVariations(id),
+                    request.getRequest(), request.getResponse());
+            return null;
+        }
+
         ProductVariationResponseDto response = service.getVariationsByProduct(id);
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/variations")
+    public ResponseEntity<Map<Long, ProductVariationResponseDto>> getVariationsByProducts(@Valid @RequestBody ProductVariationsRequestDto request) {
+        Map<Long, ProductVariationResponseDto> response = service.getVariationsByProducts(request.getProductIds());
+        return ResponseEntity.ok(response);
+    }
 }
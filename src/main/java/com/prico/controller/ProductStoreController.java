@@ -0,0 +1,135 @@
+package com.prico.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prico.dto.ApiResponse;
+import com.prico.dto.crud.BulkProductStoreRequestDto;
+import com.prico.dto.crud.BulkProductStoreResultDto;
+import com.prico.dto.crud.ProductStoreRequestDto;
+import com.prico.dto.crud.ProductStoreResponseDto;
+import com.prico.dto.match.OfferMatchResponseDto;
+import com.prico.ingest.OfferWriteCoalescer;
+import com.prico.service.ProductStoreService;
+import com.prico.util.Pagination;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/product-stores")
+public class ProductStoreController {
+
+    @Autowired
+    private ProductStoreService service;
+
+    @Autowired
+    private ObjectMapper jsonMapper;
+
+    @Autowired
+    private OfferWriteCoalescer coalescer;
+
+    @GetMapping()
+    public ResponseEntity<List<ProductStoreResponseDto>> getAll(@RequestParam(required = false) Long after,
+                                                                @RequestParam(required = false) Integer page,
+                                                                @RequestParam(defaultValue = Pagination.DEFAULT_LIMIT) int limit) {
+        if (page != null) {
+            return Pagination.pageResponse(service.getPage(page, limit));
+        }
+
+        List<ProductStoreResponseDto> productStores = service.getAll(after, limit);
+        return Pagination.keysetResponse(productStores, limit, ProductStoreResponseDto::getId);
+    }
+
+    /**
+     * Streams every offer with its product and store as newline-delimited JSON. Rows are written as they are
+     * read from the database cursor, so the response is never held in memory.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void export(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader("Content-Disposition", "attachment; filename=\"offers.ndjson\"");
+
+        try (JsonGenerator generator = jsonMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+
+            service.exportAll(offer -> {
+                try {
+                    generator.writeObject(offer);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ProductStoreResponseDto> getById(@PathVariable Long id) {
+        ProductStoreResponseDto productStore = service.getById(id);
+        return ResponseEntity.ok(productStore);
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<List<BulkProductStoreResultDto>>> bulkUpsert(@Valid @RequestBody BulkProductStoreRequestDto bulk) {
+        List<BulkProductStoreResultDto> results = service.bulkUpsert(bulk.getOffers());
+
+        long rejected = results
+                .stream()
+                .filter(x -> x.getStatus() == BulkProductStoreResultDto.Status.REJECTED)
+                .count();
+
+        long unchanged = results
+                .stream()
+                .filter(x -> x.getStatus() == BulkProductStoreResultDto.Status.UNCHANGED)
+                .count();
+
+        ApiResponse<List<BulkProductStoreResultDto>> response = new ApiResponse<>();
+        response.setData(results);
+        response.setMessage((results.size() - rejected - unchanged) + " offers have been saved, "
+                + unchanged + " unchanged, " + rejected + " rejected");
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Proposes products for an offer that has none yet. Only the name is used; nothing is written.
+     */
+    @PostMapping("/match")
+    public ResponseEntity<OfferMatchResponseDto> match(@RequestBody ProductStoreRequestDto offer,
+                                                       @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(service.matchProduct(offer, limit));
+    }
+
+    /**
+     * Crawler updates of an offer. Updates are written asynchronously, together with others arriving within
+     * {@code prico.ingest.window}; a missing offer, product or store is refused before that, and only a
+     * failure of the write itself is merely logged. Updates that would not change the offer are not written
+     * at all.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> update(@PathVariable Long id, @Valid @RequestBody ProductStoreRequestDto offer) {
+        ApiResponse<Void> response = new ApiResponse<>();
+
+        if (!coalescer.isUnchanged(id, offer)) {
+            service.checkUpdate(id, offer);
+        }
+
+        if (coalescer.submit(id, offer) == OfferWriteCoalescer.Result.SKIPPED) {
+            response.setMessage("Offer is unchanged");
+            return ResponseEntity.ok(response);
+        }
+
+        response.setMessage("Offer update has been accepted");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+}
@@ -5,6 +5,7 @@ import com.prico.dto.crud.StoreRequestDto;
 import com.prico.dto.crud.StoreResponseDto;
 import com.prico.model.Store;
 import com.prico.service.StoreService;
+import com.prico.util.Pagination;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -23,9 +24,15 @@ public class StoreController {
     private StoreService service;
 
     @GetMapping()
-    public ResponseEntity<List<StoreResponseDto>> getAll() {
-        List<StoreResponseDto> brands = service.getAll();
-        return ResponseEntity.ok(brands);
+    public ResponseEntity<List<StoreResponseDto>> getAll(@RequestParam(required = false) Long after,
+                                                         @RequestParam(required = false) Integer page,
+                                                         @RequestParam(defaultValue = Pagination.DEFAULT_LIMIT) int limit) {
+        if (page != null) {
+            return Pagination.pageResponse(service.getPage(page, limit));
+        }
+
+        List<StoreResponseDto> stores = service.getAll(after, limit);
+        return Pagination.keysetResponse(stores, limit, StoreResponseDto::getId);
     }
 
     @GetMapping("/{id}")
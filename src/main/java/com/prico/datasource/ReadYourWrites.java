@@ -0,0 +1,76 @@
+package com.prico.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-request read-your-writes state for {@link ReplicaRoutingDataSource}. Between {@link #start} and
+ * {@link #stop} on the same thread, reads are sent to the primary once the request is pinned, either up
+ * front for a client that wrote recently or by its own first write, whose commit is reported to the
+ * listener so the client can be pinned for its next requests.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<State> STATE = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void start(boolean pinned, Runnable onWrite) {
+        STATE.set(new State(pinned, onWrite));
+    }
+
+    public static void stop() {
+        STATE.remove();
+    }
+
+    public static boolean isPinned() {
+        State state = STATE.get();
+        return state != null && state.pinned;
+    }
+
+    /**
+     * Pins the rest of the request to the primary. Called for the connections of read-write transactions.
+     */
+    public static void wrote() {
+        State state = STATE.get();
+
+        if (state == null || state.wrote) {
+            return;
+        }
+
+        state.pinned = true;
+        state.wrote = true;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            state.onWrite.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    state.onWrite.run();
+                } else {
+                    // A later transaction of the request may still write
+                    state.wrote = false;
+                }
+            }
+        });
+    }
+
+    private static final class State {
+
+        private final Runnable onWrite;
+
+        private boolean pinned;
+
+        private boolean wrote;
+
+        State(boolean pinned, Runnable onWrite) {
+            this.pinned = pinned;
+            this.onWrite = onWrite;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.prico.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the connections of read-only transactions to the replicas, round robin, and every other connection
+ * to the primary. The transaction is only known once it has begun, so this has to sit behind a
+ * {@link LazyConnectionDataSourceProxy}, which defers getting the connection to the first statement.
+ * A replica that cannot hand out a connection is skipped for the primary rather than failing the read.
+ * Bound as a {@link MeterBinder}, since the meter registry's own binders need the data source first.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder, AutoCloseable {
+
+    private final HikariDataSource primary;
+
+    private final List<HikariDataSource> replicas;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+    }
+
+    /**
+     * Adds the {@code hikaricp.*} metrics of every pool, tagged with the pool name.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter
+                .builder("prico.datasource.replica.fallbacks", fallbacks, AtomicLong::get)
+                .description("Read-only connections taken from the primary because a replica failed")
+                .register(registry);
+
+        bindPool(primary, registry);
+        replicas.forEach(x -> bindPool(x, registry));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        HikariDataSource replica = replica();
+
+        if (replica == null) {
+            return primary.getConnection();
+        }
+
+        try {
+            return replica.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            fallbacks.incrementAndGet();
+            log.warn("Reading from the primary, replica {} failed: {}", replica.getPoolName(), e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    // Explicit credentials are not those of the replica pools, so these always go to the primary
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    // Pool settings such as the maximum pool size are read from the primary
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    public long fallbackCount() {
+        return fallbacks.get();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+
+    // Spring Boot's own binder finds the primary through the data source bean, and may have got there first
+    private static void bindPool(HikariDataSource pool, MeterRegistry registry) {
+        if (pool.getMetricsTrackerFactory() == null && pool.getMetricRegistry() == null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+    }
+
+    private HikariDataSource replica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ReadYourWrites.wrote();
+            }
+
+            return null;
+        }
+
+        if (replicas.isEmpty() || ReadYourWrites.isPinned()) {
+            return null;
+        }
+
+        return replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+    }
+}
@@ -0,0 +1,28 @@
+package com.prico.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PriceChangeDto {
+
+    private Long offerId;
+
+    private Long productId;
+
+    private Long storeId;
+
+    // Null when the offer was removed from the product or store
+    private Float price;
+
+    private Float previousPrice;
+
+    private Instant changedAt;
+}
@@ -0,0 +1,35 @@
+package com.prico.dto;
+
+import lombok.Getter;
+
+/**
+ * Price buckets for search facets. Lower bounds are inclusive, upper bounds exclusive.
+ */
+@Getter
+public enum PriceRange {
+
+    UNDER_5(0F, 5F),
+    FROM_5_TO_10(5F, 10F),
+    FROM_10_TO_20(10F, 20F),
+    FROM_20_TO_50(20F, 50F),
+    FROM_50(50F, Float.POSITIVE_INFINITY);
+
+    private final float min;
+
+    private final float max;
+
+    PriceRange(float min, float max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    public static PriceRange of(float price) {
+        for (PriceRange range : values()) {
+            if (price < range.max) {
+                return range;
+            }
+        }
+
+        return FROM_50;
+    }
+}
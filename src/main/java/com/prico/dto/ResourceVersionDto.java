@@ -0,0 +1,21 @@
+package com.prico.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ResourceVersionDto {
+
+    private String etag;
+
+    // Null when deletes would not move it, as for lists
+    private Instant lastModified;
+
+    public long getLastModifiedMillis() {
+        return lastModified != null ? lastModified.toEpochMilli() : -1;
+    }
+}
@@ -0,0 +1,24 @@
+package com.prico.dto;
+
+import lombok.*;
+
+import java.util.Map;
+
+/**
+ * Number of matching products per facet value, most frequent first. Each facet is counted with the
+ * filters of the other facets applied but not its own, so selecting a brand still shows the other brands.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SearchFacetsDto {
+
+    private Map<Long, Integer> brands;
+
+    private Map<Long, Integer> categories;
+
+    private Map<Long, Integer> stores;
+
+    private Map<PriceRange, Integer> prices;
+}
@@ -3,6 +3,8 @@ package com.prico.dto;
 import com.prico.validation.AtLeastOneNotBlank;
 import lombok.*;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -15,4 +17,14 @@ public class SearchRequestDto {
     private String brand;
 
     private String category;
+
+    // Facet filters: values within a facet are OR-ed, facets are AND-ed
+
+    private List<Long> brandIds;
+
+    private List<Long> categoryIds;
+
+    private List<Long> storeIds;
+
+    private List<PriceRange> prices;
 }
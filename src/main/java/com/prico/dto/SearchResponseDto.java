@@ -0,0 +1,20 @@
+package com.prico.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.prico.dto.crud.ProductResponseDto;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchResponseDto {
+
+    private List<ProductResponseDto> products;
+
+    // Left out while the facet index is still loading
+    private SearchFacetsDto facets;
+}
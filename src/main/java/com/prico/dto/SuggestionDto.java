@@ -0,0 +1,22 @@
+package com.prico.dto;
+
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SuggestionDto {
+
+    private String text;
+
+    private Type type;
+
+    private Long id;
+
+    public enum Type {
+        PRODUCT,
+        BRAND,
+        CATEGORY
+    }
+}
@@ -0,0 +1,20 @@
+package com.prico.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A response body with the ETag of the rows it was read from, both read in the same transaction.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class VersionedDto<T> {
+
+    private String etag;
+
+    private T body;
+}
@@ -0,0 +1,27 @@
+package com.prico.dto.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PriceAlertRequestDto {
+
+    @NotNull(message = "Product id should not be NULL")
+    private Long productId;
+
+    @NotNull(message = "Threshold should not be NULL")
+    @Positive(message = "Threshold should be positive")
+    private Float threshold;
+
+    @NotBlank(message = "Subscriber should not be NULL or EMPTY")
+    private String subscriber;
+}
@@ -0,0 +1,27 @@
+package com.prico.dto.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PriceAlertResponseDto {
+
+    private Long id;
+
+    private Long productId;
+
+    private Float threshold;
+
+    private String subscriber;
+
+    private Instant createdAt;
+
+    private Instant triggeredAt;
+}
@@ -0,0 +1,39 @@
+package com.prico.dto.comparison;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Flat projection of a product joined to its offers and stores, one row per offer. A product
+ * without offers yields a single row whose store and variation columns are null.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductVariationRow {
+
+    private Long productId;
+
+    private String productName;
+
+    private String productImageUrl;
+
+    private Long storeId;
+
+    private String storeName;
+
+    private String storeWebsite;
+
+    private Long variationId;
+
+    private String variationName;
+
+    private String variationUrl;
+
+    private String variationImageUrl;
+
+    private Float price;
+}
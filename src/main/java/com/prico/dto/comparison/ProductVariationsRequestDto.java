@@ -0,0 +1,24 @@
+package com.prico.dto.comparison;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductVariationsRequestDto {
+
+    public static final int MAX_PRODUCTS = 100;
+
+    @NotEmpty(message = "Product ids should not be NULL or EMPTY")
+    @Size(max = MAX_PRODUCTS, message = "At most " + MAX_PRODUCTS + " products can be compared per request")
+    private List<@NotNull(message = "Product id should not be NULL") Long> productIds;
+}
@@ -0,0 +1,23 @@
+package com.prico.dto.crud;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkProductStoreRequestDto {
+
+    public static final int MAX_OFFERS = 10000;
+
+    @NotEmpty(message = "Offers should not be NULL or EMPTY")
+    @Size(max = MAX_OFFERS, message = "At most " + MAX_OFFERS + " offers can be sent per request")
+    private List<ProductStoreRequestDto> offers;
+}
@@ -0,0 +1,31 @@
+package com.prico.dto.crud;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkProductStoreResultDto {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        // Already in the sent state, so not written
+        UNCHANGED,
+        REJECTED
+    }
+
+    private int index;
+
+    private Long id;
+
+    private Status status;
+
+    private String message;
+}
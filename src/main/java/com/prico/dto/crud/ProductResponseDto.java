@@ -22,4 +22,14 @@ public class ProductResponseDto {
     private CategoryResponseDto category;
 
     private BrandResponseDto brand;
+
+    private Float lowestPrice;
+
+    private Long cheapestStoreId;
+
+    private String cheapestStoreName;
+
+    private int offerCount;
+
+    private int storeCount;
 }
@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
 
 @Data
 @AllArgsConstructor
@@ -21,12 +23,13 @@ public class ProductStoreRequestDto {
 
     private String imageUrl;
 
-    @NotBlank(message = "Price should not be NULL or 0")
+    @NotNull(message = "Price should not be NULL or 0")
+    @Positive(message = "Price should not be NULL or 0")
     private Float price;
 
-    @NotBlank(message = "Product should not be NULL")
+    @NotNull(message = "Product should not be NULL")
     private Long productId;
 
-    @NotBlank(message = "Store should not be NULL")
+    @NotNull(message = "Store should not be NULL")
     private Long storeId;
 }
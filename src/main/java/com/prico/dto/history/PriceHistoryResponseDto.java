@@ -0,0 +1,38 @@
+package com.prico.dto.history;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PriceHistoryResponseDto {
+
+    private Long productId;
+
+    private Long storeId;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private PriceInterval interval;
+
+    private Float minPrice;
+
+    private Float maxPrice;
+
+    private Float avgPrice;
+
+    private Long observations;
+
+    private List<PricePointDto> series;
+}
@@ -0,0 +1,39 @@
+package com.prico.dto.history;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Bucket width of a downsampled price series. Buckets are aligned in UTC.
+ */
+public enum PriceInterval {
+    HOUR,
+    DAY,
+    WEEK,
+    MONTH;
+
+    public Instant bucketOf(Instant instant) {
+        switch (this) {
+            case HOUR:
+                return instant.truncatedTo(ChronoUnit.HOURS);
+            case DAY:
+                return instant.truncatedTo(ChronoUnit.DAYS);
+            case WEEK:
+                return startOfDay(date(instant).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+            default:
+                return startOfDay(date(instant).withDayOfMonth(1));
+        }
+    }
+
+    private static LocalDate date(Instant instant) {
+        return instant.atZone(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private static Instant startOfDay(LocalDate date) {
+        return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
@@ -0,0 +1,25 @@
+package com.prico.dto.history;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PricePointDto {
+
+    private Instant bucket;
+
+    private Float minPrice;
+
+    private Float maxPrice;
+
+    private Float avgPrice;
+
+    private Long observations;
+}
@@ -0,0 +1,20 @@
+package com.prico.dto.match;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OfferMatchResponseDto {
+
+    // The product bulk ingestion would link the offer to, null when no candidate is confident enough
+    private Long productId;
+
+    private List<ProductCandidateDto> candidates;
+}
@@ -0,0 +1,18 @@
+package com.prico.dto.match;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductCandidateDto {
+
+    private Long productId;
+
+    // Jaccard similarity of the words of the offer name and the product's name and brand
+    private Float score;
+}
@@ -0,0 +1,411 @@
+package com.prico.feed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prico.dto.PriceChangeDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-sent events of offer price changes, to subscribers of a product or a store. Publishing only
+ * serialises each change once and queues it for its subscribers; a small pool of sender threads writes
+ * the events out. Each subscriber queues at most one event per offer, later prices replacing earlier ones
+ * that were not sent yet, and at most {@code bufferSize} offers, dropping the oldest beyond that, so a slow
+ * client falls behind to the latest prices rather than holding memory or a thread per change. A send that
+ * blocks for longer than {@code sendTimeout} disconnects its subscriber, and a sender thread is added until
+ * the blocked write returns, so a client that stopped reading cannot hold up the others.
+ */
+@Slf4j
+public class PriceFeed implements AutoCloseable {
+
+    public static final String EVENT = "price";
+
+    private final int bufferSize;
+
+    private final long timeoutMillis;
+
+    private final long sendTimeoutNanos;
+
+    private final int senderThreads;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Long, Set<Subscriber>> byProduct = new ConcurrentHashMap<>();
+
+    private final Map<Long, Set<Subscriber>> byStore = new ConcurrentHashMap<>();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong stalled = new AtomicLong();
+
+    private final ThreadPoolExecutor senders;
+
+    // Senders added for the ones blocked on a stalled subscriber; guarded by senders
+    private int extraSenders;
+
+    private final ScheduledExecutorService heartbeats;
+
+    public PriceFeed(int bufferSize, int senderThreads, Duration heartbeat, Duration timeout, Duration sendTimeout,
+                     ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.senderThreads = senderThreads;
+        this.objectMapper = objectMapper;
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(), daemon("price-feed-sender"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemon("price-feed-heartbeat"));
+
+        heartbeats.scheduleWithFixedDelay(() -> subscribers.forEach(Subscriber::heartbeat),
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        heartbeats.scheduleWithFixedDelay(this::disconnectStalled,
+                sendTimeout.toMillis(), sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        if (meterRegistry != null) {
+            Gauge
+                    .builder("prico.price.feed.subscribers", subscribers, Set::size)
+                    .register(meterRegistry);
+
+            FunctionCounter
+                    .builder("prico.price.feed.dropped", dropped, AtomicLong::get)
+                    .description("Price changes replaced by a newer one or dropped before a slow subscriber received them")
+                    .register(meterRegistry);
+
+            FunctionCounter
+                    .builder("prico.price.feed.stalled", stalled, AtomicLong::get)
+                    .description("Subscribers disconnected because a send to them blocked for longer than the send timeout")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Opens a stream of the price changes of the offers of any of the products or stores.
+     */
+    public SseEmitter subscribe(Collection<Long> productIds, Collection<Long> storeIds) {
+        return subscribe(new SseEmitter(timeoutMillis), productIds, storeIds);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Collection<Long> productIds, Collection<Long> storeIds) {
+        Subscriber subscriber = new Subscriber(emitter, new HashSet<>(productIds), new HashSet<>(storeIds));
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        subscribers.add(subscriber);
+        subscriber.productIds.forEach(x -> add(byProduct, x, subscriber));
+        subscriber.storeIds.forEach(x -> add(byStore, x, subscriber));
+
+        return emitter;
+    }
+
+    /**
+     * Whether anyone subscribes to the product or the store, so publishers can skip building changes.
+     */
+    public boolean isWatched(Long productId, Long storeId) {
+        return (productId != null && byProduct.containsKey(productId)) || (storeId != null && byStore.containsKey(storeId));
+    }
+
+    public void publish(List<PriceChangeDto> changes) {
+        for (PriceChangeDto change : changes) {
+            Set<Subscriber> productSubscribers = change.getProductId() != null ? byProduct.get(change.getProductId()) : null;
+            Set<Subscriber> storeSubscribers = change.getStoreId() != null ? byStore.get(change.getStoreId()) : null;
+
+            if (productSubscribers == null && storeSubscribers == null) {
+                continue;
+            }
+
+            Event event = new Event(change.getOfferId(), json(change));
+
+            if (productSubscribers != null) {
+                productSubscribers.forEach(x -> x.offer(event));
+            }
+
+            if (storeSubscribers != null) {
+                for (Subscriber subscriber : storeSubscribers) {
+                    // Already queued for subscribers to the product as well
+                    if (!subscriber.productIds.contains(change.getProductId())) {
+                        subscriber.offer(event);
+                    }
+                }
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public long stalledCount() {
+        return stalled.get();
+    }
+
+    @Override
+    public void close() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(x -> x.emitter.complete());
+    }
+
+    // Blocked writes only fail once the connector's write timeout passes; the emitter cannot be completed
+    // meanwhile, as the blocked send holds its lock
+    private void disconnectStalled() {
+        long now = System.nanoTime();
+
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.stall(now)) {
+                log.debug("Dropping price feed subscriber blocked for over {} ms", TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+                unsubscribe(subscriber);
+                stalled.incrementAndGet();
+                resizeSenders(1);
+            }
+        }
+    }
+
+    private void resizeSenders(int delta) {
+        synchronized (senders) {
+            extraSenders += delta;
+
+            // The core size may not exceed the maximum
+            if (delta > 0) {
+                senders.setMaximumPoolSize(senderThreads + extraSenders);
+                senders.setCorePoolSize(senderThreads + extraSenders);
+            } else {
+                senders.setCorePoolSize(senderThreads + extraSenders);
+                senders.setMaximumPoolSize(senderThreads + extraSenders);
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+
+        subscriber.close();
+        subscriber.productIds.forEach(x -> remove(byProduct, x, subscriber));
+        subscriber.storeIds.forEach(x -> remove(byStore, x, subscriber));
+    }
+
+    // Sets are only changed inside compute, so a set is never added to after it was removed as empty
+    private static void add(Map<Long, Set<Subscriber>> index, Long id, Subscriber subscriber) {
+        index.compute(id, (key, set) -> {
+            Set<Subscriber> current = set != null ? set : ConcurrentHashMap.newKeySet();
+            current.add(subscriber);
+            return current;
+        });
+    }
+
+    private static void remove(Map<Long, Set<Subscriber>> index, Long id, Subscriber subscriber) {
+        index.computeIfPresent(id, (key, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private String json(PriceChangeDto change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Event {
+
+        private final Long offerId;
+
+        private final String json;
+
+        Event(Long offerId, String json) {
+            this.offerId = offerId;
+            this.json = json;
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final Set<Long> productIds;
+
+        private final Set<Long> storeIds;
+
+        // Latest unsent event per offer, oldest first; guarded by this
+        private final LinkedHashMap<Long, Event> pending = new LinkedHashMap<>();
+
+        private boolean scheduled;
+
+        private boolean heartbeatDue;
+
+        private boolean closed;
+
+        // When the current send started, or 0
+        private long sendingSince;
+
+        private boolean stalled;
+
+        Subscriber(SseEmitter emitter, Set<Long> productIds, Set<Long> storeIds) {
+            this.emitter = emitter;
+            this.productIds = productIds;
+            this.storeIds = storeIds;
+        }
+
+        void offer(Event event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+
+                if (pending.put(event.offerId, event) != null) {
+                    dropped.incrementAndGet();
+                }
+
+                if (pending.size() > bufferSize) {
+                    Iterator<Event> oldest = pending.values().iterator();
+                    oldest.next();
+                    oldest.remove();
+                    dropped.incrementAndGet();
+                }
+
+                if (!schedule()) {
+                    return;
+                }
+            }
+
+            execute();
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                // A subscriber that is being sent to does not need one
+                if (closed || !schedule()) {
+                    return;
+                }
+
+                heartbeatDue = true;
+            }
+
+            execute();
+        }
+
+        synchronized void close() {
+            closed = true;
+            pending.clear();
+        }
+
+        synchronized boolean stall(long now) {
+            if (stalled || sendingSince == 0 || now - sendingSince < sendTimeoutNanos) {
+                return false;
+            }
+
+            stalled = true;
+            return true;
+        }
+
+        private boolean schedule() {
+            if (scheduled) {
+                return false;
+            }
+
+            scheduled = true;
+            return true;
+        }
+
+        private void execute() {
+            try {
+                senders.execute(this::send);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }
+
+        private void send() {
+            while (true) {
+                List<Event> events;
+                boolean heartbeat;
+
+                synchronized (this) {
+                    if (closed || (pending.isEmpty() && !heartbeatDue)) {
+                        scheduled = false;
+                        return;
+                    }
+
+                    events = new ArrayList<>(pending.values());
+                    heartbeat = heartbeatDue && events.isEmpty();
+                    pending.clear();
+                    heartbeatDue = false;
+                    // Never 0
+                    sendingSince = System.nanoTime() | 1;
+                }
+
+                boolean failed = false;
+
+                try {
+                    if (heartbeat) {
+                        emitter.send(SseEmitter.event().comment(""));
+                    }
+
+                    for (Event event : events) {
+                        emitter.send(SseEmitter.event().name(EVENT).data(event.json, MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The container reports the failed connection through onError; stop sending meanwhile
+                    log.debug("Dropping price feed subscriber: {}", e.getMessage());
+                    unsubscribe(this);
+                    failed = true;
+                }
+
+                if (sent() || failed) {
+                    return;
+                }
+            }
+        }
+
+        // Whether the send had stalled, in which case the subscriber is dropped and its extra sender removed
+        private boolean sent() {
+            synchronized (this) {
+                sendingSince = 0;
+
+                if (!stalled) {
+                    return false;
+                }
+            }
+
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            } finally {
+                resizeSenders(-1);
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.prico.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prico.dto.ApiResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the number of requests in flight to the size of the connection pool. With virtual threads
+ * there is no request thread pool to do this, and requests waiting inside Hikari or the MySQL driver
+ * pin their carrier threads; waiting on this semaphore does not.
+ */
+@Slf4j
+public class ConnectionLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+
+    private final Duration timeout;
+
+    private final ObjectMapper jsonMapper;
+
+    public ConnectionLimitFilter(int maxConcurrency, Duration timeout, ObjectMapper jsonMapper) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.timeout = timeout;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+
+        try {
+            acquired = permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            log.warn("Rejected {} {}: no connection available within {}", request.getMethod(), request.getRequestURI(), timeout);
+            reject(response);
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int queueLength() {
+        return permits.getQueueLength();
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        ApiResponse<?> body = ApiResponse
+                .builder()
+                .status("error")
+                .message("Server is busy, please retry")
+                .build();
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        jsonMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,73 @@
+package com.prico.filter;
+
+import com.prico.datasource.ReadYourWrites;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Reads of a client that wrote within {@code stickiness} go to the primary, so it sees its own writes while
+ * the replicas catch up; so do the reads of a request after its own first write. The client carries the
+ * time its pin ends in a cookie; a forged one only costs the primary its reads.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "prico-primary-until";
+
+    private final Duration stickiness;
+
+    public ReadYourWritesFilter(Duration stickiness) {
+        this.stickiness = stickiness;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadYourWrites.start(pinnedUntil(request) > System.currentTimeMillis(), () -> pin(response));
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.stop();
+        }
+    }
+
+    // Writes commit before the controller writes the body, so the cookie still makes it into the headers
+    private void pin(HttpServletResponse response) {
+        if (stickiness.isZero() || response.isCommitted()) {
+            return;
+        }
+
+        Cookie cookie = new Cookie(COOKIE, String.valueOf(System.currentTimeMillis() + stickiness.toMillis()));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, (stickiness.toMillis() + 999) / 1000));
+        response.addCookie(cookie);
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+
+        if (cookies == null) {
+            return 0;
+        }
+
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+
+        return 0;
+    }
+}
@@ -2,6 +2,7 @@ package com.prico.handler;
 
 import com.prico.dto.ApiError;
 import com.prico.dto.ApiResponse;
+import com.prico.exception.BadRequestException;
 import com.prico.exception.ResourceNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.Ordered;
@@ -33,6 +34,18 @@ public class GlobalExceptionHandler {
         return response;
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiResponse<?> handleBadRequestException(BadRequestException ex) {
+        ApiResponse<?> response = ApiResponse
+            .<List<String>>builder()
+            .status("error")
+            .message(ex.getMessage())
+            .build();
+
+        return response;
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiResponse<?> handleMethodArgumentNotValidException(MethodArgumentNotValidException ex) {
@@ -0,0 +1,269 @@
+package com.prico.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable completion index over weighted terms, keyed by caller-defined ids. Term texts are stored once, as UTF-8 in a single
+ * byte array. Every word start of a term is an entry, and entries are sorted by the text from that
+ * position with ASCII letters folded to lower case, so the entries completing a prefix form one range
+ * found by binary search. The heaviest terms of a range are taken best-first, using the maximum weight
+ * of each block of entries to skip blocks that cannot make the top.
+ */
+final class PrefixIndex {
+
+    static final int MAX_WORDS = 6;
+
+    private static final int BLOCK_SIZE = 32;
+
+    private final byte[] text;
+
+    private final int[] termStarts;
+
+    private final long[] keys;
+
+    private final int[] weights;
+
+    private final int[] entryStarts;
+
+    private final int[] entryTerms;
+
+    private final int[] blockMax;
+
+    private PrefixIndex(byte[] text, int[] termStarts, long[] keys, int[] weights, int[] entryStarts, int[] entryTerms) {
+        this.text = text;
+        this.termStarts = termStarts;
+        this.keys = keys;
+        this.weights = weights;
+        this.entryStarts = entryStarts;
+        this.entryTerms = entryTerms;
+        this.blockMax = new int[(entryStarts.length + BLOCK_SIZE - 1) / BLOCK_SIZE];
+
+        Arrays.fill(blockMax, Integer.MIN_VALUE);
+
+        for (int i = 0; i < entryTerms.length; i++) {
+            blockMax[i / BLOCK_SIZE] = Math.max(blockMax[i / BLOCK_SIZE], weights[entryTerms[i]]);
+        }
+    }
+
+    /**
+     * Builds the index. Keys must be unique.
+     */
+    static PrefixIndex build(Collection<Term> terms) {
+        List<Term> sorted = new ArrayList<>(terms);
+        sorted.sort(Comparator.comparingLong(Term::getKey));
+
+        byte[][] encoded = new byte[sorted.size()][];
+        int length = 0;
+
+        for (int i = 0; i < sorted.size(); i++) {
+            encoded[i] = sorted.get(i).getText().getBytes(StandardCharsets.UTF_8);
+            length += encoded[i].length;
+        }
+
+        byte[] text = new byte[length];
+        int[] termStarts = new int[sorted.size() + 1];
+        long[] keys = new long[sorted.size()];
+        int[] weights = new int[sorted.size()];
+        List<int[]> entries = new ArrayList<>();
+
+        for (int i = 0, offset = 0; i < sorted.size(); i++) {
+            System.arraycopy(encoded[i], 0, text, offset, encoded[i].length);
+            termStarts[i] = offset;
+            keys[i] = sorted.get(i).getKey();
+            weights[i] = sorted.get(i).getWeight();
+
+            int words = 0;
+
+            for (int position = 0; position < encoded[i].length && words < MAX_WORDS; position++) {
+                if (isWordStart(encoded[i], position)) {
+                    entries.add(new int[]{offset + position, i});
+                    words++;
+                }
+            }
+
+            offset += encoded[i].length;
+        }
+
+        termStarts[sorted.size()] = length;
+
+        entries.sort((a, b) -> compare(text, a[0], termStarts[a[1] + 1], text, b[0], termStarts[b[1] + 1], Integer.MAX_VALUE));
+
+        int[] entryStarts = new int[entries.size()];
+        int[] entryTerms = new int[entries.size()];
+
+        for (int i = 0; i < entries.size(); i++) {
+            entryStarts[i] = entries.get(i)[0];
+            entryTerms[i] = entries.get(i)[1];
+        }
+
+        return new PrefixIndex(text, termStarts, keys, weights, entryStarts, entryTerms);
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    long sizeInBytes() {
+        return text.length + 4L * termStarts.length + 8L * keys.length + 4L * weights.length
+                + 4L * entryStarts.length + 4L * entryTerms.length + 4L * blockMax.length;
+    }
+
+    Term term(int index) {
+        return new Term(keys[index], new String(text, termStarts[index], termStarts[index + 1] - termStarts[index], StandardCharsets.UTF_8), weights[index]);
+    }
+
+    /**
+     * Index of the term with the given key, or -1.
+     */
+    int find(long key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Returns up to {@code limit} terms having a word that starts with the prefix, heaviest first. Terms
+     * whose key is rejected by the filter are skipped.
+     */
+    List<Term> complete(String prefix, int limit, LongPredicate filter) {
+        byte[] query = prefix.getBytes(StandardCharsets.UTF_8);
+        int from = bound(query, false);
+        int to = bound(query, true);
+
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+
+        // Blocks by their maximum weight, entries by weight and then text
+        PriorityQueue<Integer> blocks = new PriorityQueue<>((a, b) -> Integer.compare(blockMax[b], blockMax[a]));
+        PriorityQueue<Integer> entries = new PriorityQueue<>((a, b) -> {
+            int byWeight = Integer.compare(weights[entryTerms[b]], weights[entryTerms[a]]);
+            return byWeight != 0 ? byWeight : Integer.compare(a, b);
+        });
+
+        for (int block = from / BLOCK_SIZE; block <= (to - 1) / BLOCK_SIZE; block++) {
+            blocks.add(block);
+        }
+
+        List<Term> result = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+
+        while (result.size() < limit && !(blocks.isEmpty() && entries.isEmpty())) {
+            Integer entry = entries.peek();
+
+            if (!blocks.isEmpty() && (entry == null || blockMax[blocks.peek()] >= weights[entryTerms[entry]])) {
+                int block = blocks.poll();
+
+                for (int i = Math.max(from, block * BLOCK_SIZE); i < Math.min(to, (block + 1) * BLOCK_SIZE); i++) {
+                    entries.add(i);
+                }
+            } else {
+                int term = entryTerms[entries.poll()];
+
+                if (seen.add(term) && filter.test(keys[term])) {
+                    result.add(term(term));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Whether a word of the text starts with the prefix, matched the same way as {@link #complete}.
+     */
+    static boolean matches(String value, String prefix) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        byte[] query = prefix.getBytes(StandardCharsets.UTF_8);
+
+        for (int position = 0, words = 0; position < bytes.length && words < MAX_WORDS; position++) {
+            if (isWordStart(bytes, position)) {
+                if (compare(bytes, position, bytes.length, query, 0, query.length, query.length) == 0) {
+                    return true;
+                }
+
+                words++;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * First entry not below the prefix or, when {@code past}, first entry past every completion of it.
+     */
+    private int bound(byte[] query, boolean past) {
+        int low = 0;
+        int high = entryStarts.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int end = termStarts[entryTerms[middle] + 1];
+            int comparison = compare(text, entryStarts[middle], end, query, 0, query.length, past ? query.length : Integer.MAX_VALUE);
+
+            if (comparison < 0 || (past && comparison == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Compares two byte ranges with ASCII letters folded, looking at no more than {@code limit} bytes.
+     */
+    private static int compare(byte[] a, int aFrom, int aTo, byte[] b, int bFrom, int bTo, int limit) {
+        int length = Math.min(limit, Math.min(aTo - aFrom, bTo - bFrom));
+
+        for (int i = 0; i < length; i++) {
+            int difference = fold(a[aFrom + i]) - fold(b[bFrom + i]);
+
+            if (difference != 0) {
+                return difference;
+            }
+        }
+
+        return Integer.compare(Math.min(limit, aTo - aFrom), Math.min(limit, bTo - bFrom));
+    }
+
+    private static int fold(byte value) {
+        int c = value & 0xFF;
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+    /**
+     * Words are indexed from their first letter. Words starting with a digit, such as sizes, and single
+     * letters are left out to keep the entries per term down.
+     */
+    private static boolean isWordStart(byte[] bytes, int position) {
+        return isLetter(bytes[position])
+                && (position == 0 || !isWordByte(bytes[position - 1]))
+                && position + 1 < bytes.length && isWordByte(bytes[position + 1]);
+    }
+
+    // Bytes of multi-byte UTF-8 characters count as letters
+    private static boolean isLetter(byte value) {
+        return value < 0 || Character.isLetter(value);
+    }
+
+    private static boolean isWordByte(byte value) {
+        return value < 0 || Character.isLetterOrDigit(value);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static final class Term {
+
+        private final long key;
+
+        private final String text;
+
+        private final int weight;
+    }
+}
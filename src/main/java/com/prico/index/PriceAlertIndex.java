@@ -0,0 +1,329 @@
+package com.prico.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Untriggered price alerts per product, each product's alerts sorted by threshold. Alerts fire once the
+ * product's lowest price drops below their threshold, so every alert left in the index is at or below the
+ * lowest price last seen for its product, and a price drop fires exactly the alerts at the top of the
+ * arrays: found by binary search and cut off in O(log n + k). An alert is a threshold and an id held in
+ * parallel {@code float} and {@code long} arrays, so it takes 12 bytes plus the slack of its product's arrays.
+ */
+@Component
+public class PriceAlertIndex {
+
+    private final Map<Long, Alerts> byProduct = new ConcurrentHashMap<>();
+
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * Adds the alert unless the product's lowest price is already below its threshold. The given lowest
+     * price only counts for products the index does not watch yet.
+     *
+     * @return the match when the alert fires straight away, otherwise null
+     */
+    public Match add(Long productId, Long alertId, float threshold, Float lowestPrice) {
+        Match[] match = new Match[1];
+
+        byProduct.compute(productId, (id, alerts) -> {
+            Alerts current = alerts != null ? alerts : new Alerts(lowestPrice);
+
+            if (threshold > current.lowest) {
+                match[0] = new Match(alertId, productId, threshold, current.lowest);
+                return alerts;
+            }
+
+            if (current.insert(threshold, alertId)) {
+                size.incrementAndGet();
+            }
+
+            return current;
+        });
+
+        return match[0];
+    }
+
+    public void remove(Long productId, Long alertId, float threshold) {
+        byProduct.computeIfPresent(productId, (id, alerts) -> {
+            if (alerts.delete(threshold, alertId)) {
+                size.decrementAndGet();
+            }
+
+            return alerts.size > 0 ? alerts : null;
+        });
+    }
+
+    public boolean watches(Long productId) {
+        return byProduct.containsKey(productId);
+    }
+
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * Records the product's new lowest price, null when it has no offers, and removes and returns the
+     * alerts it dropped below.
+     */
+    public List<Match> update(Long productId, Float lowestPrice) {
+        List<Match> matches = new ArrayList<>();
+
+        byProduct.computeIfPresent(productId, (id, alerts) -> {
+            alerts.lowest = lowestPrice != null ? lowestPrice : Float.POSITIVE_INFINITY;
+            alerts.fire(id, matches);
+
+            return alerts.size > 0 ? alerts : null;
+        });
+
+        size.addAndGet(-matches.size());
+
+        return matches;
+    }
+
+    /**
+     * Adds alerts loaded in any order to the index, keeping the ones added while they were read.
+     */
+    public Loader loader() {
+        return new Loader();
+    }
+
+    public class Loader {
+
+        private final Map<Long, Alerts> loaded = new HashMap<>();
+
+        private Loader() {
+        }
+
+        public void add(Long productId, Long alertId, float threshold) {
+            loaded.computeIfAbsent(productId, x -> new Alerts(null)).append(threshold, alertId);
+        }
+
+        /**
+         * Sorts the loaded alerts and merges them in. Alerts the lowest prices are already below, such as
+         * ones a price drop could not trigger while the application was down, are returned instead.
+         * Products the index already watches keep the lowest price it last saw for them. An alert deleted or
+         * triggered while the alerts were read comes back, and firing it again records nothing.
+         */
+        public List<Match> finish(Map<Long, Float> lowestPrices) {
+            List<Match> matches = new ArrayList<>();
+
+            loaded.forEach((productId, alerts) -> {
+                Float lowestPrice = lowestPrices.get(productId);
+
+                alerts.sort();
+                alerts.lowest = lowestPrice != null ? lowestPrice : Float.POSITIVE_INFINITY;
+                alerts.fire(productId, matches);
+
+                if (alerts.size == 0) {
+                    return;
+                }
+
+                byProduct.compute(productId, (id, live) -> {
+                    if (live == null) {
+                        size.addAndGet(alerts.size);
+                        return alerts;
+                    }
+
+                    int counted = live.size;
+                    Alerts merged = alerts.size > live.size ? alerts : live;
+                    merged.addAll(merged == live ? alerts : live);
+                    merged.lowest = live.lowest;
+                    merged.fire(id, matches);
+                    size.addAndGet(merged.size - counted);
+
+                    return merged.size > 0 ? merged : null;
+                });
+            });
+
+            loaded.clear();
+
+            return matches;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Match {
+
+        private final Long alertId;
+
+        private final Long productId;
+
+        private final float threshold;
+
+        private final float price;
+    }
+
+    private static final class Alerts {
+
+        // Sorted by threshold, then alert id
+        private float[] thresholds = new float[2];
+
+        private long[] ids = new long[2];
+
+        private int size;
+
+        private float lowest;
+
+        Alerts(Float lowestPrice) {
+            this.lowest = lowestPrice != null ? lowestPrice : Float.POSITIVE_INFINITY;
+        }
+
+        void append(float threshold, long alertId) {
+            if (size == ids.length) {
+                resize(size * 2);
+            }
+
+            thresholds[size] = threshold;
+            ids[size++] = alertId;
+        }
+
+        /**
+         * Sorts appended alerts. Thresholds are positive, so the order of their bits is the order of the
+         * values, and with the position below them a single primitive sort orders the pairs.
+         */
+        void sort() {
+            long[] order = new long[size];
+
+            for (int i = 0; i < size; i++) {
+                order[i] = (long) Float.floatToIntBits(thresholds[i]) << 32 | i;
+            }
+
+            Arrays.sort(order);
+
+            float[] sortedThresholds = new float[thresholds.length];
+            long[] sortedIds = new long[ids.length];
+
+            for (int i = 0; i < size; i++) {
+                int from = (int) order[i];
+                sortedThresholds[i] = thresholds[from];
+                sortedIds[i] = ids[from];
+            }
+
+            // Alerts with the same threshold are still in load order
+            for (int from = 0, to; from < size; from = to) {
+                to = from + 1;
+
+                while (to < size && sortedThresholds[to] == sortedThresholds[from]) {
+                    to++;
+                }
+
+                Arrays.sort(sortedIds, from, to);
+            }
+
+            thresholds = sortedThresholds;
+            ids = sortedIds;
+        }
+
+        void addAll(Alerts other) {
+            for (int i = 0; i < other.size; i++) {
+                insert(other.thresholds[i], other.ids[i]);
+            }
+        }
+
+        boolean insert(float threshold, long alertId) {
+            int position = search(threshold, alertId);
+
+            if (position >= 0) {
+                return false;
+            }
+
+            position = -position - 1;
+
+            if (size == ids.length) {
+                resize(size * 2);
+            }
+
+            System.arraycopy(thresholds, position, thresholds, position + 1, size - position);
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            thresholds[position] = threshold;
+            ids[position] = alertId;
+            size++;
+
+            return true;
+        }
+
+        boolean delete(float threshold, long alertId) {
+            int position = search(threshold, alertId);
+
+            if (position < 0) {
+                return false;
+            }
+
+            System.arraycopy(thresholds, position + 1, thresholds, position, size - 1 - position);
+            System.arraycopy(ids, position + 1, ids, position, size - 1 - position);
+            size--;
+
+            return true;
+        }
+
+        /**
+         * Cuts off the alerts with a threshold above the lowest price.
+         */
+        void fire(Long productId, List<Match> matches) {
+            if (lowest == Float.POSITIVE_INFINITY) {
+                return;
+            }
+
+            // Past every alert whose threshold is at or below the lowest price
+            int from = 0;
+            int to = size;
+
+            while (from < to) {
+                int middle = (from + to) >>> 1;
+
+                if (thresholds[middle] <= lowest) {
+                    from = middle + 1;
+                } else {
+                    to = middle;
+                }
+            }
+
+            for (int i = from; i < size; i++) {
+                matches.add(new Match(ids[i], productId, thresholds[i], lowest));
+            }
+
+            size = from;
+
+            if (ids.length > 8 && size < ids.length / 4) {
+                resize(ids.length / 2);
+            }
+        }
+
+        // Like Arrays.binarySearch, over (threshold, alert id)
+        private int search(float threshold, long alertId) {
+            int low = 0;
+            int high = size - 1;
+
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int compare = Float.compare(thresholds[middle], threshold);
+
+                if (compare == 0) {
+                    compare = Long.compare(ids[middle], alertId);
+                }
+
+                if (compare < 0) {
+                    low = middle + 1;
+                } else if (compare > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+
+            return -(low + 1);
+        }
+
+        private void resize(int length) {
+            thresholds = Arrays.copyOf(thresholds, length);
+            ids = Arrays.copyOf(ids, length);
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.prico.index;
+
+import com.prico.dto.PriceRange;
+import com.prico.dto.SearchFacetsDto;
+import com.prico.dto.SearchRequestDto;
+import com.prico.model.Product;
+import com.prico.repository.ProductRepository;
+import com.prico.repository.projection.ProductFacetRow;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps of product ids per brand, category, store and price range. Search results are
+ * filtered and counted per facet by intersecting them, instead of a {@code GROUP BY} per facet. A
+ * product falls in the price range of its lowest offer. The facet values of each product are kept as
+ * well, so a write only touches the bitmaps the product is in.
+ */
+@Slf4j
+@Component
+public class ProductFacetIndex {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final Map<Long, RoaringBitmap> brands = new HashMap<>();
+
+    private final Map<Long, RoaringBitmap> categories = new HashMap<>();
+
+    private final Map<Long, RoaringBitmap> stores = new HashMap<>();
+
+    private final Map<PriceRange, RoaringBitmap> prices = new EnumMap<>(PriceRange.class);
+
+    // Bitmaps each product is in, by product index
+    private final Map<Integer, Facets> products = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    // Products written while a load reads the database, read again once the loaded rows are in
+    private Set<Long> written;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        List<ProductFacetRow> rows;
+        Set<Long> rewrite;
+
+        setWritten(new HashSet<>());
+        try {
+            rows = productRepository.findFacetRows();
+            rebuild(rows);
+        } finally {
+            rewrite = setWritten(null);
+        }
+
+        reindex(rewrite);
+
+        log.info("Indexed facets of {} products in {} ms",
+                rows.stream().map(ProductFacetRow::getProductId).distinct().count(),
+                System.currentTimeMillis() - start);
+    }
+
+    public void rebuild(List<ProductFacetRow> rows) {
+        lock.writeLock().lock();
+        try {
+            brands.clear();
+            categories.clear();
+            stores.clear();
+            prices.clear();
+            products.clear();
+
+            rows.forEach(this::put);
+            runOptimize();
+
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Moves the product to its current brand and category. Stores and price only change with its offers.
+     */
+    public void index(Product product) {
+        if (!fits(product.getId())) {
+            return;
+        }
+
+        int id = toIndex(product.getId());
+
+        lock.writeLock().lock();
+        try {
+            record(product.getId());
+
+            Facets facets = products.computeIfAbsent(id, x -> new Facets());
+
+            removeFrom(brands, facets.brandId, id);
+            removeFrom(categories, facets.categoryId, id);
+
+            facets.brandId = product.getBrand() != null ? product.getBrand().getId() : null;
+            facets.categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+
+            if (facets.brandId != null) {
+                add(brands, facets.brandId, id);
+            }
+
+            if (facets.categoryId != null) {
+                add(categories, facets.categoryId, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        if (!fits(productId)) {
+            return;
+        }
+
+        int id = toIndex(productId);
+
+        lock.writeLock().lock();
+        try {
+            record(productId);
+            removeAll(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-reads the facets of products whose offers changed. Must run after their offer summaries are refreshed.
+     */
+    public void reindex(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+
+        List<ProductFacetRow> rows = productRepository.findFacetRowsByProductIds(productIds);
+
+        lock.writeLock().lock();
+        try {
+            if (written != null) {
+                written.addAll(productIds);
+            }
+
+            productIds.stream().filter(ProductFacetIndex::fits).forEach(x -> removeAll(toIndex(x)));
+            rows.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Narrows the matched products down to the requested facet values and counts the matches per facet
+     * value. Each facet is counted over the matches filtered by every other facet, so the counts show
+     * what selecting that value would return.
+     */
+    public Result search(Collection<Long> productIds, SearchRequestDto filters) {
+        RoaringBitmap matches = new RoaringBitmap();
+        productIds.stream().filter(ProductFacetIndex::fits).forEach(x -> matches.add(toIndex(x)));
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap brandFilter = union(brands, filters.getBrandIds());
+            RoaringBitmap categoryFilter = union(categories, filters.getCategoryIds());
+            RoaringBitmap storeFilter = union(stores, filters.getStoreIds());
+            RoaringBitmap priceFilter = union(prices, filters.getPrices());
+
+            SearchFacetsDto facets = SearchFacetsDto
+                    .builder()
+                    .brands(count(brands, and(matches, categoryFilter, storeFilter, priceFilter)))
+                    .categories(count(categories, and(matches, brandFilter, storeFilter, priceFilter)))
+                    .stores(count(stores, and(matches, brandFilter, categoryFilter, priceFilter)))
+                    .prices(count(prices, and(matches, brandFilter, categoryFilter, storeFilter)))
+                    .build();
+
+            return new Result(and(matches, brandFilter, categoryFilter, storeFilter, priceFilter), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+
+        private final RoaringBitmap hits;
+
+        private final SearchFacetsDto facets;
+
+        public boolean contains(Long productId) {
+            return fits(productId) && hits.contains(toIndex(productId));
+        }
+    }
+
+    private static class Facets {
+
+        private Long brandId;
+
+        private Long categoryId;
+
+        private PriceRange price;
+
+        private final Set<Long> storeIds = new HashSet<>(2);
+    }
+
+    private Set<Long> setWritten(Set<Long> products) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> previous = written;
+            written = products;
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void record(Long productId) {
+        if (written != null) {
+            written.add(productId);
+        }
+    }
+
+    // One row per offer of the product, or one without a store when it has none
+    private void put(ProductFacetRow row) {
+        if (!fits(row.getProductId())) {
+            return;
+        }
+
+        int id = toIndex(row.getProductId());
+        Facets facets = products.computeIfAbsent(id, x -> new Facets());
+
+        if (row.getBrandId() != null) {
+            facets.brandId = row.getBrandId();
+            add(brands, row.getBrandId(), id);
+        }
+
+        if (row.getCategoryId() != null) {
+            facets.categoryId = row.getCategoryId();
+            add(categories, row.getCategoryId(), id);
+        }
+
+        if (row.getStoreId() != null) {
+            facets.storeIds.add(row.getStoreId());
+            add(stores, row.getStoreId(), id);
+        }
+
+        if (row.getLowestPrice() != null) {
+            facets.price = PriceRange.of(row.getLowestPrice());
+            add(prices, facets.price, id);
+        }
+    }
+
+    private void removeAll(int id) {
+        Facets facets = products.remove(id);
+
+        if (facets == null) {
+            return;
+        }
+
+        removeFrom(brands, facets.brandId, id);
+        removeFrom(categories, facets.categoryId, id);
+        facets.storeIds.forEach(x -> removeFrom(stores, x, id));
+        removeFrom(prices, facets.price, id);
+    }
+
+    private void runOptimize() {
+        brands.values().forEach(RoaringBitmap::runOptimize);
+        categories.values().forEach(RoaringBitmap::runOptimize);
+        stores.values().forEach(RoaringBitmap::runOptimize);
+        prices.values().forEach(RoaringBitmap::runOptimize);
+    }
+
+    private static <K> void add(Map<K, RoaringBitmap> bitmaps, K key, int id) {
+        bitmaps.computeIfAbsent(key, x -> new RoaringBitmap()).add(id);
+    }
+
+    private static <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int id) {
+        RoaringBitmap bitmap = key != null ? bitmaps.get(key) : null;
+
+        if (bitmap == null) {
+            return;
+        }
+
+        bitmap.remove(id);
+
+        if (bitmap.isEmpty()) {
+            bitmaps.remove(key);
+        }
+    }
+
+    /**
+     * Products having any of the requested values, or null when the facet is not filtered on.
+     */
+    private static <K> RoaringBitmap union(Map<K, RoaringBitmap> bitmaps, List<K> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return null;
+        }
+
+        RoaringBitmap union = new RoaringBitmap();
+
+        for (K key : keys) {
+            RoaringBitmap bitmap = bitmaps.get(key);
+
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+
+        return union;
+    }
+
+    private static RoaringBitmap and(RoaringBitmap matches, RoaringBitmap... filters) {
+        RoaringBitmap result = matches;
+
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result = RoaringBitmap.and(result, filter);
+            }
+        }
+
+        return result;
+    }
+
+    private static <K extends Comparable<K>> Map<K, Integer> count(Map<K, RoaringBitmap> bitmaps, RoaringBitmap matches) {
+        List<Map.Entry<K, Integer>> counts = new ArrayList<>();
+
+        bitmaps.forEach((key, bitmap) -> {
+            int count = RoaringBitmap.andCardinality(matches, bitmap);
+
+            if (count > 0) {
+                counts.add(new AbstractMap.SimpleEntry<>(key, count));
+            }
+        });
+
+        counts.sort(Map.Entry.<K, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        Map<K, Integer> result = new LinkedHashMap<>();
+        counts.forEach(x -> result.put(x.getKey(), x.getValue()));
+
+        return result;
+    }
+
+    // Bitmaps hold unsigned 32-bit values; products past that are left out of the index, and of faceted search
+    private static boolean fits(Long productId) {
+        if (productId >= 0 && productId < 1L << 32) {
+            return true;
+        }
+
+        log.warn("Product {} is past the facet index range, skipping it", productId);
+        return false;
+    }
+
+    private static int toIndex(Long productId) {
+        return (int) productId.longValue();
+    }
+}
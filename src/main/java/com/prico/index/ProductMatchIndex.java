@@ -0,0 +1,618 @@
+package com.prico.index;
+
+import com.prico.model.Product;
+import com.prico.repository.ProductMatchJdbcRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Matches offer names to the products they are near-duplicates of. A product is the set of words of its
+ * name and its brand's name, split at letter/digit boundaries too so "1kg" and "1 kg" agree. Candidates
+ * come from MinHash locality-sensitive hashing: the products sharing any of {@link #BANDS} bands of
+ * {@link #ROWS} MinHashes with the offer, which finds about 2 in 3 products at a Jaccard similarity of 0.5
+ * and practically all from 0.8. Candidates are then scored exactly on the hashes of their words.
+ * <p>
+ * A product takes its id, a hash per word, and its position and key in each band's sorted arrays: about
+ * 110 bytes for a typical name, so 5M products fit in about 550MB. Writes go to a small overlay on top of an immutable snapshot,
+ * which is rebuilt once the overlay reaches {@link #MAX_PENDING} products. Brand renames are only picked
+ * up when the index is loaded.
+ */
+@Slf4j
+@Component
+public class ProductMatchIndex {
+
+    static final int BANDS = 8;
+
+    static final int ROWS = 3;
+
+    static final int MAX_PENDING = 10000;
+
+    // Larger buckets are skipped: that many products only share a band through very common words
+    static final int MAX_BUCKET = 200;
+
+    private static final long[] SEEDS = new SplittableRandom(0x5EED).longs(BANDS * ROWS).toArray();
+
+    private static final int FNV_OFFSET = 0x811C9DC5;
+
+    private static final int FNV_PRIME = 0x01000193;
+
+    @Autowired
+    private ProductMatchJdbcRepository jdbcRepository;
+
+    // Guarded by lock
+    private Snapshot snapshot = Snapshot.EMPTY;
+
+    // Products written since the snapshot was built, by id; null marks a removed product. Guarded by lock
+    private final Map<Long, Entry> pending = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+
+        Loader loader = loader();
+        jdbcRepository.forEachProduct(loader::add);
+        int size = loader.finish();
+
+        log.info("Indexed {} products for offer matching in {} ms", size, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Replaces the index with products loaded in any order.
+     */
+    public Loader loader() {
+        return new Loader();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Product product) {
+        int[] words = words(product.getName(), product.getBrand() != null ? product.getBrand().getName() : null);
+        put(product.getId(), words.length > 0 ? new Entry(words) : null);
+    }
+
+    public void remove(Long productId) {
+        put(productId, null);
+    }
+
+    /**
+     * Returns up to {@code limit} products similar to the name, most similar first.
+     */
+    public List<Candidate> candidates(String name, int limit) {
+        int[] words = words(name);
+
+        if (words.length == 0) {
+            return Collections.emptyList();
+        }
+
+        int[] keys = new int[BANDS];
+        signature(words, keys, 0);
+
+        List<Candidate> candidates = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            Snapshot current = snapshot;
+            int[] positions = new int[64];
+            int count = 0;
+
+            for (int band = 0; band < BANDS; band++) {
+                int from = current.first(band, keys[band], false);
+                int to = current.first(band, keys[band], true);
+
+                if (to - from > MAX_BUCKET) {
+                    continue;
+                }
+
+                if (count + to - from > positions.length) {
+                    positions = Arrays.copyOf(positions, Math.max(positions.length * 2, count + to - from));
+                }
+
+                System.arraycopy(current.bands[band], from, positions, count, to - from);
+                count += to - from;
+            }
+
+            // Products sharing several bands with the name are in several buckets
+            Arrays.sort(positions, 0, count);
+
+            for (int i = 0; i < count; i++) {
+                int position = positions[i];
+
+                if ((i > 0 && position == positions[i - 1]) || (!pending.isEmpty() && pending.containsKey(current.ids[position]))) {
+                    continue;
+                }
+
+                candidates.add(new Candidate(current.ids[position],
+                        similarity(words, current.words, current.offsets[position], current.offsets[position + 1])));
+            }
+
+            pending.forEach((id, entry) -> {
+                if (entry != null && entry.sharesBand(keys)) {
+                    candidates.add(new Candidate(id, similarity(words, entry.words, 0, entry.words.length)));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        candidates.sort(Comparator.comparing(Candidate::getScore).reversed().thenComparing(Candidate::getProductId));
+
+        return candidates.size() > limit ? new ArrayList<>(candidates.subList(0, limit)) : candidates;
+    }
+
+    /**
+     * The product the name matches with a similarity of at least {@code threshold}, unless another product
+     * matches it as well.
+     */
+    public Long resolve(String name, float threshold) {
+        return best(candidates(name, 2), threshold);
+    }
+
+    /**
+     * The first of candidates sorted by {@link #candidates} if it scores at least {@code threshold} and
+     * higher than the second.
+     */
+    public static Long best(List<Candidate> candidates, float threshold) {
+        if (candidates.isEmpty() || candidates.get(0).getScore() < threshold) {
+            return null;
+        }
+
+        if (candidates.size() > 1 && candidates.get(1).getScore() >= candidates.get(0).getScore()) {
+            return null;
+        }
+
+        return candidates.get(0).getProductId();
+    }
+
+    public class Loader {
+
+        private long[] ids = new long[1024];
+
+        private int[] offsets = new int[1025];
+
+        private int[] words = new int[8192];
+
+        private int[] keys = new int[1024 * BANDS];
+
+        private int size;
+
+        private Loader() {
+        }
+
+        public void add(long productId, String name, String brandName) {
+            int[] productWords = words(name, brandName);
+
+            if (productWords.length == 0) {
+                return;
+            }
+
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2 + 1);
+                keys = Arrays.copyOf(keys, size * 2 * BANDS);
+            }
+
+            int from = offsets[size];
+
+            if (from + productWords.length > words.length) {
+                words = Arrays.copyOf(words, Math.max(words.length * 2, from + productWords.length));
+            }
+
+            ids[size] = productId;
+            System.arraycopy(productWords, 0, words, from, productWords.length);
+            offsets[size + 1] = from + productWords.length;
+            signature(productWords, keys, size * BANDS);
+            size++;
+        }
+
+        /**
+         * Sorts the bands and swaps the loaded products in.
+         *
+         * @return the number of products indexed
+         */
+        public int finish() {
+            Snapshot loaded = Snapshot.build(
+                    Arrays.copyOf(ids, size),
+                    Arrays.copyOf(offsets, size + 1),
+                    Arrays.copyOf(words, offsets[size]),
+                    Arrays.copyOf(keys, size * BANDS));
+
+            lock.writeLock().lock();
+            try {
+                // Writes made while loading stay pending, as they can be newer than what was read
+                snapshot = loaded;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            return size;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Candidate {
+
+        private final Long productId;
+
+        // Jaccard similarity of the words
+        private final float score;
+    }
+
+    private void put(Long productId, Entry entry) {
+        boolean full;
+
+        lock.writeLock().lock();
+        try {
+            pending.put(productId, entry);
+            full = pending.size() >= MAX_PENDING;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (full && compacting.compareAndSet(false, true)) {
+            try {
+                compact();
+            } finally {
+                compacting.set(false);
+            }
+        }
+    }
+
+    // Sorting the bands of a large catalog takes seconds, so matching carries on meanwhile
+    private void compact() {
+        Snapshot current;
+        Map<Long, Entry> merged;
+
+        lock.readLock().lock();
+        try {
+            current = snapshot;
+            merged = new HashMap<>(pending);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Snapshot rebuilt = current.merge(merged);
+
+        lock.writeLock().lock();
+        try {
+            // A load finished meanwhile; the merged writes are still pending on top of it
+            if (snapshot != current) {
+                return;
+            }
+
+            snapshot = rebuilt;
+
+            // Only the merged versions leave; products written again while merging stay pending
+            merged.forEach((id, entry) -> pending.remove(id, entry));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sorted, distinct hashes of the lower-cased words of the texts.
+     */
+    static int[] words(String... texts) {
+        int[] hashes = new int[16];
+        int count = 0;
+
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+
+            int hash = FNV_OFFSET;
+            int length = 0;
+            int kind = 0;
+
+            for (int i = 0; i <= text.length(); i++) {
+                char c = i < text.length() ? Character.toLowerCase(text.charAt(i)) : ' ';
+                int charKind = Character.isDigit(c) ? 2 : Character.isLetter(c) ? 1 : 0;
+
+                if (charKind != kind && length > 0) {
+                    if (count == hashes.length) {
+                        hashes = Arrays.copyOf(hashes, count * 2);
+                    }
+
+                    hashes[count++] = hash;
+                    hash = FNV_OFFSET;
+                    length = 0;
+                }
+
+                kind = charKind;
+
+                if (charKind != 0) {
+                    hash = (hash ^ c) * FNV_PRIME;
+                    length++;
+                }
+            }
+        }
+
+        Arrays.sort(hashes, 0, count);
+
+        int distinct = 0;
+
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || hashes[i] != hashes[distinct - 1]) {
+                hashes[distinct++] = hashes[i];
+            }
+        }
+
+        return Arrays.copyOf(hashes, distinct);
+    }
+
+    /**
+     * Writes the band keys of the words to {@code keys} from {@code offset}.
+     */
+    static void signature(int[] words, int[] keys, int offset) {
+        long[] minima = new long[BANDS * ROWS];
+        Arrays.fill(minima, Long.MAX_VALUE);
+
+        for (int word : words) {
+            long base = word * 0x9E3779B97F4A7C15L;
+
+            for (int i = 0; i < minima.length; i++) {
+                minima[i] = Math.min(minima[i], mix(base ^ SEEDS[i]));
+            }
+        }
+
+        for (int band = 0; band < BANDS; band++) {
+            long hash = band;
+
+            for (int row = 0; row < ROWS; row++) {
+                hash = mix(hash * 0x9E3779B97F4A7C15L ^ minima[band * ROWS + row]);
+            }
+
+            keys[offset + band] = (int) (hash ^ (hash >>> 32));
+        }
+    }
+
+    static float similarity(int[] words, int[] other, int from, int to) {
+        int shared = 0;
+        int i = 0;
+        int j = from;
+
+        while (i < words.length && j < to) {
+            if (words[i] == other[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (words[i] < other[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        return (float) shared / (words.length + (to - from) - shared);
+    }
+
+    // MurmurHash3's 64-bit finaliser
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Entry {
+
+        private final int[] words;
+
+        private final int[] keys = new int[BANDS];
+
+        Entry(int[] words) {
+            this.words = words;
+            signature(words, keys, 0);
+        }
+
+        boolean sharesBand(int[] other) {
+            for (int band = 0; band < BANDS; band++) {
+                if (keys[band] == other[band]) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Products by position: the words of position {@code i} are {@code words[offsets[i]..offsets[i + 1])}.
+     * Each band holds the positions sorted by their key in that band, next to the keys themselves, and a
+     * directory from the top bits of a key to the range of the sorted keys starting with them: keys are
+     * hashes, so a range holds about {@link #KEYS_PER_SLOT} keys and a bucket costs one or two cache misses
+     * rather than one per step of a binary search.
+     */
+    private static final class Snapshot {
+
+        static final int KEYS_PER_SLOT = 8;
+
+        static final Snapshot EMPTY = build(new long[0], new int[1], new int[0], new int[0]);
+
+        private final long[] ids;
+
+        private final int[] offsets;
+
+        private final int[] words;
+
+        private final int[][] bands;
+
+        private final int[][] bandKeys;
+
+        private final int[][] directories;
+
+        private final int shift;
+
+        private Snapshot(long[] ids, int[] offsets, int[] words, int[][] bands, int[][] bandKeys, int[][] directories, int shift) {
+            this.ids = ids;
+            this.offsets = offsets;
+            this.words = words;
+            this.bands = bands;
+            this.bandKeys = bandKeys;
+            this.directories = directories;
+            this.shift = shift;
+        }
+
+        /**
+         * @param keys the key of position {@code i} in band {@code b} at {@code i * BANDS + b}
+         */
+        static Snapshot build(long[] ids, int[] offsets, int[] words, int[] keys) {
+            int[][] bands = new int[BANDS][];
+            int[][] bandKeys = new int[BANDS][];
+            int[][] directories = new int[BANDS][];
+            int bits = Math.max(1, 31 - Integer.numberOfLeadingZeros(Math.max(1, ids.length / KEYS_PER_SLOT)));
+            int shift = 32 - bits;
+            long[] sorted = new long[ids.length];
+
+            for (int band = 0; band < BANDS; band++) {
+                for (int i = 0; i < ids.length; i++) {
+                    sorted[i] = (long) keys[i * BANDS + band] << 32 | i;
+                }
+
+                Arrays.sort(sorted);
+                bands[band] = new int[ids.length];
+                bandKeys[band] = new int[ids.length];
+
+                for (int i = 0; i < ids.length; i++) {
+                    bands[band][i] = (int) sorted[i];
+                    bandKeys[band][i] = (int) (sorted[i] >> 32);
+                }
+
+                int[] directory = new int[(1 << bits) + 1];
+                int slot = 0;
+
+                for (int i = 0; i < ids.length; i++) {
+                    int keySlot = slot(bandKeys[band][i], shift);
+
+                    while (slot <= keySlot) {
+                        directory[slot++] = i;
+                    }
+                }
+
+                while (slot < directory.length) {
+                    directory[slot++] = ids.length;
+                }
+
+                directories[band] = directory;
+            }
+
+            return new Snapshot(ids, offsets, words, bands, bandKeys, directories, shift);
+        }
+
+        /**
+         * The index in the band of the first position with the key, or past the key's positions when
+         * {@code after} is set.
+         */
+        int first(int band, int key, boolean after) {
+            int[] sortedKeys = bandKeys[band];
+            int slot = slot(key, shift);
+            int low = directories[band][slot];
+            int high = directories[band][slot + 1];
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+
+                if (sortedKeys[middle] < key || (after && sortedKeys[middle] == key)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        // Top bits of the key, in the order of the keys
+        private static int slot(int key, int shift) {
+            return (key ^ Integer.MIN_VALUE) >>> shift;
+        }
+
+        /**
+         * A snapshot with the written products in place of their old versions.
+         */
+        Snapshot merge(Map<Long, Entry> written) {
+            // New position of each kept position, -1 for written products
+            int[] moved = new int[ids.length];
+            int size = 0;
+            int wordCount = 0;
+
+            for (int i = 0; i < ids.length; i++) {
+                if (written.containsKey(ids[i])) {
+                    moved[i] = -1;
+                } else {
+                    moved[i] = size++;
+                    wordCount += offsets[i + 1] - offsets[i];
+                }
+            }
+
+            for (Entry entry : written.values()) {
+                if (entry != null) {
+                    size++;
+                    wordCount += entry.words.length;
+                }
+            }
+
+            long[] mergedIds = new long[size];
+            int[] mergedOffsets = new int[size + 1];
+            int[] mergedWords = new int[wordCount];
+            int[] mergedKeys = new int[size * BANDS];
+            int position = 0;
+
+            for (int i = 0; i < ids.length; i++) {
+                if (moved[i] >= 0) {
+                    int length = offsets[i + 1] - offsets[i];
+                    mergedIds[position] = ids[i];
+                    System.arraycopy(words, offsets[i], mergedWords, mergedOffsets[position], length);
+                    mergedOffsets[position + 1] = mergedOffsets[position] + length;
+                    position++;
+                }
+            }
+
+            for (int band = 0; band < BANDS; band++) {
+                for (int i = 0; i < ids.length; i++) {
+                    int target = moved[bands[band][i]];
+
+                    if (target >= 0) {
+                        mergedKeys[target * BANDS + band] = bandKeys[band][i];
+                    }
+                }
+            }
+
+            for (Map.Entry<Long, Entry> product : written.entrySet()) {
+                Entry entry = product.getValue();
+
+                if (entry != null) {
+                    mergedIds[position] = product.getKey();
+                    System.arraycopy(entry.words, 0, mergedWords, mergedOffsets[position], entry.words.length);
+                    System.arraycopy(entry.keys, 0, mergedKeys, position * BANDS, BANDS);
+                    mergedOffsets[position + 1] = mergedOffsets[position] + entry.words.length;
+                    position++;
+                }
+            }
+
+            return build(mergedIds, mergedOffsets, mergedWords, mergedKeys);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.prico.index;
+
+import com.prico.model.Brand;
+import com.prico.model.Category;
+import com.prico.model.Product;
+import com.prico.repository.BrandRepository;
+import com.prico.repository.CategoryRepository;
+import com.prico.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory trigram index over product, brand and category names used by product search
+ * instead of the {@code LIKE} scans in {@link ProductRepository#search}.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final TrigramIndex productNames = new TrigramIndex();
+
+    private final TrigramIndex brandNames = new TrigramIndex();
+
+    private final TrigramIndex categoryNames = new TrigramIndex();
+
+    private final Map<Long, Long> productBrands = new HashMap<>();
+
+    private final Map<Long, Long> productCategories = new HashMap<>();
+
+    private final Map<Long, Set<Long>> brandProducts = new HashMap<>();
+
+    private final Map<Long, Set<Long>> categoryProducts = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    // Writes made while a load reads the database, applied again on top of what it read
+    private List<Runnable> replay;
+
+    /**
+     * Requests are already served while this runs, so writes that land meanwhile are replayed once the
+     * loaded products are in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+
+        write(() -> replay = new ArrayList<>());
+        try {
+            rebuild(productRepository.findAll(), brandRepository.findAll(), categoryRepository.findAll());
+        } finally {
+            write(() -> replay = null);
+        }
+
+        log.info("Indexed {} products for search in {} ms", productNames.size(), System.currentTimeMillis() - start);
+    }
+
+    public void rebuild(List<Product> products, List<Brand> brands, List<Category> categories) {
+        lock.writeLock().lock();
+        try {
+            productNames.clear();
+            brandNames.clear();
+            categoryNames.clear();
+            productBrands.clear();
+            productCategories.clear();
+            brandProducts.clear();
+            categoryProducts.clear();
+
+            brands.forEach(x -> brandNames.put(x.getId(), x.getName()));
+            categories.forEach(x -> categoryNames.put(x.getId(), x.getName()));
+            products.forEach(this::put);
+
+            if (replay != null) {
+                replay.forEach(Runnable::run);
+                replay.clear();
+            }
+
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Product product) {
+        record(() -> put(product));
+    }
+
+    public void remove(Long productId) {
+        record(() -> {
+            unlink(productId);
+            productNames.remove(productId);
+        });
+    }
+
+    public void indexBrand(Brand brand) {
+        record(() -> brandNames.put(brand.getId(), brand.getName()));
+    }
+
+    public void removeBrand(Long brandId) {
+        record(() -> brandNames.remove(brandId));
+    }
+
+    public void indexCategory(Category category) {
+        record(() -> categoryNames.put(category.getId(), category.getName()));
+    }
+
+    public void removeCategory(Long categoryId) {
+        record(() -> categoryNames.remove(categoryId));
+    }
+
+    /**
+     * Returns ids of products matching every non-blank criterion, best matches first. A match
+     * scores higher the more of the matched name the query covers.
+     */
+    public List<Long> search(String name, String brand, String category) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+
+            if (!isBlank(name)) {
+                scores = productNames.search(name);
+            }
+
+            if (!isBlank(brand)) {
+                scores = merge(scores, expand(brandNames.search(brand), brandProducts));
+            }
+
+            if (!isBlank(category)) {
+                scores = merge(scores, expand(categoryNames.search(category), categoryProducts));
+            }
+
+            if (scores == null) {
+                return Collections.emptyList();
+            }
+
+            return scores
+                    .entrySet()
+                    .stream()
+                    .sorted(Map.Entry.<Long, Float>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable write) {
+        lock.writeLock().lock();
+        try {
+            write.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void record(Runnable write) {
+        write(() -> {
+            write.run();
+
+            if (replay != null) {
+                replay.add(write);
+            }
+        });
+    }
+
+    private void put(Product product) {
+        Long id = product.getId();
+
+        unlink(id);
+        productNames.put(id, product.getName());
+
+        if (product.getBrand() != null) {
+            Long brandId = product.getBrand().getId();
+            brandNames.put(brandId, product.getBrand().getName());
+            productBrands.put(id, brandId);
+            brandProducts.computeIfAbsent(brandId, x -> new HashSet<>()).add(id);
+        }
+
+        if (product.getCategory() != null) {
+            Long categoryId = product.getCategory().getId();
+            categoryNames.put(categoryId, product.getCategory().getName());
+            productCategories.put(id, categoryId);
+            categoryProducts.computeIfAbsent(categoryId, x -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void unlink(Long productId) {
+        Long brandId = productBrands.remove(productId);
+
+        if (brandId != null) {
+            brandProducts.get(brandId).remove(productId);
+        }
+
+        Long categoryId = productCategories.remove(productId);
+
+        if (categoryId != null) {
+            categoryProducts.get(categoryId).remove(productId);
+        }
+    }
+
+    private static Map<Long, Float> expand(Map<Long, Float> ownerScores, Map<Long, Set<Long>> ownerProducts) {
+        Map<Long, Float> scores = new HashMap<>();
+
+        ownerScores.forEach((ownerId, score) -> {
+            for (Long productId : ownerProducts.getOrDefault(ownerId, Collections.emptySet())) {
+                scores.merge(productId, score, Math::max);
+            }
+        });
+
+        return scores;
+    }
+
+    private static Map<Long, Float> merge(Map<Long, Float> current, Map<Long, Float> next) {
+        if (current == null) {
+            return next;
+        }
+
+        Map<Long, Float> merged = new HashMap<>();
+
+        current.forEach((id, score) -> {
+            Float other = next.get(id);
+
+            if (other != null) {
+                merged.put(id, score + other);
+            }
+        });
+
+        return merged;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
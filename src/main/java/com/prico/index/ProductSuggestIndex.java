@@ -0,0 +1,277 @@
+package com.prico.index;
+
+import com.prico.dto.SuggestionDto;
+import com.prico.model.Brand;
+import com.prico.model.Category;
+import com.prico.model.Product;
+import com.prico.repository.BrandRepository;
+import com.prico.repository.CategoryRepository;
+import com.prico.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Typeahead over product, brand and category names. Products are weighted by their offer count, brands
+ * and categories by the offers of their products. Writes go to a small overlay on top of an immutable
+ * {@link PrefixIndex}, which is rebuilt once the overlay reaches {@link #MAX_PENDING} terms. Brand and
+ * category weights are only recomputed when the index is loaded.
+ */
+@Slf4j
+@Component
+public class ProductSuggestIndex {
+
+    static final int MAX_PENDING = 1000;
+
+    private static final SuggestionDto.Type[] TYPES = SuggestionDto.Type.values();
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private PrefixIndex index = PrefixIndex.build(Collections.emptyList());
+
+    // Terms written since the index was built, by key; null marks a removed term. Guarded by lock
+    private final Map<Long, PrefixIndex.Term> pending = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+
+        rebuild(productRepository.findAll(), brandRepository.findAll(), categoryRepository.findAll());
+
+        log.info("Indexed {} suggestions in {} ms, {} bytes",
+                index.size(), System.currentTimeMillis() - start, index.sizeInBytes());
+    }
+
+    public void rebuild(List<Product> products, List<Brand> brands, List<Category> categories) {
+        Map<Long, Integer> brandWeights = new HashMap<>();
+        Map<Long, Integer> categoryWeights = new HashMap<>();
+        List<PrefixIndex.Term> terms = new ArrayList<>();
+
+        for (Product product : products) {
+            int weight = weight(product);
+
+            if (product.getBrand() != null) {
+                brandWeights.merge(product.getBrand().getId(), weight, Integer::sum);
+            }
+
+            if (product.getCategory() != null) {
+                categoryWeights.merge(product.getCategory().getId(), weight, Integer::sum);
+            }
+
+            if (product.getName() != null) {
+                terms.add(new PrefixIndex.Term(key(SuggestionDto.Type.PRODUCT, product.getId()), product.getName(), weight));
+            }
+        }
+
+        brands
+                .stream()
+                .filter(x -> x.getName() != null)
+                .forEach(x -> terms.add(new PrefixIndex.Term(
+                        key(SuggestionDto.Type.BRAND, x.getId()), x.getName(), brandWeights.getOrDefault(x.getId(), 0))));
+
+        categories
+                .stream()
+                .filter(x -> x.getName() != null)
+                .forEach(x -> terms.add(new PrefixIndex.Term(
+                        key(SuggestionDto.Type.CATEGORY, x.getId()), x.getName(), categoryWeights.getOrDefault(x.getId(), 0))));
+
+        PrefixIndex rebuilt = PrefixIndex.build(terms);
+
+        lock.writeLock().lock();
+        try {
+            index = rebuilt;
+            pending.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Product product) {
+        put(SuggestionDto.Type.PRODUCT, product.getId(), product.getName(), weight(product));
+    }
+
+    public void remove(Long productId) {
+        put(SuggestionDto.Type.PRODUCT, productId, null, 0);
+    }
+
+    public void indexBrand(Brand brand) {
+        rename(SuggestionDto.Type.BRAND, brand.getId(), brand.getName());
+    }
+
+    public void removeBrand(Long brandId) {
+        put(SuggestionDto.Type.BRAND, brandId, null, 0);
+    }
+
+    public void indexCategory(Category category) {
+        rename(SuggestionDto.Type.CATEGORY, category.getId(), category.getName());
+    }
+
+    public void removeCategory(Long categoryId) {
+        put(SuggestionDto.Type.CATEGORY, categoryId, null, 0);
+    }
+
+    /**
+     * Returns up to {@code limit} names with a word starting with the query, most offered first.
+     */
+    public List<SuggestionDto> suggest(String query, int limit) {
+        String prefix = query.trim();
+
+        lock.readLock().lock();
+        try {
+            List<PrefixIndex.Term> terms = new ArrayList<>(index.complete(prefix, limit, x -> !pending.containsKey(x)));
+
+            pending
+                    .values()
+                    .stream()
+                    .filter(x -> x != null && PrefixIndex.matches(x.getText(), prefix))
+                    .forEach(terms::add);
+
+            return terms
+                    .stream()
+                    .sorted(Comparator.comparingInt(PrefixIndex.Term::getWeight).reversed().thenComparing(PrefixIndex.Term::getText))
+                    .limit(limit)
+                    .map(ProductSuggestIndex::toDto)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps the weight of an existing brand or category, which depends on its products.
+     */
+    private void rename(SuggestionDto.Type type, Long id, String name) {
+        long key = key(type, id);
+        boolean full;
+
+        lock.writeLock().lock();
+        try {
+            PrefixIndex.Term existing = pending.containsKey(key) ? pending.get(key) : termOf(key);
+            full = putLocked(key, name, existing != null ? existing.getWeight() : 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        compactIfFull(full);
+    }
+
+    private void put(SuggestionDto.Type type, Long id, String name, int weight) {
+        boolean full;
+
+        lock.writeLock().lock();
+        try {
+            full = putLocked(key(type, id), name, weight);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        compactIfFull(full);
+    }
+
+    private boolean putLocked(long key, String name, int weight) {
+        pending.put(key, name != null ? new PrefixIndex.Term(key, name, weight) : null);
+        return pending.size() >= MAX_PENDING;
+    }
+
+    private void compactIfFull(boolean full) {
+        if (full && compacting.compareAndSet(false, true)) {
+            try {
+                compact();
+            } finally {
+                compacting.set(false);
+            }
+        }
+    }
+
+    // Sorting every term of a large catalog takes a while, so suggestions and writes carry on meanwhile
+    private void compact() {
+        PrefixIndex current;
+        Map<Long, PrefixIndex.Term> merged;
+
+        lock.readLock().lock();
+        try {
+            current = index;
+            merged = new HashMap<>(pending);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<PrefixIndex.Term> terms = new ArrayList<>(current.size() + merged.size());
+
+        for (int i = 0; i < current.size(); i++) {
+            PrefixIndex.Term term = current.term(i);
+
+            if (!merged.containsKey(term.getKey())) {
+                terms.add(term);
+            }
+        }
+
+        merged.values().stream().filter(Objects::nonNull).forEach(terms::add);
+
+        PrefixIndex rebuilt = PrefixIndex.build(terms);
+
+        lock.writeLock().lock();
+        try {
+            // A load finished meanwhile and replaced the index along with its overlay
+            if (index != current) {
+                return;
+            }
+
+            index = rebuilt;
+
+            // Only the merged versions leave; terms written again while merging stay pending
+            merged.forEach((key, term) -> pending.remove(key, term));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private PrefixIndex.Term termOf(long key) {
+        int term = index.find(key);
+        return term >= 0 ? index.term(term) : null;
+    }
+
+    private static int weight(Product product) {
+        return product.getOfferCount() != null ? product.getOfferCount() : 0;
+    }
+
+    // Type in the two low bits
+    private static long key(SuggestionDto.Type type, Long id) {
+        return id << 2 | type.ordinal();
+    }
+
+    private static SuggestionDto toDto(PrefixIndex.Term term) {
+        return SuggestionDto
+                .builder()
+                .text(term.getText())
+                .type(TYPES[(int) (term.getKey() & 3)])
+                .id(term.getKey() >>> 2)
+                .build();
+    }
+}
@@ -0,0 +1,128 @@
+package com.prico.index;
+
+import java.util.*;
+
+/**
+ * Inverted index from three-character grams to document ids. Candidates sharing every gram of
+ * the query are confirmed with a substring check, so results match a {@code LIKE %query%} scan.
+ * Not thread-safe; callers guard it.
+ */
+class TrigramIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    private final Map<Long, String> documents = new HashMap<>();
+
+    void put(Long id, String text) {
+        remove(id);
+
+        if (text == null) {
+            return;
+        }
+
+        String normalized = normalize(text);
+        documents.put(id, normalized);
+
+        for (String gram : grams(normalized)) {
+            postings.computeIfAbsent(gram, x -> new HashSet<>()).add(id);
+        }
+    }
+
+    void remove(Long id) {
+        String existing = documents.remove(id);
+
+        if (existing == null) {
+            return;
+        }
+
+        for (String gram : grams(existing)) {
+            Set<Long> ids = postings.get(gram);
+
+            if (ids != null) {
+                ids.remove(id);
+
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        documents.clear();
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    /**
+     * Returns matching document ids mapped to a score in (0, 1], the share of the document
+     * covered by the query.
+     */
+    Map<Long, Float> search(String query) {
+        String normalized = normalize(query);
+        Map<Long, Float> matches = new HashMap<>();
+
+        for (Long id : candidates(normalized)) {
+            String document = documents.get(id);
+
+            if (document != null && document.contains(normalized)) {
+                matches.put(id, document.isEmpty() ? 1F : (float) normalized.length() / document.length());
+            }
+        }
+
+        return matches;
+    }
+
+    private Collection<Long> candidates(String query) {
+        Set<String> grams = grams(query);
+
+        if (grams.isEmpty()) {
+            return documents.keySet();
+        }
+
+        List<Set<Long>> lists = new ArrayList<>(grams.size());
+
+        for (String gram : grams) {
+            Set<Long> ids = postings.get(gram);
+
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+
+            lists.add(ids);
+        }
+
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>(lists.get(0));
+
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+
+        return result;
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        if (text.length() < GRAM_LENGTH) {
+            return Collections.emptySet();
+        }
+
+        Set<String> grams = new HashSet<>();
+
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+
+        return grams;
+    }
+}
@@ -0,0 +1,112 @@
+package com.prico.ingest;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.prico.dto.crud.ProductStoreRequestDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 64-bit digests of the last written state of recently written offers, so writes that would not change an
+ * offer are dropped before they reach the database. Only offers written through this node are known, and
+ * digests expire, so a change made elsewhere is at worst masked until then.
+ */
+public class OfferDigests {
+
+    public static final String METRIC = "prico.ingest.offers";
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Cache<Long, Long> digests;
+
+    private final AtomicLong skipped = new AtomicLong();
+
+    public OfferDigests(long maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.digests = Caffeine
+                .newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+
+        if (meterRegistry != null) {
+            FunctionCounter
+                    .builder(METRIC, skipped, AtomicLong::get)
+                    .tag("result", "skipped")
+                    .description("Offer writes dropped because they would not change the offer")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Whether the offer was last written with exactly these values, counting it as skipped if so.
+     */
+    public boolean isUnchanged(Long id, ProductStoreRequestDto offer) {
+        if (!matches(id, offer)) {
+            return false;
+        }
+
+        skipped.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * {@link #isUnchanged} without counting, for checks that do not decide whether the write is skipped.
+     */
+    public boolean matches(Long id, ProductStoreRequestDto offer) {
+        Long digest = digests.getIfPresent(id);
+        return digest != null && digest == digest(offer);
+    }
+
+    public void put(Long id, ProductStoreRequestDto offer) {
+        digests.put(id, digest(offer));
+    }
+
+    public void invalidate(Long id) {
+        digests.invalidate(id);
+    }
+
+    public long skippedCount() {
+        return skipped.get();
+    }
+
+    // FNV-1a over every field the offer is written with; the product and store are included so moves are not skipped
+    static long digest(ProductStoreRequestDto offer) {
+        long hash = FNV_OFFSET;
+        hash = mix(hash, offer.getProductId() != null ? offer.getProductId() : -1L);
+        hash = mix(hash, offer.getStoreId() != null ? offer.getStoreId() : -1L);
+        hash = mix(hash, offer.getPrice() != null ? Float.floatToIntBits(offer.getPrice()) : -1L);
+        hash = mix(hash, offer.getName());
+        hash = mix(hash, offer.getUrl());
+        hash = mix(hash, offer.getImageUrl());
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash = (hash ^ (value >>> (i * 8) & 0xFF)) * FNV_PRIME;
+        }
+
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return (hash ^ 0xFF) * FNV_PRIME;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+
+        // Length terminates the field, so "ab" + "c" and "a" + "bc" differ
+        return mix(hash, bytes.length);
+    }
+}
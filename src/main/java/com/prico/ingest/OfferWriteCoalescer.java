@@ -0,0 +1,177 @@
+package com.prico.ingest;
+
+import com.prico.dto.crud.BulkProductStoreResultDto;
+import com.prico.dto.crud.ProductStoreRequestDto;
+import com.prico.service.ProductStoreService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind stage for single-offer updates from crawlers. Updates that would not change the offer are
+ * dropped straight away; the rest are held for up to one window, a later update of the same offer replacing
+ * the held one, and written together through {@link ProductStoreService#updateAll}.
+ */
+@Slf4j
+public class OfferWriteCoalescer implements AutoCloseable {
+
+    public enum Result {
+        // Same as the last written state
+        SKIPPED,
+        QUEUED,
+        // Replaced an update of the same offer that was not written yet
+        COALESCED
+    }
+
+    private final ProductStoreService service;
+
+    private final OfferDigests digests;
+
+    private final ScheduledExecutorService flusher;
+
+    private final Object lock = new Object();
+
+    // Guarded by lock
+    private Map<Long, ProductStoreRequestDto> pending = new LinkedHashMap<>();
+
+    // The batch being written, guarded by lock
+    private Map<Long, ProductStoreRequestDto> writing = Collections.emptyMap();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private final AtomicLong written = new AtomicLong();
+
+    public OfferWriteCoalescer(ProductStoreService service, OfferDigests digests, Duration window, MeterRegistry meterRegistry) {
+        this.service = service;
+        this.digests = digests;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "offer-write-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        flusher.scheduleWithFixedDelay(this::flush, window.toMillis(), window.toMillis(), TimeUnit.MILLISECONDS);
+
+        if (meterRegistry != null) {
+            FunctionCounter
+                    .builder(OfferDigests.METRIC, coalesced, AtomicLong::get)
+                    .tag("result", "coalesced")
+                    .description("Offer updates replaced by a later update of the same offer before they were written")
+                    .register(meterRegistry);
+
+            FunctionCounter
+                    .builder(OfferDigests.METRIC, written, AtomicLong::get)
+                    .tag("result", "written")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Whether {@link #submit} would skip the update, without queueing it.
+     */
+    public boolean isUnchanged(Long id, ProductStoreRequestDto offer) {
+        synchronized (lock) {
+            return isWritten(id) && digests.matches(id, offer);
+        }
+    }
+
+    public Result submit(Long id, ProductStoreRequestDto offer) {
+        synchronized (lock) {
+            if (isWritten(id) && digests.isUnchanged(id, offer)) {
+                return Result.SKIPPED;
+            }
+
+            if (pending.put(id, offer) == null) {
+                return Result.QUEUED;
+            }
+        }
+
+        coalesced.incrementAndGet();
+        return Result.COALESCED;
+    }
+
+    // The last written state is only current when no newer update is waiting for its write
+    private boolean isWritten(Long id) {
+        return !pending.containsKey(id) && !writing.containsKey(id);
+    }
+
+    /**
+     * Writes the held updates. A batch the database rejects is retried offer by offer, so one bad offer
+     * does not lose the others.
+     */
+    public void flush() {
+        Map<Long, ProductStoreRequestDto> batch;
+
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            batch = pending;
+            writing = batch;
+            pending = new LinkedHashMap<>();
+        }
+
+        try {
+            record(service.updateAll(batch), batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Writing {} coalesced offer updates failed, retrying one by one", batch.size(), e);
+
+            batch.forEach((id, offer) -> {
+                try {
+                    record(service.updateAll(Collections.singletonMap(id, offer)), 1);
+                } catch (RuntimeException x) {
+                    log.error("Dropped update of offer {}", id, x);
+                }
+            });
+        } finally {
+            synchronized (lock) {
+                writing = Collections.emptyMap();
+            }
+        }
+    }
+
+    public long coalescedCount() {
+        return coalesced.get();
+    }
+
+    public long writtenCount() {
+        return written.get();
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+    }
+
+    private void record(List<BulkProductStoreResultDto> results, int size) {
+        long updated = results
+                .stream()
+                .filter(x -> x.getStatus() == BulkProductStoreResultDto.Status.UPDATED)
+                .count();
+
+        written.addAndGet(updated);
+
+        results
+                .stream()
+                .filter(x -> x.getStatus() == BulkProductStoreResultDto.Status.REJECTED)
+                .forEach(x -> log.warn("Rejected update of offer {}: {}", x.getId(), x.getMessage()));
+
+        log.debug("Wrote {} of {} coalesced offer updates", updated, size);
+    }
+}
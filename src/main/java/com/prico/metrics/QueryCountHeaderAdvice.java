@@ -0,0 +1,44 @@
+package com.prico.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Exposes the request's query counts as response headers when {@code prico.debug.headers} is enabled.
+ * Counts are taken just before the body is written, so lazy loads during serialisation are not included.
+ */
+@RestControllerAdvice
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+
+    public static final String ENTITY_LOADS_HEADER = "X-Entity-Loads";
+
+    @Value("${prico.debug.headers:false}")
+    private boolean enabled;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryCounter.Counts counts = QueryCounter.current();
+
+        if (counts != null) {
+            response.getHeaders().set(STATEMENTS_HEADER, String.valueOf(counts.getStatements()));
+            response.getHeaders().set(ENTITY_LOADS_HEADER, String.valueOf(counts.getEntityLoads()));
+        }
+
+        return body;
+    }
+}
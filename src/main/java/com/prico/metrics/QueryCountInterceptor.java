@@ -0,0 +1,57 @@
+package com.prico.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Records how many SQL statements and entity loads each request caused, tagged like
+ * {@code http.server.requests} so the two can be read side by side.
+ */
+public class QueryCountInterceptor implements HandlerInterceptor {
+
+    public static final String STATEMENTS_METRIC = "prico.http.sql.statements";
+
+    public static final String ENTITY_LOADS_METRIC = "prico.http.entity.loads";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public QueryCountInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryCounter.start();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        QueryCounter.Counts counts = QueryCounter.stop();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+
+        if (counts == null || registry == null) {
+            return;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        summary(registry, STATEMENTS_METRIC, request.getMethod(), uri).record(counts.getStatements());
+        summary(registry, ENTITY_LOADS_METRIC, request.getMethod(), uri).record(counts.getEntityLoads());
+    }
+
+    private static DistributionSummary summary(MeterRegistry registry, String name, String method, String uri) {
+        return DistributionSummary
+                .builder(name)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(registry);
+    }
+}
@@ -0,0 +1,56 @@
+package com.prico.metrics;
+
+/**
+ * Per-request tally of SQL statements and entity loads. Counting is only active between {@link #start()}
+ * and {@link #stop()} on the same thread, which {@link QueryCountInterceptor} wraps around every handler.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Counts> COUNTS = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static void start() {
+        COUNTS.set(new Counts());
+    }
+
+    public static Counts current() {
+        return COUNTS.get();
+    }
+
+    public static Counts stop() {
+        Counts counts = COUNTS.get();
+        COUNTS.remove();
+        return counts;
+    }
+
+    static void statement() {
+        Counts counts = COUNTS.get();
+
+        if (counts != null) {
+            counts.statements++;
+        }
+    }
+
+    static void entityLoad() {
+        Counts counts = COUNTS.get();
+
+        if (counts != null) {
+            counts.entityLoads++;
+        }
+    }
+
+    public static class Counts {
+        private long statements;
+        private long entityLoads;
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getEntityLoads() {
+            return entityLoads;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.prico.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts every prepared statement and every SQL string run through a plain {@link Statement}, whether it
+ * comes from Hibernate, a {@code JdbcTemplate} or anything else using the data source.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    public QueryCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) -> {
+            if (method.getName().startsWith("prepare")) {
+                QueryCounter.statement();
+            }
+
+            return result instanceof Statement && method.getName().equals("createStatement")
+                    ? proxy(Statement.class, (Statement) result, QueryCountingDataSource::countSql)
+                    : result;
+        });
+    }
+
+    // execute(sql), executeQuery(sql), executeUpdate(sql, ...) and addBatch(sql); executeBatch runs what was added
+    private static Object countSql(Method method, Object[] args, Object result) {
+        if (args != null && args.length > 0 && args[0] instanceof String
+                && (method.getName().startsWith("execute") || method.getName().equals("addBatch"))) {
+            QueryCounter.statement();
+        }
+
+        return result;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            try {
+                                return handler.handle(method, args, method.invoke(target, args));
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                    }
+                }));
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+
+        Object handle(Method method, Object[] args, Object result) throws Throwable;
+    }
+}
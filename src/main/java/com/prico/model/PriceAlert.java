@@ -0,0 +1,43 @@
+package com.prico.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * A subscriber's request to be notified once the product's lowest price drops below the threshold. It
+ * fires at most once: triggering sets {@code triggeredAt} and writes a row to {@code price_alert_outbox}.
+ */
+@Entity
+@Table(name = "price_alert", indexes = {
+        @Index(name = "idx_price_alert_product", columnList = "product_id, triggered_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Float threshold;
+
+    @Column(nullable = false)
+    private String subscriber;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "triggered_at")
+    private Instant triggeredAt;
+}
@@ -0,0 +1,44 @@
+package com.prico.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Append-only record of an offer's price at a point in time. Offers are referenced by id rather than by
+ * association so rows stay narrow and history survives the offer being deleted.
+ */
+@Entity
+@Table(name = "price_observation", indexes = {
+        @Index(name = "idx_price_observation_product", columnList = "product_id, observed_at, store_id, price"),
+        @Index(name = "idx_price_observation_offer", columnList = "product_store_id, observed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceObservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_store_id", nullable = false)
+    private Long productStoreId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "store_id", nullable = false)
+    private Long storeId;
+
+    @Column(nullable = false)
+    private Float price;
+
+    @Column(name = "observed_at", nullable = false)
+    private Instant observedAt;
+}
@@ -4,10 +4,15 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
+import java.time.Instant;
 
 @Entity
+@NamedEntityGraph(name = "Product.brandAndCategory", attributeNodes = {
+        @NamedAttributeNode("brand"),
+        @NamedAttributeNode("category")})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -21,14 +26,40 @@ public class Product {
     private String description;
     private String imageUrl;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "brand_id")
     private Brand brand;
 
+    // Offer summary, written only by OfferSummaryJdbcRepository
+    @Column(insertable = false, updatable = false)
+    private Float lowestPrice;
+
+    @Column(insertable = false, updatable = false)
+    private Long cheapestStoreId;
+
+    @Column(insertable = false, updatable = false)
+    private String cheapestStoreName;
+
+    @Column(insertable = false, updatable = false)
+    private Integer offerCount;
+
+    @Column(insertable = false, updatable = false)
+    private Integer storeCount;
+
+    // Bumped with the summary, whenever one of the product's offers or their stores is written
+    @Column(insertable = false, updatable = false)
+    private Long offersVersion;
+
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    private Instant updatedAt;
+
     public Product(Long id, String name, String description) {
         this.id = id;
         this.name = name;
@@ -4,10 +4,19 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
+import java.time.Instant;
 
 @Entity
+@NamedEntityGraph(name = "ProductStore.productAndStore",
+        attributeNodes = {
+                @NamedAttributeNode(value = "product", subgraph = "product"),
+                @NamedAttributeNode("store")},
+        subgraphs = @NamedSubgraph(name = "product", attributeNodes = {
+                @NamedAttributeNode("brand"),
+                @NamedAttributeNode("category")}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,11 +31,17 @@ public class ProductStore {
     private String imageUrl;
     private Float price;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "store_id")
     private Store store;
+
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    private Instant updatedAt;
 }
@@ -4,11 +4,16 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
+import java.time.Instant;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,4 +28,17 @@ public class Store {
     private String location;
 
     private String website;
-}
\ No newline at end of file
+
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    public Store(Long id, String name, String location, String website) {
+        this.id = id;
+        this.name = name;
+        this.location = location;
+        this.website = website;
+    }
+}
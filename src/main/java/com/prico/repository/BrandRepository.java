@@ -1,9 +1,32 @@
 package com.prico.repository;
 
 import com.prico.model.Brand;
+import com.prico.repository.projection.TableVersion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+
 @Repository
 public interface BrandRepository extends JpaRepository<Brand, Long> {
+
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Brand> findAll();
+
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    Page<Brand> findAll(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Brand> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("SELECT COUNT(b.id) AS rowCount, MAX(b.id) AS maxId, SUM(b.version) AS versionSum FROM Brand b")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    TableVersion findTableVersion();
 }
@@ -0,0 +1,73 @@
+package com.prico.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maintains the cheapest-offer summary columns on {@code product}. The summary is recomputed for the
+ * products touched by an offer write, so listings can render "from $X at Store Y" without reading offers.
+ * Every refresh also bumps {@code offers_version}, which tags the product's variations for conditional GETs.
+ */
+@Repository
+public class OfferSummaryJdbcRepository {
+
+    private static final String SUMMARY_SQL =
+            "UPDATE product SET " +
+            "lowest_price = (SELECT MIN(ps.price) FROM product_store ps WHERE ps.product_id = product.id), " +
+            "offer_count = (SELECT COUNT(*) FROM product_store ps WHERE ps.product_id = product.id), " +
+            "store_count = (SELECT COUNT(DISTINCT ps.store_id) FROM product_store ps WHERE ps.product_id = product.id), " +
+            "cheapest_store_id = (SELECT ps.store_id FROM product_store ps " +
+            "WHERE ps.product_id = product.id AND ps.price IS NOT NULL ORDER BY ps.price, ps.id LIMIT 1), " +
+            "cheapest_store_name = (SELECT s.name FROM product_store ps JOIN store s ON s.id = ps.store_id " +
+            "WHERE ps.product_id = product.id AND ps.price IS NOT NULL ORDER BY ps.price, ps.id LIMIT 1), " +
+            "offers_version = offers_version + 1, " +
+            "updated_at = ? ";
+
+    private static final String RENAME_STORE_SQL =
+            "UPDATE product SET " +
+            "cheapest_store_name = CASE WHEN cheapest_store_id = ? THEN ? ELSE cheapest_store_name END, " +
+            "offers_version = offers_version + 1, " +
+            "updated_at = ? " +
+            "WHERE id IN (SELECT ps.product_id FROM product_store ps WHERE ps.store_id = ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void refresh(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        ids.removeIf(x -> x == null);
+
+        for (int from = 0; from < ids.size(); from += ProductStoreJdbcRepository.BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + ProductStoreJdbcRepository.BATCH_SIZE, ids.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(Timestamp.from(Instant.now()));
+            args.addAll(chunk);
+
+            jdbcTemplate.update(SUMMARY_SQL + "WHERE id IN (" + placeholders + ")", args.toArray());
+        }
+    }
+
+    /**
+     * Fills in products whose summary has never been computed, e.g. rows that predate the summary columns.
+     */
+    public int refreshMissing() {
+        return jdbcTemplate.update(SUMMARY_SQL + "WHERE offer_count IS NULL", Timestamp.from(Instant.now()));
+    }
+
+    /**
+     * Applies a store update to the products it offers: their cheapest store name and offers version.
+     */
+    public void renameStore(Long storeId, String name) {
+        jdbcTemplate.update(RENAME_STORE_SQL, storeId, name, Timestamp.from(Instant.now()), storeId);
+    }
+}
@@ -0,0 +1,118 @@
+package com.prico.repository;
+
+import com.prico.index.PriceAlertIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Reads untriggered alerts in bulk and records triggered ones, marking the alert and adding its
+ * notification to {@code price_alert_outbox} in one transaction.
+ */
+@Repository
+public class PriceAlertJdbcRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String ACTIVE_SQL =
+            "SELECT id, product_id, threshold FROM price_alert WHERE triggered_at IS NULL";
+
+    private static final String WATCHED_LOWEST_PRICES_SQL =
+            "SELECT p.id, p.lowest_price FROM product p " +
+            "WHERE EXISTS (SELECT 1 FROM price_alert a WHERE a.product_id = p.id AND a.triggered_at IS NULL)";
+
+    private static final String LOWEST_PRICES_SQL =
+            "SELECT id, lowest_price FROM product WHERE id IN ";
+
+    // Alerts deleted or triggered in the meantime are skipped
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO price_alert_outbox (alert_id, product_id, threshold, price, created_at) " +
+            "SELECT id, product_id, threshold, ?, ? FROM price_alert WHERE id = ? AND triggered_at IS NULL";
+
+    private static final String TRIGGER_SQL =
+            "UPDATE price_alert SET triggered_at = ? WHERE id = ? AND triggered_at IS NULL";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream the alerts rather than read them all into memory
+    @Value("${prico.price-alerts.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    public interface AlertConsumer {
+
+        void accept(Long alertId, Long productId, float threshold);
+    }
+
+    /**
+     * Streams every untriggered alert, in no particular order. The consumer must not query the database
+     * while the alerts are being read.
+     */
+    public void forEachActive(AlertConsumer consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ACTIVE_SQL);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, resultSet -> {
+            consumer.accept(resultSet.getLong(1), resultSet.getLong(2), resultSet.getFloat(3));
+        });
+    }
+
+    /**
+     * Lowest prices of the products with untriggered alerts. Products without offers are left out.
+     */
+    public Map<Long, Float> findWatchedLowestPrices() {
+        Map<Long, Float> prices = new HashMap<>();
+
+        jdbcTemplate.query(WATCHED_LOWEST_PRICES_SQL, resultSet -> {
+            putPrice(prices, resultSet.getLong(1), resultSet.getObject(2));
+        });
+
+        return prices;
+    }
+
+    public Map<Long, Float> findLowestPrices(Collection<Long> productIds) {
+        Map<Long, Float> prices = new HashMap<>();
+        List<Long> ids = new ArrayList<>(productIds);
+
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+
+            jdbcTemplate.query(LOWEST_PRICES_SQL + "(" + placeholders + ")", resultSet -> {
+                putPrice(prices, resultSet.getLong(1), resultSet.getObject(2));
+            }, chunk.toArray());
+        }
+
+        return prices;
+    }
+
+    @Transactional
+    public void trigger(List<PriceAlertIndex.Match> matches, Instant triggeredAt) {
+        Timestamp timestamp = Timestamp.from(triggeredAt);
+
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, matches, BATCH_SIZE, (statement, match) -> {
+            statement.setFloat(1, match.getPrice());
+            statement.setTimestamp(2, timestamp);
+            statement.setLong(3, match.getAlertId());
+        });
+
+        jdbcTemplate.batchUpdate(TRIGGER_SQL, matches, BATCH_SIZE, (statement, match) -> {
+            statement.setTimestamp(1, timestamp);
+            statement.setLong(2, match.getAlertId());
+        });
+    }
+
+    private static void putPrice(Map<Long, Float> prices, long productId, Object price) {
+        if (price != null) {
+            prices.put(productId, ((Number) price).floatValue());
+        }
+    }
+}
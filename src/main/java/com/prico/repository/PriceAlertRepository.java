@@ -0,0 +1,9 @@
+package com.prico.repository;
+
+import com.prico.model.PriceAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
+}
@@ -0,0 +1,32 @@
+package com.prico.repository;
+
+import com.prico.model.PriceObservation;
+import com.prico.repository.projection.PricePoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface PriceObservationRepository extends JpaRepository<PriceObservation, Long> {
+
+    @Query("SELECT o.observedAt AS observedAt, o.storeId AS storeId, o.price AS price " +
+            "FROM PriceObservation o " +
+            "WHERE o.productId = :productId AND o.observedAt >= :from AND o.observedAt < :to " +
+            "ORDER BY o.observedAt")
+    List<PricePoint> findPoints(@Param("productId") Long productId,
+                                @Param("from") Instant from,
+                                @Param("to") Instant to);
+
+    @Query("SELECT o.observedAt AS observedAt, o.storeId AS storeId, o.price AS price " +
+            "FROM PriceObservation o " +
+            "WHERE o.productId = :productId AND o.storeId = :storeId AND o.observedAt >= :from AND o.observedAt < :to " +
+            "ORDER BY o.observedAt")
+    List<PricePoint> findStorePoints(@Param("productId") Long productId,
+                                     @Param("storeId") Long storeId,
+                                     @Param("from") Instant from,
+                                     @Param("to") Instant to);
+}
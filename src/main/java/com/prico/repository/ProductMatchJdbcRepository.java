@@ -0,0 +1,40 @@
+package com.prico.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+
+/**
+ * Reads the product names offers are matched against, without loading the products as entities.
+ */
+@Repository
+public class ProductMatchJdbcRepository {
+
+    private static final int FETCH_SIZE = 10000;
+
+    private static final String PRODUCTS_SQL =
+            "SELECT p.id, p.name, b.name FROM product p LEFT JOIN brand b ON b.id = p.brand_id WHERE p.name IS NOT NULL";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public interface ProductConsumer {
+
+        void accept(long productId, String name, String brandName);
+    }
+
+    /**
+     * Streams every named product with its brand's name, in no particular order, reading from a cursor.
+     */
+    public void forEachProduct(ProductConsumer consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(PRODUCTS_SQL);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, resultSet -> {
+            consumer.accept(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3));
+        });
+    }
+}
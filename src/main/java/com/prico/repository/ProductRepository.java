@@ -1,23 +1,102 @@
 package com.prico.repository;
 
+import com.prico.dto.comparison.ProductVariationRow;
 import com.prico.model.Product;
+import com.prico.repository.projection.ProductFacetRow;
+import com.prico.repository.projection.ProductVersion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    // Brand and category are lazy; read paths that map products to DTOs fetch them with the entity graph
+
+    @Override
+    @EntityGraph("Product.brandAndCategory")
+    List<Product> findAll();
+
+    @Override
+    @EntityGraph("Product.brandAndCategory")
+    Page<Product> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph("Product.brandAndCategory")
+    List<Product> findAllById(Iterable<Long> ids);
+
+    @EntityGraph("Product.brandAndCategory")
+    Optional<Product> findWithBrandAndCategoryById(Long id);
+
+    @EntityGraph("Product.brandAndCategory")
+    List<Product> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.version AS version, p.offersVersion AS offersVersion, " +
+            "b.version AS brandVersion, c.version AS categoryVersion, " +
+            "p.updatedAt AS updatedAt, b.updatedAt AS brandUpdatedAt, c.updatedAt AS categoryUpdatedAt " +
+            "FROM Product p " +
+            "LEFT JOIN p.brand b " +
+            "LEFT JOIN p.category c " +
+            "WHERE p.id = :id")
+    Optional<ProductVersion> findVersionById(@Param("id") Long id);
+
+    // One row per product and store it is offered at, or a single row with a null store when it has no offers
+
+    @Query("SELECT DISTINCT p.id AS productId, b.id AS brandId, c.id AS categoryId, p.lowestPrice AS lowestPrice, s.id AS storeId " +
+            "FROM Product p " +
+            "LEFT JOIN p.brand b " +
+            "LEFT JOIN p.category c " +
+            "LEFT JOIN ProductStore ps ON ps.product = p " +
+            "LEFT JOIN ps.store s")
+    List<ProductFacetRow> findFacetRows();
+
+    @Query("SELECT DISTINCT p.id AS productId, b.id AS brandId, c.id AS categoryId, p.lowestPrice AS lowestPrice, s.id AS storeId " +
+            "FROM Product p " +
+            "LEFT JOIN p.brand b " +
+            "LEFT JOIN p.category c " +
+            "LEFT JOIN ProductStore ps ON ps.product = p " +
+            "LEFT JOIN ps.store s " +
+            "WHERE p.id IN :productIds")
+    List<ProductFacetRow> findFacetRowsByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @EntityGraph("Product.brandAndCategory")
     @Query("SELECT p FROM Product p " +
             "LEFT JOIN p.category c " +
             "LEFT JOIN p.brand b " +
-            "WHERE LOWER(p.name) LIKE %:name% " +
-            "AND (:category IS NULL OR LOWER(c.name) LIKE %:category%) " +
-            "AND (:brand IS NULL OR LOWER(b.name) LIKE %:brand%)")
+            "WHERE LOWER(p.name) LIKE CONCAT('%', COALESCE(:name, ''), '%') " +
+            "AND (:category IS NULL OR LOWER(c.name) LIKE CONCAT('%', :category, '%')) " +
+            "AND (:brand IS NULL OR LOWER(b.name) LIKE CONCAT('%', :brand, '%'))")
     List<Product> search(@Param("name") String name,
                          @Param("category") String category,
                          @Param("brand") String brand);
+
+    @Query("SELECT new com.prico.dto.comparison.ProductVariationRow(" +
+            "p.id, p.name, p.imageUrl, s.id, s.name, s.website, ps.id, ps.name, ps.url, ps.imageUrl, ps.price) " +
+            "FROM Product p " +
+            "LEFT JOIN ProductStore ps ON ps.product = p " +
+            "LEFT JOIN ps.store s " +
+            "WHERE p.id = :productId " +
+            "ORDER BY ps.price, ps.id")
+    List<ProductVariationRow> findVariationRows(@Param("productId") Long productId);
+
+    @Query("SELECT new com.prico.dto.comparison.ProductVariationRow(" +
+            "p.id, p.name, p.imageUrl, s.id, s.name, s.website, ps.id, ps.name, ps.url, ps.imageUrl, ps.price) " +
+            "FROM Product p " +
+            "LEFT JOIN ProductStore ps ON ps.product = p " +
+            "LEFT JOIN ps.store s " +
+            "WHERE p.id IN :productIds " +
+            "ORDER BY p.id, ps.price, ps.id")
+    List<ProductVariationRow> findVariationRowsByProductIds(@Param("productIds") Collection<Long> productIds);
 }
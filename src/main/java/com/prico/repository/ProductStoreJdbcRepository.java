@@ -0,0 +1,109 @@
+package com.prico.repository;
+
+import com.prico.dto.crud.ProductStoreRequestDto;
+import com.prico.model.PriceObservation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes offers with plain JDBC batches. {@code ProductStore} ids are IDENTITY generated, which
+ * stops Hibernate from batching inserts, so bulk ingestion bypasses the persistence context.
+ */
+@Repository
+public class ProductStoreJdbcRepository {
+
+    public static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO product_store (name, url, image_url, price, product_id, store_id, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE product_store SET name = ?, url = ?, image_url = ?, price = ?, product_id = ?, store_id = ?, " +
+            "version = version + 1, updated_at = ? WHERE id = ?";
+
+    private static final String INSERT_OBSERVATION_SQL =
+            "INSERT INTO price_observation (product_store_id, product_id, store_id, price, observed_at) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the offers and returns their generated ids in the same order.
+     */
+    public List<Long> insertAll(List<ProductStoreRequestDto> offers) {
+        Timestamp updatedAt = Timestamp.from(Instant.now());
+
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            List<Long> ids = new ArrayList<>(offers.size());
+
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < offers.size(); i++) {
+                    bind(statement, offers.get(i));
+                    statement.setTimestamp(7, updatedAt);
+                    statement.addBatch();
+
+                    if ((i + 1) % BATCH_SIZE == 0 || i == offers.size() - 1) {
+                        statement.executeBatch();
+
+                        try (ResultSet keys = statement.getGeneratedKeys()) {
+                            while (keys.next()) {
+                                ids.add(keys.getLong(1));
+                            }
+                        }
+                    }
+                }
+            }
+
+            return ids;
+        });
+    }
+
+    public void updateAll(Map<Long, ProductStoreRequestDto> offers) {
+        List<Object[]> rows = new ArrayList<>(offers.size());
+        Timestamp updatedAt = Timestamp.from(Instant.now());
+
+        offers.forEach((id, offer) -> rows.add(new Object[]{
+                offer.getName(),
+                offer.getUrl(),
+                offer.getImageUrl(),
+                offer.getPrice(),
+                offer.getProductId(),
+                offer.getStoreId(),
+                updatedAt,
+                id
+        }));
+
+        jdbcTemplate.batchUpdate(UPDATE_SQL, rows, BATCH_SIZE, (statement, row) -> {
+            for (int i = 0; i < row.length; i++) {
+                statement.setObject(i + 1, row[i]);
+            }
+        });
+    }
+
+    public void insertObservations(List<PriceObservation> observations) {
+        jdbcTemplate.batchUpdate(INSERT_OBSERVATION_SQL, observations, BATCH_SIZE, (statement, observation) -> {
+            statement.setLong(1, observation.getProductStoreId());
+            statement.setLong(2, observation.getProductId());
+            statement.setLong(3, observation.getStoreId());
+            statement.setObject(4, observation.getPrice(), Types.REAL);
+            statement.setTimestamp(5, Timestamp.from(observation.getObservedAt()));
+        });
+    }
+
+    private static void bind(PreparedStatement statement, ProductStoreRequestDto offer) throws SQLException {
+        statement.setString(1, offer.getName());
+        statement.setString(2, offer.getUrl());
+        statement.setString(3, offer.getImageUrl());
+        statement.setObject(4, offer.getPrice(), Types.REAL);
+        statement.setLong(5, offer.getProductId());
+        statement.setLong(6, offer.getStoreId());
+    }
+}
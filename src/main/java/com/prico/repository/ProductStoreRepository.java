@@ -2,13 +2,49 @@ package com.prico.repository;
 
 import com.prico.model.Product;
 import com.prico.model.ProductStore;
+import com.prico.repository.projection.OfferKey;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductStoreRepository extends JpaRepository<ProductStore, Long> {
+public interface ProductStoreRepository extends JpaRepository<ProductStore, Long>, ProductStoreStreamRepository {
 
+    // Product and store are lazy; read paths that map offers to DTOs fetch them with the entity graph
+
+    @Override
+    @EntityGraph("ProductStore.productAndStore")
+    List<ProductStore> findAll();
+
+    @Override
+    @EntityGraph("ProductStore.productAndStore")
+    Page<ProductStore> findAll(Pageable pageable);
+
+    @EntityGraph("ProductStore.productAndStore")
+    Optional<ProductStore> findWithProductAndStoreById(Long id);
+
+    @EntityGraph("ProductStore.productAndStore")
+    List<ProductStore> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @EntityGraph("ProductStore.productAndStore")
     List<ProductStore> findAllByProduct(Product product);
+
+    @Query("SELECT ps.id AS id, ps.store.id AS storeId, ps.url AS url, ps.product.id AS productId, ps.price AS price " +
+            "FROM ProductStore ps " +
+            "WHERE ps.store.id IN :storeIds AND ps.url IN :urls")
+    List<OfferKey> findOfferKeys(@Param("storeIds") Collection<Long> storeIds,
+                                 @Param("urls") Collection<String> urls);
+
+    @Query("SELECT ps.id AS id, ps.store.id AS storeId, ps.url AS url, ps.product.id AS productId, ps.price AS price " +
+            "FROM ProductStore ps " +
+            "WHERE ps.id IN :ids")
+    List<OfferKey> findOfferKeysByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,13 @@
+package com.prico.repository;
+
+import com.prico.model.ProductStore;
+
+import java.util.stream.Stream;
+
+public interface ProductStoreStreamRepository {
+
+    /**
+     * Every offer with its product, brand, category and store, by id, read as the stream is consumed.
+     */
+    Stream<ProductStore> streamAll();
+}
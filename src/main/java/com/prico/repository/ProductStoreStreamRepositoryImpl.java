@@ -0,0 +1,34 @@
+package com.prico.repository;
+
+import com.prico.model.ProductStore;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.stream.Stream;
+
+public class ProductStoreStreamRepositoryImpl implements ProductStoreStreamRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream the rows instead of reading them all into memory, and
+    // the connection runs no other statement until the stream is closed. Other databases want a positive size
+    @Value("${prico.export.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    @Override
+    public Stream<ProductStore> streamAll() {
+        return entityManager
+                .createQuery("SELECT ps FROM ProductStore ps " +
+                        "LEFT JOIN FETCH ps.product p " +
+                        "LEFT JOIN FETCH p.brand " +
+                        "LEFT JOIN FETCH p.category " +
+                        "LEFT JOIN FETCH ps.store " +
+                        "ORDER BY ps.id", ProductStore.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+}
@@ -1,9 +1,33 @@
 package com.prico.repository;
 
 import com.prico.model.Store;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 @Repository
 public interface StoreRepository extends JpaRepository<Store, Long> {
+
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Store> findAll();
+
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    Page<Store> findAll(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Store> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("SELECT s.id FROM Store s WHERE s.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,17 @@
+package com.prico.repository.projection;
+
+/**
+ * Identity of an existing offer: a store lists a product page under one url.
+ */
+public interface OfferKey {
+
+    Long getId();
+
+    Long getStoreId();
+
+    String getUrl();
+
+    Long getProductId();
+
+    Float getPrice();
+}
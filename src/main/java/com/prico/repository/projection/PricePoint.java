@@ -0,0 +1,15 @@
+package com.prico.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * A single price observation as read for time-series queries.
+ */
+public interface PricePoint {
+
+    Instant getObservedAt();
+
+    Long getStoreId();
+
+    Float getPrice();
+}
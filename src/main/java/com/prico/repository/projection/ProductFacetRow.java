@@ -0,0 +1,17 @@
+package com.prico.repository.projection;
+
+/**
+ * Facet values of a product for one of the stores offering it.
+ */
+public interface ProductFacetRow {
+
+    Long getProductId();
+
+    Long getBrandId();
+
+    Long getCategoryId();
+
+    Float getLowestPrice();
+
+    Long getStoreId();
+}
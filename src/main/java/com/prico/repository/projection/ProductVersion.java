@@ -0,0 +1,23 @@
+package com.prico.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Versions of a product and of the rows its representations are built from.
+ */
+public interface ProductVersion {
+
+    Long getVersion();
+
+    Long getOffersVersion();
+
+    Long getBrandVersion();
+
+    Long getCategoryVersion();
+
+    Instant getUpdatedAt();
+
+    Instant getBrandUpdatedAt();
+
+    Instant getCategoryUpdatedAt();
+}
@@ -0,0 +1,14 @@
+package com.prico.repository.projection;
+
+/**
+ * Changes whenever a row of the table is inserted, updated or deleted: inserts raise the highest id,
+ * updates the sum of versions and deletes the row count.
+ */
+public interface TableVersion {
+
+    Long getRowCount();
+
+    Long getMaxId();
+
+    Long getVersionSum();
+}
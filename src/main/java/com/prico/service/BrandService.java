@@ -1,8 +1,10 @@
 package com.prico.service;
 
+import com.prico.dto.ResourceVersionDto;
 import com.prico.dto.crud.BrandRequestDto;
 import com.prico.dto.crud.BrandResponseDto;
 import com.prico.model.Brand;
+import org.springframework.data.domain.Page;
 
 import java.util.List;
 
@@ -10,8 +12,14 @@ public interface BrandService {
 
     List<BrandResponseDto> getAll();
 
+    List<BrandResponseDto> getAll(Long after, int limit);
+
+    Page<BrandResponseDto> getPage(int page, int limit);
+
     BrandResponseDto getById(Long id);
 
+    ResourceVersionDto getListVersion();
+
     Brand create(BrandRequestDto brand);
 
     Brand update(Long id, BrandRequestDto brand);
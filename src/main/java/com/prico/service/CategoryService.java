@@ -3,6 +3,7 @@ package com.prico.service;
 import com.prico.dto.crud.CategoryRequestDto;
 import com.prico.dto.crud.CategoryResponseDto;
 import com.prico.model.Category;
+import org.springframework.data.domain.Page;
 
 import java.util.List;
 
@@ -10,6 +11,10 @@ public interface CategoryService {
 
     List<CategoryResponseDto> getAll();
 
+    List<CategoryResponseDto> getAll(Long after, int limit);
+
+    Page<CategoryResponseDto> getPage(int page, int limit);
+
     CategoryResponseDto getById(Long id);
 
     Category create(CategoryRequestDto productCategory);
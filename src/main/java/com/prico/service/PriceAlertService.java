@@ -0,0 +1,21 @@
+package com.prico.service;
+
+import com.prico.dto.alert.PriceAlertRequestDto;
+import com.prico.dto.alert.PriceAlertResponseDto;
+
+import java.util.Collection;
+
+public interface PriceAlertService {
+
+    PriceAlertResponseDto getById(Long id);
+
+    PriceAlertResponseDto create(PriceAlertRequestDto alert);
+
+    void delete(Long id);
+
+    /**
+     * Matches the products' new lowest prices against their alerts once the current transaction commits,
+     * off the calling thread.
+     */
+    void onOffersChanged(Collection<Long> productIds);
+}
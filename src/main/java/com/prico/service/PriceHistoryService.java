@@ -0,0 +1,11 @@
+package com.prico.service;
+
+import com.prico.dto.history.PriceHistoryResponseDto;
+import com.prico.dto.history.PriceInterval;
+
+import java.time.LocalDate;
+
+public interface PriceHistoryService {
+
+    PriceHistoryResponseDto getHistory(Long productId, Long storeId, LocalDate from, LocalDate to, PriceInterval interval);
+}
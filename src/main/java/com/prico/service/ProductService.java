@@ -3,24 +3,49 @@ package com.prico.service;
 import com.prico.dto.crud.ProductRequestDto;
 import com.prico.dto.crud.ProductResponseDto;
 import com.prico.dto.comparison.ProductVariationResponseDto;
+import com.prico.dto.ResourceVersionDto;
 import com.prico.dto.SearchRequestDto;
+import com.prico.dto.SearchResponseDto;
+import com.prico.dto.SuggestionDto;
+import com.prico.dto.VersionedDto;
 import com.prico.model.Product;
+import org.springframework.data.domain.Page;
 
 import java.util.List;
+import java.util.Map;
 
 public interface ProductService {
 
     List<ProductResponseDto> getAll();
 
+    List<ProductResponseDto> getAll(Long after, int limit);
+
+    Page<ProductResponseDto> getPage(int page, int limit);
+
     ProductResponseDto getById(Long id);
 
+    ResourceVersionDto getVersion(Long id);
+
+    /**
+     * The product with the ETag of the rows it was read from, for responses that are cached by ETag.
+     */
+    VersionedDto<ProductResponseDto> getVersionedById(Long id);
+
     Product create(ProductRequestDto product);
 
     Product update(Long id, ProductRequestDto product);
 
     void delete(Long id);
 
-    List<ProductResponseDto> search(SearchRequestDto searchRequest);
+    SearchResponseDto search(SearchRequestDto searchRequest);
+
+    List<SuggestionDto> suggest(String query, int limit);
 
     ProductVariationResponseDto getVariationsByProduct(Long productId);
+
+    ResourceVersionDto getVariationsVersion(Long productId);
+
+    VersionedDto<ProductVariationResponseDto> getVersionedVariations(Long productId);
+
+    Map<Long, ProductVariationResponseDto> getVariationsByProducts(List<Long> productIds);
 }
@@ -1,15 +1,24 @@
 package com.prico.service;
 
+import com.prico.dto.crud.BulkProductStoreResultDto;
 import com.prico.dto.crud.ProductStoreRequestDto;
 import com.prico.dto.crud.ProductStoreResponseDto;
+import com.prico.dto.match.OfferMatchResponseDto;
 import com.prico.model.ProductStore;
+import org.springframework.data.domain.Page;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface ProductStoreService {
 
     List<ProductStoreResponseDto> getAll();
 
+    List<ProductStoreResponseDto> getAll(Long after, int limit);
+
+    Page<ProductStoreResponseDto> getPage(int page, int limit);
+
     ProductStoreResponseDto getById(Long id);
 
     ProductStore create(ProductStoreRequestDto product);
@@ -17,4 +26,26 @@ public interface ProductStoreService {
     ProductStore update(Long id, ProductStoreRequestDto product);
 
     void delete(Long id);
+
+    void exportAll(Consumer<ProductStoreResponseDto> consumer);
+
+    List<BulkProductStoreResultDto> bulkUpsert(List<ProductStoreRequestDto> offers);
+
+    /**
+     * Updates existing offers by id with JDBC batches. Results are in the map's iteration order; offers the
+     * last write already left in the same state are reported as {@code UNCHANGED} and not written.
+     */
+    List<BulkProductStoreResultDto> updateAll(Map<Long, ProductStoreRequestDto> offers);
+
+    /**
+     * Throws {@link com.prico.exception.ResourceNotFoundException} when the offer, or the product or store
+     * it is moved to, does not exist, so updates written later can be refused up front.
+     */
+    void checkUpdate(Long id, ProductStoreRequestDto offer);
+
+    /**
+     * Proposes the products the offer is most likely a listing of, by the similarity of its name to their
+     * names and brands.
+     */
+    OfferMatchResponseDto matchProduct(ProductStoreRequestDto offer, int limit);
 }
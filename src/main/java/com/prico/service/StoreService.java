@@ -3,6 +3,7 @@ package com.prico.service;
 import com.prico.dto.crud.StoreRequestDto;
 import com.prico.dto.crud.StoreResponseDto;
 import com.prico.model.Store;
+import org.springframework.data.domain.Page;
 
 import java.util.List;
 
@@ -10,6 +11,10 @@ public interface StoreService {
 
     List<StoreResponseDto> getAll();
 
+    List<StoreResponseDto> getAll(Long after, int limit);
+
+    Page<StoreResponseDto> getPage(int page, int limit);
+
     StoreResponseDto getById(Long id);
 
     Store create(StoreRequestDto store);
@@ -1,15 +1,24 @@
 package com.prico.service.impl;
 
+import com.prico.dto.ResourceVersionDto;
 import com.prico.dto.crud.BrandRequestDto;
 import com.prico.dto.crud.BrandResponseDto;
 import com.prico.model.Brand;
 import com.prico.exception.ResourceNotFoundException;
+import com.prico.index.ProductSearchIndex;
+import com.prico.index.ProductSuggestIndex;
 import com.prico.repository.BrandRepository;
+import com.prico.repository.projection.TableVersion;
 import com.prico.service.BrandService;
+import com.prico.util.ETags;
 import com.prico.util.ObjectMapper;
+import com.prico.util.Pagination;
+import com.prico.util.Transactions;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,7 +31,14 @@ public class BrandServiceImpl implements BrandService {
     @Autowired
     private BrandRepository repository;
 
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductSuggestIndex suggestIndex;
+
     @Override
+    @Transactional(readOnly = true)
     public List<BrandResponseDto> getAll() {
         return repository
             .findAll()
@@ -32,6 +48,25 @@ public class BrandServiceImpl implements BrandService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<BrandResponseDto> getAll(Long after, int limit) {
+        return repository
+            .findByIdGreaterThan(Pagination.after(after), Pagination.keyset(limit))
+            .stream()
+            .map(x -> ObjectMapper.toDto(x))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BrandResponseDto> getPage(int page, int limit) {
+        return repository
+            .findAll(Pagination.offset(page, limit))
+            .map(x -> ObjectMapper.toDto(x));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public BrandResponseDto getById(Long id) {
         Optional<Brand> optionalBrand = repository.findById(id);
 
@@ -43,6 +78,18 @@ public class BrandServiceImpl implements BrandService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public ResourceVersionDto getListVersion() {
+        TableVersion version = repository.findTableVersion();
+
+        return ResourceVersionDto
+            .builder()
+            .etag(ETags.of(version.getRowCount(), version.getMaxId(), version.getVersionSum()))
+            .build();
+    }
+
+    @Override
+    @Transactional
     public Brand create(BrandRequestDto brandRequest) {
         Brand brand = new Brand();
         brand.setName(brandRequest.getName());
@@ -52,6 +99,7 @@ public class BrandServiceImpl implements BrandService {
     }
 
     @Override
+    @Transactional
     public Brand update(Long id, BrandRequestDto brandRequest) {
         Brand existingBrand = repository.findById(id).orElse(null);
 
@@ -59,16 +107,29 @@ public class BrandServiceImpl implements BrandService {
             existingBrand.setName(brandRequest.getName());
             existingBrand.setDescription(brandRequest.getDescription());
 
-            return repository.save(existingBrand);
+            Brand savedBrand = repository.save(existingBrand);
+            Transactions.afterCommit(() -> {
+                searchIndex.indexBrand(savedBrand);
+                suggestIndex.indexBrand(savedBrand);
+            });
+
+            return savedBrand;
         }
 
         throw new ResourceNotFoundException("Brand not found with id: " + id);
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
         if (repository.existsById(id)) {
             repository.deleteById(id);
+            // Rows still referencing it fail the delete here rather than at commit
+            repository.flush();
+            Transactions.afterCommit(() -> {
+                searchIndex.removeBrand(id);
+                suggestIndex.removeBrand(id);
+            });
             return;
         }
 
@@ -4,12 +4,18 @@ import com.prico.dto.crud.CategoryRequestDto;
 import com.prico.dto.crud.CategoryResponseDto;
 import com.prico.model.Category;
 import com.prico.exception.ResourceNotFoundException;
+import com.prico.index.ProductSearchIndex;
+import com.prico.index.ProductSuggestIndex;
 import com.prico.repository.CategoryRepository;
 import com.prico.service.CategoryService;
 import com.prico.util.ObjectMapper;
+import com.prico.util.Pagination;
+import com.prico.util.Transactions;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,7 +28,14 @@ public class CategoryServiceImpl implements CategoryService {
     @Autowired
     private CategoryRepository repository;
 
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductSuggestIndex suggestIndex;
+
     @Override
+    @Transactional(readOnly = true)
     public List<CategoryResponseDto> getAll() {
         return repository
             .findAll()
@@ -32,6 +45,25 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<CategoryResponseDto> getAll(Long after, int limit) {
+        return repository
+            .findByIdGreaterThan(Pagination.after(after), Pagination.keyset(limit))
+            .stream()
+            .map(x -> ObjectMapper.toDto(x))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CategoryResponseDto> getPage(int page, int limit) {
+        return repository
+            .findAll(Pagination.offset(page, limit))
+            .map(x -> ObjectMapper.toDto(x));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public CategoryResponseDto getById(Long id) {
         Optional<Category> optionalProductCategory = repository.findById(id);
 
@@ -43,6 +75,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Transactional
     public Category create(CategoryRequestDto productCategoryRequest) {
         Category category = new Category();
         category.setName(productCategoryRequest.getName());
@@ -52,6 +85,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Transactional
     public Category update(Long id, CategoryRequestDto productCategoryRequest) {
         Category existingCategory = repository.findById(id).orElse(null);
 
@@ -59,16 +93,29 @@ public class CategoryServiceImpl implements CategoryService {
             existingCategory.setName(productCategoryRequest.getName());
             existingCategory.setDescription(productCategoryRequest.getDescription());
 
-            return repository.save(existingCategory);
+            Category savedCategory = repository.save(existingCategory);
+            Transactions.afterCommit(() -> {
+                searchIndex.indexCategory(savedCategory);
+                suggestIndex.indexCategory(savedCategory);
+            });
+
+            return savedCategory;
         }
 
         throw new ResourceNotFoundException("ProductCategory not found with id: " + id);
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
         if (repository.existsById(id)) {
             repository.deleteById(id);
+            // Rows still referencing it fail the delete here rather than at commit
+            repository.flush();
+            Transactions.afterCommit(() -> {
+                searchIndex.removeCategory(id);
+                suggestIndex.removeCategory(id);
+            });
             return;
         }
 
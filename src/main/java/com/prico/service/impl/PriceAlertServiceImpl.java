@@ -0,0 +1,202 @@
+package com.prico.service.impl;
+
+import com.prico.dto.alert.PriceAlertRequestDto;
+import com.prico.dto.alert.PriceAlertResponseDto;
+import com.prico.exception.ResourceNotFoundException;
+import com.prico.index.PriceAlertIndex;
+import com.prico.model.PriceAlert;
+import com.prico.model.Product;
+import com.prico.repository.PriceAlertJdbcRepository;
+import com.prico.repository.PriceAlertRepository;
+import com.prico.repository.ProductRepository;
+import com.prico.service.PriceAlertService;
+import com.prico.util.ObjectMapper;
+import com.prico.util.Transactions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps untriggered alerts in the {@link PriceAlertIndex} and matches them on a single background thread
+ * whenever offers change, so writes to offers only pay for a map lookup per product.
+ */
+@Service
+@Slf4j
+public class PriceAlertServiceImpl implements PriceAlertService {
+
+    @Autowired
+    private PriceAlertRepository repository;
+
+    @Autowired
+    private PriceAlertJdbcRepository jdbcRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PriceAlertIndex index;
+
+    private final ExecutorService matcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "price-alert-matcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+
+        PriceAlertIndex.Loader loader = index.loader();
+        jdbcRepository.forEachActive((alertId, productId, threshold) -> loader.add(productId, alertId, threshold));
+        List<PriceAlertIndex.Match> matches = loader.finish(jdbcRepository.findWatchedLowestPrices());
+
+        if (!matches.isEmpty()) {
+            jdbcRepository.trigger(matches, Instant.now());
+        }
+
+        log.info("Indexed {} price alerts in {} ms, {} triggered on load", index.size(),
+                System.currentTimeMillis() - start, matches.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matcher.shutdown();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PriceAlertResponseDto getById(Long id) {
+        Optional<PriceAlert> optionalAlert = repository.findById(id);
+
+        if (optionalAlert.isPresent()) {
+            return ObjectMapper.toDto(optionalAlert.get());
+        }
+
+        throw new ResourceNotFoundException("Price alert not found with id: " + id);
+    }
+
+    @Override
+    @Transactional
+    public PriceAlertResponseDto create(PriceAlertRequestDto alertRequest) {
+        Product product = productRepository
+                .findById(alertRequest.getProductId())
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + alertRequest.getProductId()));
+
+        PriceAlert alert = new PriceAlert();
+        alert.setProductId(alertRequest.getProductId());
+        alert.setThreshold(alertRequest.getThreshold());
+        alert.setSubscriber(alertRequest.getSubscriber());
+        alert.setCreatedAt(Instant.now());
+
+        PriceAlert savedAlert = repository.save(alert);
+        PriceAlertResponseDto response = ObjectMapper.toDto(savedAlert);
+        Float lowestPrice = product.getLowestPrice();
+
+        if (lowestPrice != null && savedAlert.getThreshold() > lowestPrice) {
+            Instant triggeredAt = Instant.now();
+            PriceAlertIndex.Match match = new PriceAlertIndex.Match(savedAlert.getId(), savedAlert.getProductId(),
+                    savedAlert.getThreshold(), lowestPrice);
+
+            jdbcRepository.trigger(Collections.singletonList(match), triggeredAt);
+            response.setTriggeredAt(triggeredAt);
+        } else {
+            // A rolled back alert must never fire
+            Transactions.afterCommit(() -> watch(savedAlert, lowestPrice));
+        }
+
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id) {
+        PriceAlert alert = repository
+                .findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Price alert not found with id: " + id));
+
+        repository.delete(alert);
+
+        if (alert.getTriggeredAt() == null) {
+            // A rolled back delete must keep the alert watched
+            Transactions.afterCommit(() -> index.remove(alert.getProductId(), alert.getId(), alert.getThreshold()));
+        }
+    }
+
+    @Override
+    public void onOffersChanged(Collection<Long> productIds) {
+        List<Long> watched = productIds
+                .stream()
+                .filter(x -> x != null && index.watches(x))
+                .distinct()
+                .collect(Collectors.toList());
+
+        if (watched.isEmpty()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    matcher.execute(() -> match(watched));
+                }
+            });
+        } else {
+            matcher.execute(() -> match(watched));
+        }
+    }
+
+    private void watch(PriceAlert alert, Float lowestPrice) {
+        PriceAlertIndex.Match match = index.add(alert.getProductId(), alert.getId(), alert.getThreshold(), lowestPrice);
+
+        if (match != null) {
+            // The index already saw a lower price than the one read
+            matcher.execute(() -> trigger(Collections.singletonList(match)));
+        } else {
+            // The price may have moved since it was read, before the index watched the product
+            matcher.execute(() -> match(Collections.singleton(alert.getProductId())));
+        }
+    }
+
+    /**
+     * Fires the alerts the products' current lowest prices dropped below.
+     */
+    public void match(Collection<Long> productIds) {
+        try {
+            Map<Long, Float> lowestPrices = jdbcRepository.findLowestPrices(productIds);
+            List<PriceAlertIndex.Match> matches = new ArrayList<>();
+
+            for (Long productId : productIds) {
+                matches.addAll(index.update(productId, lowestPrices.get(productId)));
+            }
+
+            if (!matches.isEmpty()) {
+                jdbcRepository.trigger(matches, Instant.now());
+                log.debug("Triggered {} price alerts", matches.size());
+            }
+        } catch (RuntimeException e) {
+            // Alerts taken out of the index but not recorded are triggered again on the next load
+            log.error("Failed to match price alerts for products {}", productIds, e);
+        }
+    }
+
+    private void trigger(List<PriceAlertIndex.Match> matches) {
+        try {
+            jdbcRepository.trigger(matches, Instant.now());
+        } catch (RuntimeException e) {
+            log.error("Failed to trigger {} price alerts", matches.size(), e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.prico.service.impl;
+
+import com.prico.dto.history.PriceHistoryResponseDto;
+import com.prico.dto.history.PriceInterval;
+import com.prico.dto.history.PricePointDto;
+import com.prico.exception.BadRequestException;
+import com.prico.exception.ResourceNotFoundException;
+import com.prico.repository.PriceObservationRepository;
+import com.prico.repository.ProductRepository;
+import com.prico.repository.projection.PricePoint;
+import com.prico.service.PriceHistoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class PriceHistoryServiceImpl implements PriceHistoryService {
+
+    static final int DEFAULT_RANGE_DAYS = 90;
+
+    @Autowired
+    private PriceObservationRepository repository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public PriceHistoryResponseDto getHistory(Long productId, Long storeId, LocalDate from, LocalDate to, PriceInterval interval) {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
+
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS);
+
+        if (start.isAfter(end)) {
+            throw new BadRequestException("from should not be after to");
+        }
+
+        // Both ends are whole UTC days, the upper bound is exclusive
+        Instant lower = start.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant upper = end.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+        List<PricePoint> points = storeId != null
+                ? repository.findStorePoints(productId, storeId, lower, upper)
+                : repository.findPoints(productId, lower, upper);
+
+        // Points arrive ordered by time, so buckets are created in order
+        Stats total = new Stats();
+        Map<Instant, Stats> buckets = new LinkedHashMap<>();
+
+        for (PricePoint point : points) {
+            total.add(point.getPrice());
+            buckets.computeIfAbsent(interval.bucketOf(point.getObservedAt()), x -> new Stats()).add(point.getPrice());
+        }
+
+        return PriceHistoryResponseDto
+                .builder()
+                .productId(productId)
+                .storeId(storeId)
+                .from(start)
+                .to(end)
+                .interval(interval)
+                .minPrice(total.min())
+                .maxPrice(total.max())
+                .avgPrice(total.avg())
+                .observations(total.count)
+                .series(buckets
+                        .entrySet()
+                        .stream()
+                        .map(x -> PricePointDto
+                                .builder()
+                                .bucket(x.getKey())
+                                .minPrice(x.getValue().min())
+                                .maxPrice(x.getValue().max())
+                                .avgPrice(x.getValue().avg())
+                                .observations(x.getValue().count)
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private static class Stats {
+        private float min = Float.MAX_VALUE;
+        private float max = -Float.MAX_VALUE;
+        private double sum;
+        private long count;
+
+        void add(float price) {
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+            sum += price;
+            count++;
+        }
+
+        Float min() {
+            return count == 0 ? null : min;
+        }
+
+        Float max() {
+            return count == 0 ? null : max;
+        }
+
+        Float avg() {
+            return count == 0 ? null : (float) (sum / count);
+        }
+    }
+}
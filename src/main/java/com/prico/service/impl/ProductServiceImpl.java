@@ -1,30 +1,62 @@
 package com.prico.service.impl;
 
+import com.prico.cache.ResponseCache;
+import com.prico.config.CacheConfig;
 import com.prico.dto.comparison.ProductVariationResponseDto;
-import com.prico.dto.comparison.StoreDto;
+import com.prico.dto.comparison.ProductVariationRow;
 import com.prico.dto.crud.ProductRequestDto;
 import com.prico.dto.crud.ProductResponseDto;
+import com.prico.dto.PriceRange;
+import com.prico.dto.ResourceVersionDto;
 import com.prico.dto.SearchRequestDto;
+import com.prico.dto.SearchResponseDto;
+import com.prico.dto.SuggestionDto;
+import com.prico.dto.VersionedDto;
 import com.prico.model.*;
 import com.prico.exception.ResourceNotFoundException;
+import com.prico.index.ProductFacetIndex;
+import com.prico.index.ProductMatchIndex;
+import com.prico.index.ProductSearchIndex;
+import com.prico.index.ProductSuggestIndex;
 import com.prico.repository.BrandRepository;
 import com.prico.repository.CategoryRepository;
 import com.prico.repository.ProductRepository;
-import com.prico.repository.ProductStoreRepository;
+import com.prico.repository.projection.ProductVersion;
 import com.prico.service.ProductService;
+import com.prico.util.ETags;
 import com.prico.util.ObjectMapper;
+import com.prico.util.Pagination;
+import com.prico.util.Transactions;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class ProductServiceImpl implements ProductService {
 
+    private static final int MIN_SUGGEST_LENGTH = 2;
+
+    private static final int MAX_SUGGESTIONS = 20;
+
     @Autowired
     private ProductRepository repository;
 
@@ -35,9 +67,25 @@ public class ProductServiceImpl implements ProductService {
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ProductStoreRepository productStoreRepository;
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ProductSuggestIndex suggestIndex;
+
+    @Autowired
+    private ProductMatchIndex matchIndex;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ResponseCache responseCache;
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductResponseDto> getAll() {
         return repository
             .findAll()
@@ -47,20 +95,76 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    public List<ProductResponseDto> search(SearchRequestDto searchRequest) {
+    @Transactional(readOnly = true)
+    public List<ProductResponseDto> getAll(Long after, int limit) {
+        return repository
+            .findByIdGreaterThan(Pagination.after(after), Pagination.keyset(limit))
+            .stream()
+            .map(x -> ObjectMapper.toDto(x))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductResponseDto> getPage(int page, int limit) {
         return repository
-                .search(
-                        searchRequest.getName().toLowerCase(),
-                        searchRequest.getCategory().toLowerCase(),
-                        searchRequest.getBrand().toLowerCase())
+            .findAll(Pagination.offset(page, limit))
+            .map(x -> ObjectMapper.toDto(x));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SearchResponseDto search(SearchRequestDto searchRequest) {
+        if (!searchIndex.isReady() || !facetIndex.isReady()) {
+            // Still loading: plain database search, filtered on what the product itself carries
+            List<ProductResponseDto> products = repository
+                    .search(
+                            toLowerCase(searchRequest.getName()),
+                            toLowerCase(searchRequest.getCategory()),
+                            toLowerCase(searchRequest.getBrand()))
+                    .stream()
+                    .filter(x -> matchesFilters(x, searchRequest))
+                    .map(x -> ObjectMapper.toDto(x))
+                    .collect(Collectors.toList());
+
+            return SearchResponseDto.builder().products(products).build();
+        }
+
+        List<Long> ids = searchIndex.search(
+                searchRequest.getName(),
+                searchRequest.getBrand(),
+                searchRequest.getCategory());
+
+        ProductFacetIndex.Result result = facetIndex.search(ids, searchRequest);
+
+        List<ProductResponseDto> products = findAllInOrder(ids
+                .stream()
+                .filter(result::contains)
+                .collect(Collectors.toList()))
                 .stream()
                 .map(x -> ObjectMapper.toDto(x))
                 .collect(Collectors.toList());
+
+        return SearchResponseDto
+                .builder()
+                .products(products)
+                .facets(result.getFacets())
+                .build();
     }
 
     @Override
+    public List<SuggestionDto> suggest(String query, int limit) {
+        if (query == null || query.trim().length() < MIN_SUGGEST_LENGTH || !suggestIndex.isReady()) {
+            return Collections.emptyList();
+        }
+
+        return suggestIndex.suggest(query, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public ProductResponseDto getById(Long id) {
-        Optional<Product> optionalProduct = repository.findById(id);
+        Optional<Product> optionalProduct = repository.findWithBrandAndCategoryById(id);
 
         if (optionalProduct.isPresent()) {
             return ObjectMapper.toDto(optionalProduct.get());
@@ -70,6 +174,31 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public ResourceVersionDto getVersion(Long id) {
+        ProductVersion version = findVersion(id);
+
+        return ResourceVersionDto
+                .builder()
+                .etag(ETags.of(version.getVersion(), version.getOffersVersion(), version.getBrandVersion(), version.getCategoryVersion()))
+                .lastModified(ETags.latest(version.getUpdatedAt(), version.getBrandUpdatedAt(), version.getCategoryUpdatedAt()))
+                .build();
+    }
+
+    /**
+     * One transaction runs on one database, so a lagging replica cannot tag an old body with a newer ETag.
+     * The version is read first: a write landing in between tags a newer body with an older ETag, which
+     * only renders it again.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public VersionedDto<ProductResponseDto> getVersionedById(Long id) {
+        String etag = getVersion(id).getEtag();
+        return new VersionedDto<>(etag, getById(id));
+    }
+
+    @Override
+    @Transactional
     public Product create(ProductRequestDto productRequest) {
         Product product = new Product();
         product.setName(productRequest.getName());
@@ -96,10 +225,14 @@ public class ProductServiceImpl implements ProductService {
             product.setCategory(category.get());
         }
 
-        return repository.save(product);
+        Product savedProduct = repository.save(product);
+        indexAfterCommit(savedProduct);
+
+        return savedProduct;
     }
 
     @Override
+    @Transactional
     public Product update(Long id, ProductRequestDto productRequest) {
         Product existingProduct = repository.findById(id).orElse(null);
 
@@ -137,13 +270,22 @@ public class ProductServiceImpl implements ProductService {
             existingProduct.setCategory(null);
         }
 
-        return repository.save(existingProduct);
+        Product savedProduct = repository.save(existingProduct);
+        indexAfterCommit(savedProduct);
+        evictAfterCommit(id);
+
+        return savedProduct;
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
         if (repository.existsById(id)) {
             repository.deleteById(id);
+            // Rows still referencing it fail the delete here rather than at commit
+            repository.flush();
+            removeAfterCommit(id);
+            evictAfterCommit(id);
             return;
         }
 
@@ -151,36 +293,156 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.VARIATIONS_CACHE, key = "#productId")
     public ProductVariationResponseDto getVariationsByProduct(Long productId) {
-        Product product = repository.findById(productId).orElse(null);
+        List<ProductVariationRow> rows = repository.findVariationRows(productId);
 
-        if (product == null) {
+        if (rows.isEmpty()) {
             throw new ResourceNotFoundException("Product not found with id: " + productId);
         }
 
-        ProductVariationResponseDto response = ProductVariationResponseDto
+        return ObjectMapper.toDto(rows);
+    }
+
+    /**
+     * Offer writes bump the product's offers version, so the variations are checked without reading them.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersionDto getVariationsVersion(Long productId) {
+        ProductVersion version = findVersion(productId);
+
+        return ResourceVersionDto
                 .builder()
-                 .productId(product.getId())
-                .productName(product.getName())
-                .productImageUrl(product.getImageUrl())
+                .etag(ETags.of(version.getVersion(), version.getOffersVersion()))
+                .lastModified(version.getUpdatedAt())
                 .build();
+    }
 
-        List<ProductStore> productStores = productStoreRepository.findAllByProduct(product);
+    // Called on this instance, so the variations are read here rather than from the variations cache
+    @Override
+    @Transactional(readOnly = true)
+    public VersionedDto<ProductVariationResponseDto> getVersionedVariations(Long productId) {
+        String etag = getVariationsVersion(productId).getEtag();
+        return new VersionedDto<>(etag, getVariationsByProduct(productId));
+    }
 
-        if (productStores.isEmpty()) {
-            return response;
+    private ProductVersion findVersion(Long id) {
+        return repository
+                .findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+    }
+
+    // Offers are not loaded here, so a store filter only applies once the facet index is ready
+    private static boolean matchesFilters(Product product, SearchRequestDto filters) {
+        return matches(filters.getBrandIds(), product.getBrand() != null ? product.getBrand().getId() : null)
+                && matches(filters.getCategoryIds(), product.getCategory() != null ? product.getCategory().getId() : null)
+                && matches(filters.getPrices(), product.getLowestPrice() != null ? PriceRange.of(product.getLowestPrice()) : null);
+    }
+
+    private static <T> boolean matches(List<T> values, T value) {
+        return values == null || values.isEmpty() || values.contains(value);
+    }
+
+    private static String toLowerCase(String value) {
+        return value != null ? value.toLowerCase() : null;
+    }
+
+    private List<Product> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
         }
 
-        List<StoreDto> stores = productStores
+        Map<Long, Product> products = repository
+                .findAllById(ids)
                 .stream()
-                .collect(Collectors.groupingBy(ProductStore::getStore))
-                .entrySet()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return ids
                 .stream()
-                .map(x -> ObjectMapper.toDto(x))
+                .map(products::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+    }
+
+    /**
+     * Serves what it can from the variations cache and loads the rest with a single IN query. Unknown ids
+     * are left out of the result, which keeps the order of the requested ids.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, ProductVariationResponseDto> getVariationsByProducts(List<Long> productIds) {
+        Cache cache = cacheManager.getCache(CacheConfig.VARIATIONS_CACHE);
+        Set<Long> ids = new LinkedHashSet<>(productIds);
+        Map<Long, ProductVariationResponseDto> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+
+        for (Long productId : ids) {
+            ProductVariationResponseDto variations = cache != null ? cache.get(productId, ProductVariationResponseDto.class) : null;
+
+            if (variations != null) {
+                found.put(productId, variations);
+            } else {
+                misses.add(productId);
+            }
+        }
 
-        response.setStores(stores);
+        if (!misses.isEmpty()) {
+            repository
+                .findVariationRowsByProductIds(misses)
+                .stream()
+                .collect(Collectors.groupingBy(ProductVariationRow::getProductId))
+                .forEach((productId, rows) -> {
+                    ProductVariationResponseDto variations = ObjectMapper.toDto(rows);
+                    found.put(productId, variations);
+
+                    if (cache != null) {
+                        cache.put(productId, variations);
+                    }
+                });
+        }
+
+        Map<Long, ProductVariationResponseDto> result = new LinkedHashMap<>();
+
+        for (Long productId : ids) {
+            if (found.containsKey(productId)) {
+                result.put(productId, found.get(productId));
+            }
+        }
+
+        return result;
+    }
+
+    // Evicted before the commit, a concurrent read would cache the old product again
+    // A failed commit, such as an optimistic lock failure, must leave the in-memory indexes as they were
+    private void indexAfterCommit(Product product) {
+        Transactions.afterCommit(() -> {
+            searchIndex.index(product);
+            facetIndex.index(product);
+            suggestIndex.index(product);
+            matchIndex.index(product);
+        });
+    }
+
+    private void removeAfterCommit(Long productId) {
+        Transactions.afterCommit(() -> {
+            searchIndex.remove(productId);
+            facetIndex.remove(productId);
+            suggestIndex.remove(productId);
+            matchIndex.remove(productId);
+        });
+    }
+
+    private void evictAfterCommit(Long productId) {
+        Transactions.afterCommit(() -> {
+            Cache cache = cacheManager.getCache(CacheConfig.VARIATIONS_CACHE);
+
+            if (cache != null) {
+                cache.evict(productId);
+            }
 
-        return response;
+            responseCache.evict(productId);
+        });
     }
 }
@@ -1,30 +1,62 @@
 package com.prico.service.impl;
 
+import com.prico.cache.ResponseCache;
+import com.prico.config.CacheConfig;
+import com.prico.dto.PriceChangeDto;
 import com.prico.dto.SearchRequestDto;
 import com.prico.dto.comparison.ProductVariationResponseDto;
 import com.prico.dto.comparison.StoreDto;
+import com.prico.dto.crud.BulkProductStoreResultDto;
 import com.prico.dto.crud.ProductRequestDto;
 import com.prico.dto.crud.ProductResponseDto;
 import com.prico.dto.crud.ProductStoreRequestDto;
 import com.prico.dto.crud.ProductStoreResponseDto;
+import com.prico.dto.match.OfferMatchResponseDto;
+import com.prico.dto.match.ProductCandidateDto;
+import com.prico.exception.BadRequestException;
 import com.prico.exception.ResourceNotFoundException;
+import com.prico.feed.PriceFeed;
+import com.prico.index.ProductFacetIndex;
+import com.prico.index.ProductMatchIndex;
+import com.prico.ingest.OfferDigests;
 import com.prico.model.*;
 import com.prico.repository.*;
+import com.prico.repository.projection.OfferKey;
 import com.prico.service.ProductService;
+import com.prico.service.PriceAlertService;
 import com.prico.service.ProductStoreService;
 import com.prico.util.ObjectMapper;
+import com.prico.util.Pagination;
+import com.prico.util.Transactions;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class ProductStoreServiceImpl implements ProductStoreService {
 
+    private static final int EXPORT_CLEAR_INTERVAL = 1000;
+
+    private static final int MAX_CANDIDATES = 50;
+
     @Autowired
     private ProductStoreRepository repository;
 
@@ -34,7 +66,47 @@ public class ProductStoreServiceImpl implements ProductStoreService {
     @Autowired
     private StoreRepository storeRepository;
 
+    @Autowired
+    private ProductStoreJdbcRepository jdbcRepository;
+
+    @Autowired
+    private PriceObservationRepository priceObservationRepository;
+
+    @Autowired
+    private OfferSummaryJdbcRepository offerSummaryRepository;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private PriceAlertService priceAlertService;
+
+    @Autowired
+    private PriceFeed priceFeed;
+
+    @Autowired
+    private OfferDigests digests;
+
+    @Autowired
+    private ProductMatchIndex matchIndex;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${prico.matching.auto-link-threshold:0.8}")
+    private float autoLinkThreshold;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
+    @Transactional(readOnly = true)
     public List<ProductStoreResponseDto> getAll() {
         return repository
             .findAll()
@@ -44,8 +116,49 @@ public class ProductStoreServiceImpl implements ProductStoreService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<ProductStoreResponseDto> getAll(Long after, int limit) {
+        return repository
+            .findByIdGreaterThan(Pagination.after(after), Pagination.keyset(limit))
+            .stream()
+            .map(x -> ObjectMapper.toDto(x))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductStoreResponseDto> getPage(int page, int limit) {
+        return repository
+            .findAll(Pagination.offset(page, limit))
+            .map(x -> ObjectMapper.toDto(x));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<ProductStoreResponseDto> consumer) {
+        try (Stream<ProductStore> offers = repository.streamAll()) {
+            int count = 0;
+
+            for (Iterator<ProductStore> iterator = offers.iterator(); iterator.hasNext(); ) {
+                ProductStore offer = iterator.next();
+                consumer.accept(ObjectMapper.toDto(offer));
+
+                // products and stores repeat across offers, so they are released in chunks
+                if (++count % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                } else {
+                    entityManager.detach(offer);
+                }
+            }
+
+            log.info("Exported {} offers", count);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public ProductStoreResponseDto getById(Long id) {
-        Optional<ProductStore> optionalProduct = repository.findById(id);
+        Optional<ProductStore> optionalProduct = repository.findWithProductAndStoreById(id);
 
         if (optionalProduct.isPresent()) {
             return ObjectMapper.toDto(optionalProduct.get());
@@ -55,6 +168,7 @@ public class ProductStoreServiceImpl implements ProductStoreService {
     }
 
     @Override
+    @Transactional
     public ProductStore create(ProductStoreRequestDto productStoreRequest) {
         ProductStore productStore = ObjectMapper.toEntity(productStoreRequest);
 
@@ -74,10 +188,23 @@ public class ProductStoreServiceImpl implements ProductStoreService {
 
         productStore.setStore(store.get());
 
-        return repository.save(productStore);
+        ProductStore savedProductStore = repository.save(productStore);
+        Instant observedAt = Instant.now();
+        priceObservationRepository.save(observation(savedProductStore.getId(), productStoreRequest, observedAt));
+        refreshSummaries(Collections.singleton(savedProductStore.getProduct().getId()));
+        evictAfterCommit(savedProductStore.getProduct().getId());
+
+        List<PriceChangeDto> priceChanges = new ArrayList<>();
+        addPriceChange(priceChanges, savedProductStore.getId(), productStoreRequest.getProductId(),
+                productStoreRequest.getStoreId(), savedProductStore.getPrice(), null, observedAt);
+        publishAfterCommit(priceChanges);
+        putDigestsAfterCommit(Collections.singletonMap(savedProductStore.getId(), productStoreRequest));
+
+        return savedProductStore;
     }
 
     @Override
+    @Transactional
     public ProductStore update(Long id, ProductStoreRequestDto productStoreRequest) {
         ProductStore existingProductStore = repository.findById(id).orElse(null);
 
@@ -85,6 +212,14 @@ public class ProductStoreServiceImpl implements ProductStoreService {
             throw new ResourceNotFoundException("Product not found with id: " + id);
         }
 
+        Long previousProductId = existingProductStore.getProduct() != null
+                ? existingProductStore.getProduct().getId()
+                : null;
+        Long previousStoreId = existingProductStore.getStore() != null
+                ? existingProductStore.getStore().getId()
+                : null;
+        Float previousPrice = existingProductStore.getPrice();
+
         existingProductStore.setName(productStoreRequest.getName());
         existingProductStore.setUrl(productStoreRequest.getUrl());
         existingProductStore.setImageUrl(productStoreRequest.getImageUrl());
@@ -106,17 +241,458 @@ public class ProductStoreServiceImpl implements ProductStoreService {
 
         existingProductStore.setStore(store.get());
 
-        return repository.save(existingProductStore);
+        ProductStore savedProductStore = repository.save(existingProductStore);
+        Instant observedAt = Instant.now();
+
+        if (!Objects.equals(previousPrice, savedProductStore.getPrice())) {
+            priceObservationRepository.save(observation(savedProductStore.getId(), productStoreRequest, observedAt));
+        }
+
+        refreshSummaries(Arrays.asList(previousProductId, savedProductStore.getProduct().getId()));
+        evictAfterCommit(previousProductId);
+        evictAfterCommit(savedProductStore.getProduct().getId());
+
+        List<PriceChangeDto> priceChanges = new ArrayList<>();
+
+        if (!Objects.equals(previousProductId, productStoreRequest.getProductId())
+                || !Objects.equals(previousStoreId, productStoreRequest.getStoreId())) {
+            addPriceChange(priceChanges, id, previousProductId, previousStoreId, null, previousPrice, observedAt);
+            addPriceChange(priceChanges, id, productStoreRequest.getProductId(), productStoreRequest.getStoreId(),
+                    savedProductStore.getPrice(), null, observedAt);
+        } else if (!Objects.equals(previousPrice, savedProductStore.getPrice())) {
+            addPriceChange(priceChanges, id, productStoreRequest.getProductId(), productStoreRequest.getStoreId(),
+                    savedProductStore.getPrice(), previousPrice, observedAt);
+        }
+
+        publishAfterCommit(priceChanges);
+        putDigestsAfterCommit(Collections.singletonMap(id, productStoreRequest));
+
+        return savedProductStore;
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
-        if (repository.existsById(id)) {
-            repository.deleteById(id);
-            return;
+        ProductStore existingProductStore = repository.findById(id).orElse(null);
+
+        if (existingProductStore == null) {
+            throw new ResourceNotFoundException("Product Store not found with id: " + id);
+        }
+
+        repository.delete(existingProductStore);
+        digests.invalidate(id);
+
+        if (existingProductStore.getProduct() != null) {
+            refreshSummaries(Collections.singleton(existingProductStore.getProduct().getId()));
+            evictAfterCommit(existingProductStore.getProduct().getId());
         }
 
-        throw new ResourceNotFoundException("Product Store not found with id: " + id);
+        List<PriceChangeDto> priceChanges = new ArrayList<>();
+        addPriceChange(priceChanges, id,
+                existingProductStore.getProduct() != null ? existingProductStore.getProduct().getId() : null,
+                existingProductStore.getStore() != null ? existingProductStore.getStore().getId() : null,
+                null, existingProductStore.getPrice(), Instant.now());
+        publishAfterCommit(priceChanges);
+    }
+
+    @Override
+    @Transactional
+    public List<BulkProductStoreResultDto> bulkUpsert(List<ProductStoreRequestDto> offers) {
+        BulkProductStoreResultDto[] results = new BulkProductStoreResultDto[offers.size()];
+        Set<Integer> linkedRows = linkProducts(offers);
+
+        Set<Long> productIds = offers.stream().map(ProductStoreRequestDto::getProductId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> storeIds = offers.stream().map(ProductStoreRequestDto::getStoreId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> existingProductIds = productIds.isEmpty() ? Collections.emptySet() : productRepository.findExistingIds(productIds);
+        Set<Long> existingStoreIds = storeIds.isEmpty() ? Collections.emptySet() : storeRepository.findExistingIds(storeIds);
+
+        // Later rows for the same store and url win
+        Map<String, Integer> latestRows = new LinkedHashMap<>();
+
+        for (int i = 0; i < offers.size(); i++) {
+            String error = validate(offers.get(i), existingProductIds, existingStoreIds);
+
+            if (error != null) {
+                results[i] = rejected(i, error);
+                continue;
+            }
+
+            Integer superseded = latestRows.put(offerKey(offers.get(i).getStoreId(), offers.get(i).getUrl()), i);
+
+            if (superseded != null) {
+                results[superseded] = rejected(superseded, "Superseded by row " + i + " for the same store and url");
+            }
+        }
+
+        Map<String, OfferKey> existingOffers = findOfferKeys(latestRows
+                .values()
+                .stream()
+                .map(offers::get)
+                .collect(Collectors.toList()));
+
+        List<Integer> insertRows = new ArrayList<>();
+        OfferWrites writes = new OfferWrites();
+
+        latestRows.forEach((key, index) -> {
+            ProductStoreRequestDto offer = offers.get(index);
+            OfferKey existing = existingOffers.get(key);
+
+            if (existing == null) {
+                insertRows.add(index);
+            } else {
+                results[index] = writes.update(index, existing, offer);
+            }
+        });
+
+        if (!insertRows.isEmpty()) {
+            List<Long> ids = jdbcRepository.insertAll(insertRows.stream().map(offers::get).collect(Collectors.toList()));
+
+            for (int i = 0; i < insertRows.size(); i++) {
+                results[insertRows.get(i)] = BulkProductStoreResultDto
+                        .builder()
+                        .index(insertRows.get(i))
+                        .id(i < ids.size() ? ids.get(i) : null)
+                        .status(BulkProductStoreResultDto.Status.CREATED)
+                        .build();
+
+                if (i < ids.size()) {
+                    writes.inserted(ids.get(i), offers.get(insertRows.get(i)));
+                }
+            }
+        }
+
+        writes.apply();
+
+        for (Integer row : linkedRows) {
+            if (results[row].getStatus() != BulkProductStoreResultDto.Status.REJECTED) {
+                results[row].setMessage("Linked to product " + offers.get(row).getProductId());
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    @Override
+    @Transactional
+    public List<BulkProductStoreResultDto> updateAll(Map<Long, ProductStoreRequestDto> offers) {
+        List<BulkProductStoreResultDto> results = new ArrayList<>(offers.size());
+
+        Set<Long> productIds = offers.values().stream().map(ProductStoreRequestDto::getProductId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> storeIds = offers.values().stream().map(ProductStoreRequestDto::getStoreId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> existingProductIds = productIds.isEmpty() ? Collections.emptySet() : productRepository.findExistingIds(productIds);
+        Set<Long> existingStoreIds = storeIds.isEmpty() ? Collections.emptySet() : storeRepository.findExistingIds(storeIds);
+        Map<Long, OfferKey> existingOffers = findOfferKeysByIds(offers.keySet());
+
+        OfferWrites writes = new OfferWrites();
+        int index = 0;
+
+        for (Map.Entry<Long, ProductStoreRequestDto> entry : offers.entrySet()) {
+            OfferKey existing = existingOffers.get(entry.getKey());
+            String error = existing != null
+                    ? validate(entry.getValue(), existingProductIds, existingStoreIds)
+                    : "Product Store not found with id: " + entry.getKey();
+
+            if (error != null) {
+                BulkProductStoreResultDto rejected = rejected(index, error);
+                rejected.setId(entry.getKey());
+                results.add(rejected);
+            } else {
+                results.add(writes.update(index, existing, entry.getValue()));
+            }
+
+            index++;
+        }
+
+        writes.apply();
+
+        return results;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void checkUpdate(Long id, ProductStoreRequestDto offer) {
+        if (!repository.existsById(id)) {
+            throw new ResourceNotFoundException("Product Store not found with id: " + id);
+        }
+
+        if (!productRepository.existsById(offer.getProductId())) {
+            throw new ResourceNotFoundException("Product not found with id: " + offer.getProductId());
+        }
+
+        if (!storeRepository.existsById(offer.getStoreId())) {
+            throw new ResourceNotFoundException("Store not found with id: " + offer.getStoreId());
+        }
+    }
+
+    @Override
+    public OfferMatchResponseDto matchProduct(ProductStoreRequestDto offer, int limit) {
+        if (offer.getName() == null || offer.getName().trim().isEmpty()) {
+            throw new BadRequestException("Name should not be NULL or EMPTY");
+        }
+
+        int count = Math.max(1, Math.min(limit, MAX_CANDIDATES));
+        // Two candidates at least, to tell whether the best one is ambiguous
+        List<ProductMatchIndex.Candidate> candidates = matchIndex.candidates(offer.getName(), Math.max(count, 2));
+
+        return OfferMatchResponseDto
+                .builder()
+                .productId(ProductMatchIndex.best(candidates, autoLinkThreshold))
+                .candidates(candidates
+                        .stream()
+                        .limit(count)
+                        .map(x -> new ProductCandidateDto(x.getProductId(), x.getScore()))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSummaries() {
+        int products = offerSummaryRepository.refreshMissing();
+
+        if (products > 0) {
+            log.info("Computed offer summaries for {} products", products);
+        }
+    }
+
+    private void refreshSummaries(Collection<Long> productIds) {
+        // Pending offer changes have to reach the database before the summary is recomputed from it
+        repository.flush();
+        offerSummaryRepository.refresh(productIds);
+        facetIndex.reindex(productIds);
+        priceAlertService.onOffersChanged(productIds);
+    }
+
+    /**
+     * Fills in the product of offers that come without one from the match index.
+     *
+     * @return the rows that were linked
+     */
+    private Set<Integer> linkProducts(List<ProductStoreRequestDto> offers) {
+        Set<Integer> linked = new HashSet<>();
+
+        for (int i = 0; i < offers.size(); i++) {
+            ProductStoreRequestDto offer = offers.get(i);
+
+            if (offer == null || offer.getProductId() != null || offer.getName() == null) {
+                continue;
+            }
+
+            Long productId = matchIndex.resolve(offer.getName(), autoLinkThreshold);
+
+            if (productId != null) {
+                offer.setProductId(productId);
+                linked.add(i);
+            }
+        }
+
+        return linked;
+    }
+
+    private Map<String, OfferKey> findOfferKeys(List<ProductStoreRequestDto> offers) {
+        Map<String, OfferKey> keys = new HashMap<>();
+
+        for (int from = 0; from < offers.size(); from += ProductStoreJdbcRepository.BATCH_SIZE) {
+            List<ProductStoreRequestDto> chunk = offers.subList(from, Math.min(from + ProductStoreJdbcRepository.BATCH_SIZE, offers.size()));
+            Set<Long> storeIds = chunk.stream().map(ProductStoreRequestDto::getStoreId).collect(Collectors.toSet());
+            Set<String> urls = chunk.stream().map(ProductStoreRequestDto::getUrl).collect(Collectors.toSet());
+
+            for (OfferKey key : repository.findOfferKeys(storeIds, urls)) {
+                keys.put(offerKey(key.getStoreId(), key.getUrl()), key);
+            }
+        }
+
+        return keys;
+    }
+
+    private Map<Long, OfferKey> findOfferKeysByIds(Collection<Long> ids) {
+        Map<Long, OfferKey> keys = new HashMap<>();
+        List<Long> idList = new ArrayList<>(ids);
+
+        for (int from = 0; from < idList.size(); from += ProductStoreJdbcRepository.BATCH_SIZE) {
+            List<Long> chunk = idList.subList(from, Math.min(from + ProductStoreJdbcRepository.BATCH_SIZE, idList.size()));
+
+            for (OfferKey key : repository.findOfferKeysByIds(chunk)) {
+                keys.put(key.getId(), key);
+            }
+        }
+
+        return keys;
+    }
+
+    // Runs after linkProducts, so only rows the match index could not link fail for a missing product
+    private String validate(ProductStoreRequestDto offer, Set<Long> productIds, Set<Long> storeIds) {
+        if (offer == null) {
+            return "Offer should not be NULL";
+        }
+
+        Set<ConstraintViolation<ProductStoreRequestDto>> violations = validator.validate(offer);
+
+        if (!violations.isEmpty()) {
+            return violations
+                    .stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        if (!productIds.contains(offer.getProductId())) {
+            return "Product not found with id: " + offer.getProductId();
+        }
+
+        if (!storeIds.contains(offer.getStoreId())) {
+            return "Store not found with id: " + offer.getStoreId();
+        }
+
+        return null;
+    }
+
+    private static String offerKey(Long storeId, String url) {
+        return storeId + " " + url;
+    }
+
+    private static PriceObservation observation(Long productStoreId, ProductStoreRequestDto offer, Instant observedAt) {
+        return PriceObservation
+                .builder()
+                .productStoreId(productStoreId)
+                .productId(offer.getProductId())
+                .storeId(offer.getStoreId())
+                .price(offer.getPrice())
+                .observedAt(observedAt)
+                .build();
+    }
+
+    private static BulkProductStoreResultDto rejected(int index, String message) {
+        return BulkProductStoreResultDto
+                .builder()
+                .index(index)
+                .status(BulkProductStoreResultDto.Status.REJECTED)
+                .message(message)
+                .build();
+    }
+
+    private void addPriceChange(List<PriceChangeDto> priceChanges, Long offerId, Long productId, Long storeId,
+                                Float price, Float previousPrice, Instant changedAt) {
+        if (priceFeed.isWatched(productId, storeId)) {
+            priceChanges.add(PriceChangeDto
+                    .builder()
+                    .offerId(offerId)
+                    .productId(productId)
+                    .storeId(storeId)
+                    .price(price)
+                    .previousPrice(previousPrice)
+                    .changedAt(changedAt)
+                    .build());
+        }
+    }
+
+    private void publishAfterCommit(List<PriceChangeDto> priceChanges) {
+        if (!priceChanges.isEmpty()) {
+            Transactions.afterCommit(() -> priceFeed.publish(priceChanges));
+        }
+    }
+
+    // Digests of a write that is rolled back would hide the next attempt to make it
+    private void putDigestsAfterCommit(Map<Long, ProductStoreRequestDto> offers) {
+        if (!offers.isEmpty()) {
+            Transactions.afterCommit(() -> offers.forEach(digests::put));
+        }
+    }
+
+    /**
+     * Offer rows written with JDBC batches, collecting the price observations, summaries, caches and feed
+     * events they affect until {@link #apply()}.
+     */
+    private final class OfferWrites {
+
+        private final Instant observedAt = Instant.now();
+
+        private final Map<Long, ProductStoreRequestDto> updates = new LinkedHashMap<>();
+
+        private final Map<Long, ProductStoreRequestDto> written = new HashMap<>();
+
+        private final Set<Long> affectedProductIds = new HashSet<>();
+
+        private final List<PriceObservation> observations = new ArrayList<>();
+
+        private final List<PriceChangeDto> priceChanges = new ArrayList<>();
+
+        BulkProductStoreResultDto update(int index, OfferKey existing, ProductStoreRequestDto offer) {
+            BulkProductStoreResultDto result = BulkProductStoreResultDto
+                    .builder()
+                    .index(index)
+                    .id(existing.getId())
+                    .status(BulkProductStoreResultDto.Status.UPDATED)
+                    .build();
+
+            if (digests.isUnchanged(existing.getId(), offer)) {
+                result.setStatus(BulkProductStoreResultDto.Status.UNCHANGED);
+                return result;
+            }
+
+            updates.put(existing.getId(), offer);
+            written.put(existing.getId(), offer);
+            affectedProductIds.add(existing.getProductId());
+            affectedProductIds.add(offer.getProductId());
+
+            if (!Objects.equals(existing.getPrice(), offer.getPrice())) {
+                observations.add(observation(existing.getId(), offer, observedAt));
+            }
+
+            // A move leaves the watchers of the previous product or store as well
+            if (!Objects.equals(existing.getProductId(), offer.getProductId())
+                    || !Objects.equals(existing.getStoreId(), offer.getStoreId())) {
+                addPriceChange(priceChanges, existing.getId(), existing.getProductId(), existing.getStoreId(), null, existing.getPrice(), observedAt);
+                addPriceChange(priceChanges, existing.getId(), offer.getProductId(), offer.getStoreId(), offer.getPrice(), null, observedAt);
+            } else if (!Objects.equals(existing.getPrice(), offer.getPrice())) {
+                addPriceChange(priceChanges, existing.getId(), offer.getProductId(), offer.getStoreId(), offer.getPrice(), existing.getPrice(), observedAt);
+            }
+
+            return result;
+        }
+
+        void inserted(Long id, ProductStoreRequestDto offer) {
+            written.put(id, offer);
+            affectedProductIds.add(offer.getProductId());
+            observations.add(observation(id, offer, observedAt));
+            addPriceChange(priceChanges, id, offer.getProductId(), offer.getStoreId(), offer.getPrice(), null, observedAt);
+        }
+
+        void apply() {
+            if (!updates.isEmpty()) {
+                jdbcRepository.updateAll(updates);
+            }
+
+            if (!observations.isEmpty()) {
+                jdbcRepository.insertObservations(observations);
+            }
+
+            if (affectedProductIds.isEmpty()) {
+                return;
+            }
+
+            offerSummaryRepository.refresh(affectedProductIds);
+            facetIndex.reindex(affectedProductIds);
+            priceAlertService.onOffersChanged(affectedProductIds);
+            affectedProductIds.forEach(ProductStoreServiceImpl.this::evictAfterCommit);
+            publishAfterCommit(priceChanges);
+            putDigestsAfterCommit(written);
+        }
+    }
+
+    // Evicted before the commit, a concurrent read would cache the old offers again
+    private void evictAfterCommit(Long productId) {
+        if (productId == null) {
+            return;
+        }
+
+        Transactions.afterCommit(() -> {
+            Cache cache = cacheManager.getCache(CacheConfig.VARIATIONS_CACHE);
+
+            if (cache != null) {
+                cache.evict(productId);
+            }
+
+            responseCache.evict(productId);
+        });
+    }
 }
@@ -1,15 +1,23 @@
 package com.prico.service.impl;
 
+import com.prico.config.CacheConfig;
 import com.prico.dto.crud.StoreRequestDto;
 import com.prico.dto.crud.StoreResponseDto;
 import com.prico.model.Store;
 import com.prico.exception.ResourceNotFoundException;
+import com.prico.repository.OfferSummaryJdbcRepository;
 import com.prico.repository.StoreRepository;
 import com.prico.service.StoreService;
 import com.prico.util.ObjectMapper;
+import com.prico.util.Pagination;
+import com.prico.util.Transactions;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,7 +30,14 @@ public class StoreServiceImpl implements StoreService {
     @Autowired
     private StoreRepository repository;
 
+    @Autowired
+    private OfferSummaryJdbcRepository offerSummaryRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Override
+    @Transactional(readOnly = true)
     public List<StoreResponseDto> getAll() {
         return repository
             .findAll()
@@ -32,6 +47,25 @@ public class StoreServiceImpl implements StoreService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<StoreResponseDto> getAll(Long after, int limit) {
+        return repository
+            .findByIdGreaterThan(Pagination.after(after), Pagination.keyset(limit))
+            .stream()
+            .map(x -> ObjectMapper.toDto(x))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<StoreResponseDto> getPage(int page, int limit) {
+        return repository
+            .findAll(Pagination.offset(page, limit))
+            .map(x -> ObjectMapper.toDto(x));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public StoreResponseDto getById(Long id) {
         Optional<Store> optionalStore = repository.findById(id);
 
@@ -43,6 +77,7 @@ public class StoreServiceImpl implements StoreService {
     }
 
     @Override
+    @Transactional
     public Store create(StoreRequestDto storeRequest) {
         Store store = new Store();
         store.setName(storeRequest.getName());
@@ -53,6 +88,7 @@ public class StoreServiceImpl implements StoreService {
     }
 
     @Override
+    @Transactional
     public Store update(Long id, StoreRequestDto storeRequest) {
         Store existingStore = repository.findById(id).orElse(null);
 
@@ -61,19 +97,36 @@ public class StoreServiceImpl implements StoreService {
             existingStore.setLocation(storeRequest.getLocation());
             existingStore.setWebsite(storeRequest.getWebsite());
 
-            return repository.save(existingStore);
+            Store savedStore = repository.save(existingStore);
+            offerSummaryRepository.renameStore(savedStore.getId(), savedStore.getName());
+            clearVariationsAfterCommit();
+
+            return savedStore;
         }
 
         throw new ResourceNotFoundException("Store not found with id: " + id);
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
         if (repository.existsById(id)) {
             repository.deleteById(id);
+            clearVariationsAfterCommit();
             return;
         }
 
         throw new ResourceNotFoundException("Store not found with id: " + id);
     }
+
+    // Every product's variations can list the store
+    private void clearVariationsAfterCommit() {
+        Transactions.afterCommit(() -> {
+            Cache cache = cacheManager.getCache(CacheConfig.VARIATIONS_CACHE);
+
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+    }
 }
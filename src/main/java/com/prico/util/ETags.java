@@ -0,0 +1,27 @@
+package com.prico.util;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Strong entity tags built from row versions, so conditional GETs are answered without rendering the body.
+ */
+public class ETags {
+
+    public static String of(Long... versions) {
+        return Arrays
+                .stream(versions)
+                .map(x -> x != null ? String.valueOf(x) : "0")
+                .collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    public static Instant latest(Instant... timestamps) {
+        return Arrays
+                .stream(timestamps)
+                .filter(Objects::nonNull)
+                .max(Instant::compareTo)
+                .orElse(null);
+    }
+}
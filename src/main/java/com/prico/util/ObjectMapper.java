@@ -1,11 +1,16 @@
 package com.prico.util;
 
+import com.prico.dto.alert.PriceAlertResponseDto;
 import com.prico.dto.comparison.ProductStoreDto;
+import com.prico.dto.comparison.ProductVariationResponseDto;
+import com.prico.dto.comparison.ProductVariationRow;
 import com.prico.dto.comparison.StoreDto;
 import com.prico.dto.crud.ProductStoreResponseDto;
 import com.prico.dto.crud.*;
 import com.prico.model.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collector;
@@ -34,6 +39,11 @@ public class ObjectMapper {
         dto.setName(product.getName());
         dto.setDescription(product.getDescription());
         dto.setImageUrl(product.getImageUrl());
+        dto.setLowestPrice(product.getLowestPrice());
+        dto.setCheapestStoreId(product.getCheapestStoreId());
+        dto.setCheapestStoreName(product.getCheapestStoreName());
+        dto.setOfferCount(product.getOfferCount() != null ? product.getOfferCount() : 0);
+        dto.setStoreCount(product.getStoreCount() != null ? product.getStoreCount() : 0);
 
         if (product.getBrand() != null) {
             dto.setBrand(toDto(product.getBrand()));
@@ -109,6 +119,17 @@ public class ObjectMapper {
                 .build();
     }
 
+    public static PriceAlertResponseDto toDto(PriceAlert entity) {
+        PriceAlertResponseDto dto = new PriceAlertResponseDto();
+        dto.setId(entity.getId());
+        dto.setProductId(entity.getProductId());
+        dto.setThreshold(entity.getThreshold());
+        dto.setSubscriber(entity.getSubscriber());
+        dto.setCreatedAt(entity.getCreatedAt());
+        dto.setTriggeredAt(entity.getTriggeredAt());
+        return dto;
+    }
+
     public static StoreDto toDto(Map.Entry<Store, List<ProductStore>> storeProductStoreEntry) {
         Store store = storeProductStoreEntry.getKey();
         List<ProductStore> variations = storeProductStoreEntry.getValue();
@@ -133,4 +154,46 @@ public class ObjectMapper {
                 .variations(variationDtos)
                 .build();
     }
+
+    public static ProductVariationResponseDto toDto(List<ProductVariationRow> rows) {
+        ProductVariationRow first = rows.get(0);
+
+        ProductVariationResponseDto response = ProductVariationResponseDto
+                .builder()
+                .productId(first.getProductId())
+                .productName(first.getProductName())
+                .productImageUrl(first.getProductImageUrl())
+                .build();
+
+        Map<Long, StoreDto> stores = new LinkedHashMap<>();
+
+        for (ProductVariationRow row : rows) {
+            if (row.getVariationId() == null) {
+                continue;
+            }
+
+            StoreDto store = stores.computeIfAbsent(row.getStoreId(), id -> StoreDto
+                    .builder()
+                    .id(id)
+                    .name(row.getStoreName())
+                    .website(row.getStoreWebsite())
+                    .variations(new ArrayList<>())
+                    .build());
+
+            store.getVariations().add(ProductStoreDto
+                    .builder()
+                    .id(row.getVariationId())
+                    .name(row.getVariationName())
+                    .url(row.getVariationUrl())
+                    .imageUrl(row.getVariationImageUrl())
+                    .price(row.getPrice())
+                    .build());
+        }
+
+        if (!stores.isEmpty()) {
+            response.setStores(new ArrayList<>(stores.values()));
+        }
+
+        return response;
+    }
 }
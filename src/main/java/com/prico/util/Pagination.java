@@ -0,0 +1,58 @@
+package com.prico.util;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helpers for list endpoints. Keyset pages ({@code after=<id>&limit=N}) seek on the primary key,
+ * so every page costs the same; offset pages ({@code page=N&limit=N}) are kept for admin screens.
+ */
+public class Pagination {
+
+    public static final String DEFAULT_LIMIT = "50";
+
+    public static final int MAX_LIMIT = 500;
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    public static long after(Long after) {
+        return after == null ? 0L : after;
+    }
+
+    public static int limit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public static Pageable keyset(int limit) {
+        return PageRequest.of(0, limit(limit), Sort.by("id"));
+    }
+
+    public static Pageable offset(int page, int limit) {
+        return PageRequest.of(Math.max(page, 0), limit(limit), Sort.by("id"));
+    }
+
+    public static <T> ResponseEntity<List<T>> keysetResponse(List<T> items, int limit, Function<T, Long> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (!items.isEmpty() && items.size() >= limit(limit)) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(idOf.apply(items.get(items.size() - 1))));
+        }
+
+        return response.body(items);
+    }
+
+    public static <T> ResponseEntity<List<T>> pageResponse(Page<T> page) {
+        return ResponseEntity
+                .ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalElements()))
+                .body(page.getContent());
+    }
+}
@@ -0,0 +1,25 @@
+package com.prico.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class Transactions {
+
+    /**
+     * Runs the action once the current transaction commits, or straight away outside of one. Caches
+     * evicted any earlier can be filled again with what a concurrent read saw before the commit.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,7 @@
+-- Cheapest offer and offer counts of each product, kept up to date with its offers. Rows that predate
+-- these columns are filled in on startup.
+ALTER TABLE product ADD COLUMN lowest_price FLOAT;
+ALTER TABLE product ADD COLUMN cheapest_store_id BIGINT;
+ALTER TABLE product ADD COLUMN cheapest_store_name VARCHAR(255);
+ALTER TABLE product ADD COLUMN offer_count INTEGER;
+ALTER TABLE product ADD COLUMN store_count INTEGER;
@@ -0,0 +1,13 @@
+-- Price of every offer each time it changed, read by the price history endpoints.
+CREATE TABLE price_observation (
+    id               BIGINT      NOT NULL AUTO_INCREMENT,
+    product_store_id BIGINT      NOT NULL,
+    product_id       BIGINT      NOT NULL,
+    store_id         BIGINT      NOT NULL,
+    price            FLOAT       NOT NULL,
+    observed_at      DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_price_observation_product ON price_observation (product_id, observed_at, store_id, price);
+CREATE INDEX idx_price_observation_offer ON price_observation (product_store_id, observed_at);
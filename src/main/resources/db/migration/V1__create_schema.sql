@@ -0,0 +1,48 @@
+-- Schema as previously generated by Hibernate (ddl-auto: update). Existing databases are baselined at this version.
+
+CREATE TABLE brand (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(255),
+    description VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE category (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(255),
+    description VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE store (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    name     VARCHAR(255),
+    location VARCHAR(255),
+    website  VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE product (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(255),
+    description VARCHAR(255),
+    image_url   VARCHAR(255),
+    category_id BIGINT,
+    brand_id    BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_product_category FOREIGN KEY (category_id) REFERENCES category (id),
+    CONSTRAINT fk_product_brand FOREIGN KEY (brand_id) REFERENCES brand (id)
+);
+
+CREATE TABLE product_store (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(255),
+    url        VARCHAR(255),
+    image_url  VARCHAR(255),
+    price      FLOAT,
+    product_id BIGINT,
+    store_id   BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_product_store_product FOREIGN KEY (product_id) REFERENCES product (id),
+    CONSTRAINT fk_product_store_store FOREIGN KEY (store_id) REFERENCES store (id)
+);
@@ -0,0 +1,6 @@
+-- Offers of a product by price: the comparison and variations queries, and the cheapest-offer summary
+-- (MIN(price), cheapest store, offer and store counts) are all answered from this index.
+CREATE INDEX idx_product_store_product_price ON product_store (product_id, price, store_id);
+
+-- Offers of a store, and bulk upserts matching offers on store and url.
+CREATE INDEX idx_product_store_store_url ON product_store (store_id, url);
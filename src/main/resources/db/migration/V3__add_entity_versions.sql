@@ -0,0 +1,18 @@
+-- Optimistic-lock versions and last update times, used for ETag and Last-Modified on conditional GETs.
+ALTER TABLE brand ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE brand ADD COLUMN updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+ALTER TABLE category ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE category ADD COLUMN updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+ALTER TABLE store ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE store ADD COLUMN updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+ALTER TABLE product ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE product ADD COLUMN updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+-- Rollup over the product's offers and their stores, bumped with the offer summary.
+ALTER TABLE product ADD COLUMN offers_version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE product_store ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE product_store ADD COLUMN updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
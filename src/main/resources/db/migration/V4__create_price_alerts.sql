@@ -0,0 +1,27 @@
+-- "Notify me when product X drops below $Y". Untriggered alerts are matched in memory by PriceAlertIndex.
+CREATE TABLE price_alert (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    product_id   BIGINT       NOT NULL,
+    threshold    FLOAT        NOT NULL,
+    subscriber   VARCHAR(255) NOT NULL,
+    created_at   DATETIME(6)  NOT NULL,
+    triggered_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_price_alert_product FOREIGN KEY (product_id) REFERENCES product (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_price_alert_product ON price_alert (product_id, triggered_at);
+
+-- Triggered alerts waiting to be delivered, written in the same transaction that marks them triggered.
+CREATE TABLE price_alert_outbox (
+    id           BIGINT      NOT NULL AUTO_INCREMENT,
+    alert_id     BIGINT      NOT NULL,
+    product_id   BIGINT      NOT NULL,
+    threshold    FLOAT       NOT NULL,
+    price        FLOAT       NOT NULL,
+    created_at   DATETIME(6) NOT NULL,
+    sent_at      DATETIME(6),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_price_alert_outbox_pending ON price_alert_outbox (sent_at, id);
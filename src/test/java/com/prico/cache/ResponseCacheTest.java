@@ -0,0 +1,141 @@
+package com.prico.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prico.dto.VersionedDto;
+import com.prico.dto.crud.ProductResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTest {
+
+    private static final String DESCRIPTION = "Made with real strawberries. ";
+
+    private MeterRegistry meterRegistry;
+
+    private ResponseCache cache;
+
+    private AtomicInteger renders;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ResponseCache(true, 1024 * 1024, new ObjectMapper(), meterRegistry);
+        renders = new AtomicInteger();
+    }
+
+    @Test
+    public void testWrite_RendersOnceAndServesBytes() throws Exception {
+        MockHttpServletResponse first = write(1L, "\"1\"", new MockHttpServletRequest());
+        MockHttpServletResponse second = write(1L, "\"1\"", new MockHttpServletRequest());
+
+        assertEquals(1, renders.get());
+        assertEquals("application/json", second.getContentType());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertTrue(second.getContentAsString().contains("\"name\":\"Yoplait Strawberry Yoghurt | 1kg\""));
+        assertNull(second.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(0.5, cache.hitRatio());
+        assertEquals(0.5, meterRegistry.get("prico.response.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    public void testWrite_GzipWhenAccepted() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8");
+
+        String json = write(1L, "\"1\"", new MockHttpServletRequest()).getContentAsString();
+        MockHttpServletResponse response = write(1L, "\"1\"", request);
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertTrue(response.getContentAsByteArray().length < json.length());
+        assertEquals(json, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    public void testWrite_GzipRefused() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+
+        assertNull(write(1L, "\"1\"", request).getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testWrite_RendersAgainWhenEtagMoves() throws Exception {
+        write(1L, "\"1\"", new MockHttpServletRequest());
+        write(1L, "\"2\"", new MockHttpServletRequest());
+        write(1L, "\"2\"", new MockHttpServletRequest());
+
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    public void testWrite_WithBodyFromLaggingDatabase_TagsItWithItsOwnEtag() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        cache.write(ResponseCache.Resource.PRODUCT, 1L, "\"2\"", product(1L, "\"1\""), new MockHttpServletRequest(), response);
+        write(1L, "\"2\"", new MockHttpServletRequest());
+
+        assertEquals("\"1\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    public void testEvict() throws Exception {
+        write(1L, "\"1\"", new MockHttpServletRequest());
+        cache.evict(1L);
+        write(1L, "\"1\"", new MockHttpServletRequest());
+
+        assertEquals(2, renders.get());
+        assertEquals(0, cache.hitRatio());
+    }
+
+    @Test
+    public void testSize_IsBoundedByBytes() throws Exception {
+        cache = new ResponseCache(true, 64 * 1024, new ObjectMapper(), null);
+
+        for (long id = 1; id <= 1000; id++) {
+            write(id, "\"1\"", new MockHttpServletRequest());
+        }
+
+        assertTrue(cache.sizeInBytes() > 0);
+        assertTrue(cache.sizeInBytes() <= 64 * 1024, cache.sizeInBytes() + " bytes");
+    }
+
+    private MockHttpServletResponse write(Long id, String etag, MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        cache.write(ResponseCache.Resource.PRODUCT, id, etag, product(id, etag), request, response);
+        return response;
+    }
+
+    private Supplier<VersionedDto<ProductResponseDto>> product(Long id, String etag) {
+        return () -> {
+            renders.incrementAndGet();
+
+            return new VersionedDto<>(etag, ProductResponseDto
+                    .builder()
+                    .id(id)
+                    .name("Yoplait Strawberry Yoghurt | 1kg")
+                    .description(new String(new char[10]).replace("\0", DESCRIPTION))
+                    .build());
+        };
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.prico.config;
+
+import com.prico.datasource.ReadYourWrites;
+import com.prico.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two H2 databases stand in for the primary and a replica; each holds a row naming itself, so a query shows
+ * where it was routed.
+ */
+public class DataSourceRoutingConfigTest {
+
+    private final String primaryUrl = "jdbc:h2:mem:primary-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+
+    private final String replicaUrl = "jdbc:h2:mem:replica-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+                    DataSourceTransactionManagerAutoConfiguration.class,
+                    JdbcTemplateAutoConfiguration.class,
+                    TransactionAutoConfiguration.class,
+                    MetricsAutoConfiguration.class,
+                    SimpleMetricsExportAutoConfiguration.class))
+            .withUserConfiguration(DataSourceRoutingConfig.class)
+            .withPropertyValues("spring.datasource.url=" + primaryUrl, "spring.datasource.hikari.maximum-pool-size=3");
+
+    @Test
+    public void testDisabledByDefault() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(ReplicaRoutingDataSource.class));
+    }
+
+    @Test
+    public void testEnabled_RoutesReadOnlyTransactionsToReplicas() {
+        enabled(replicaUrl).run(context -> {
+            seed(context);
+
+            assertThat(readOnly(context)).isEqualTo("replica");
+            assertThat(readWrite(context)).isEqualTo("primary");
+            assertThat(context.getBean(JdbcTemplate.class).queryForObject("SELECT name FROM origin", String.class)).isEqualTo("primary");
+
+            assertThat(context.getBean(MeterRegistry.class).get("hikaricp.connections.acquire").tag("pool", "replica-1").timer().count()).isEqualTo(1);
+            assertThat(context.getBean(ReplicaRoutingDataSource.class).unwrap(HikariDataSource.class).getMaximumPoolSize()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    public void testEnabled_PinnedRequestsReadFromPrimary() {
+        enabled(replicaUrl).run(context -> {
+            seed(context);
+            AtomicInteger writes = new AtomicInteger();
+
+            ReadYourWrites.start(true, writes::incrementAndGet);
+
+            try {
+                assertThat(readOnly(context)).isEqualTo("primary");
+            } finally {
+                ReadYourWrites.stop();
+            }
+
+            ReadYourWrites.start(false, writes::incrementAndGet);
+
+            try {
+                assertThat(readOnly(context)).isEqualTo("replica");
+                assertThat(readWrite(context)).isEqualTo("primary");
+                assertThat(writes.get()).isEqualTo(1);
+                assertThat(readOnly(context)).isEqualTo("primary");
+            } finally {
+                ReadYourWrites.stop();
+            }
+        });
+    }
+
+    @Test
+    public void testEnabled_WhenReplicaIsDown_ReadsFromPrimary() {
+        enabled("jdbc:h2:tcp://localhost:1/missing").run(context -> {
+            seed(context);
+
+            assertThat(readOnly(context)).isEqualTo("primary");
+            assertThat(context.getBean(ReplicaRoutingDataSource.class).fallbackCount()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    public void testGetConnectionWithCredentials_UsesPrimary() throws Exception {
+        // Given
+        HikariDataSource primary = mock(HikariDataSource.class);
+        HikariDataSource replica = mock(HikariDataSource.class);
+        Connection connection = mock(Connection.class);
+        when(primary.getConnection("reporting", "secret")).thenReturn(connection);
+
+        // When
+        Connection result = new ReplicaRoutingDataSource(primary, Collections.singletonList(replica))
+                .getConnection("reporting", "secret");
+
+        // Then
+        assertThat(result).isSameAs(connection);
+        verifyNoInteractions(replica);
+    }
+
+    private ApplicationContextRunner enabled(String replicas) {
+        return contextRunner.withPropertyValues("prico.datasource.routing.enabled=true", "prico.datasource.replicas=" + replicas);
+    }
+
+    private void seed(ApplicationContext context) {
+        JdbcTemplate primary = context.getBean(JdbcTemplate.class);
+        primary.execute("CREATE TABLE origin (name VARCHAR(16))");
+        primary.update("INSERT INTO origin VALUES ('primary')");
+
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(replicaUrl, "sa", ""));
+        replica.execute("CREATE TABLE origin (name VARCHAR(16))");
+        replica.update("INSERT INTO origin VALUES ('replica')");
+    }
+
+    private static String readOnly(ApplicationContext context) {
+        TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> context.getBean(JdbcTemplate.class).queryForObject("SELECT name FROM origin", String.class));
+    }
+
+    private static String readWrite(ApplicationContext context) {
+        return new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).execute(status -> {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            jdbcTemplate.update("UPDATE origin SET name = name");
+            return jdbcTemplate.queryForObject("SELECT name FROM origin", String.class);
+        });
+    }
+}
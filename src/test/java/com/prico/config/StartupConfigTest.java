@@ -0,0 +1,40 @@
+package com.prico.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ApplicationListener;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StartupConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(StartupConfig.class);
+
+    @Test
+    public void testPersistenceStaysEager() {
+        contextRunner.run(context -> {
+            LazyInitializationExcludeFilter filter = context.getBean(LazyInitializationExcludeFilter.class);
+
+            assertThat(filter.isExcluded("dataSource", null, HikariDataSource.class)).isTrue();
+            assertThat(filter.isExcluded("entityManagerFactory", null, EntityManagerFactory.class)).isTrue();
+            assertThat(filter.isExcluded("swaggerConfig", null, SwaggerConfig.class)).isFalse();
+        });
+    }
+
+    @Test
+    public void testExitOnReady_DisabledByDefault() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(ApplicationListener.class));
+    }
+
+    @Test
+    public void testExitOnReady_Enabled() {
+        contextRunner
+                .withPropertyValues("prico.startup.exit-on-ready=true")
+                .run(context -> assertThat(context).hasSingleBean(ApplicationListener.class));
+    }
+}
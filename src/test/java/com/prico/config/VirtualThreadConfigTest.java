@@ -0,0 +1,63 @@
+package com.prico.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prico.filter.ConnectionLimitFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VirtualThreadConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withUserConfiguration(VirtualThreadConfig.class)
+            .withBean(ObjectMapper.class)
+            .withBean(HikariDataSource.class, () -> {
+                HikariDataSource dataSource = new HikariDataSource();
+                dataSource.setMaximumPoolSize(7);
+                return dataSource;
+            });
+
+    @Test
+    public void testDisabledByDefault() {
+        contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean(TomcatProtocolHandlerCustomizer.class);
+            assertThat(context).doesNotHaveBean(FilterRegistrationBean.class);
+        });
+    }
+
+    @Test
+    public void testEnabled_LimitsConcurrencyToPoolSize() {
+        contextRunner
+                .withPropertyValues("prico.virtual-threads.enabled=true")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(TomcatProtocolHandlerCustomizer.class);
+                    assertThat(((ConnectionLimitFilter) context.getBean(FilterRegistrationBean.class).getFilter())
+                            .availablePermits()).isEqualTo(7);
+                });
+    }
+
+    @Test
+    public void testEnabled_WithMaxConcurrency() {
+        contextRunner
+                .withPropertyValues("prico.virtual-threads.enabled=true", "prico.virtual-threads.max-concurrency=3")
+                .run(context -> assertThat(((ConnectionLimitFilter) context.getBean(FilterRegistrationBean.class).getFilter())
+                        .availablePermits()).isEqualTo(3));
+    }
+
+    @Test
+    public void testEnabled_RunsAsyncWorkOnVirtualThreads() {
+        contextRunner
+                .withPropertyValues("prico.virtual-threads.enabled=true")
+                .run(context -> assertThat(context
+                        .getBean(AsyncTaskExecutor.class)
+                        .submit(() -> Thread.currentThread().isVirtual())
+                        .get()).isTrue());
+    }
+}
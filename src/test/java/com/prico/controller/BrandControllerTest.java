@@ -1,20 +1,26 @@
 package com.prico.controller;
 
+import com.prico.dto.ResourceVersionDto;
 import com.prico.dto.crud.BrandRequestDto;
 import com.prico.dto.crud.BrandResponseDto;
 import com.prico.model.Brand;
 import com.prico.exception.ResourceNotFoundException;
 import com.prico.service.BrandService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -30,6 +36,13 @@ public class BrandControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @BeforeEach
+    public void setUp() {
+        when(brandService
+                .getListVersion())
+                .thenReturn(ResourceVersionDto.builder().etag("\"2-2-0\"").build());
+    }
+
     @Test
     public void testGetAll() throws Exception {
         BrandResponseDto brand1 = BrandResponseDto
@@ -47,7 +60,7 @@ public class BrandControllerTest {
                 .build();
 
         when(brandService
-                .getAll())
+                .getAll(null, 50))
                 .thenReturn(Arrays.asList(brand1, brand2));
 
         mockMvc.perform(get("/brands"))
@@ -61,6 +74,77 @@ public class BrandControllerTest {
                 .andExpect(jsonPath("$.[1].description").value("This is the 2nd test brand"));
     }
 
+    @Test
+    public void testGetAll_FullPage_ReturnsNextCursor() throws Exception {
+        BrandResponseDto brand3 = BrandResponseDto
+                .builder()
+                .id(3L)
+                .name("Test Brand 3")
+                .build();
+
+        BrandResponseDto brand4 = BrandResponseDto
+                .builder()
+                .id(4L)
+                .name("Test Brand 4")
+                .build();
+
+        when(brandService
+                .getAll(2L, 2))
+                .thenReturn(Arrays.asList(brand3, brand4));
+
+        mockMvc.perform(get("/brands").param("after", "2").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "4"))
+                .andExpect(jsonPath("$.[0].id").value(3))
+                .andExpect(jsonPath("$.[1].id").value(4));
+    }
+
+    @Test
+    public void testGetAll_LastPage_HasNoNextCursor() throws Exception {
+        BrandResponseDto brand5 = BrandResponseDto
+                .builder()
+                .id(5L)
+                .name("Test Brand 5")
+                .build();
+
+        when(brandService
+                .getAll(4L, 2))
+                .thenReturn(Arrays.asList(brand5));
+
+        mockMvc.perform(get("/brands").param("after", "4").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$.[0].id").value(5));
+    }
+
+    @Test
+    public void testGetAll_OffsetPage_ReturnsTotalCount() throws Exception {
+        BrandResponseDto brand3 = BrandResponseDto
+                .builder()
+                .id(3L)
+                .name("Test Brand 3")
+                .build();
+
+        when(brandService
+                .getPage(1, 2))
+                .thenReturn(new PageImpl<>(Arrays.asList(brand3), PageRequest.of(1, 2), 3));
+
+        mockMvc.perform(get("/brands").param("page", "1").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "3"))
+                .andExpect(jsonPath("$.[0].id").value(3));
+    }
+
+    @Test
+    public void testGetAll_NotModified() throws Exception {
+        mockMvc.perform(get("/brands").header(HttpHeaders.IF_NONE_MATCH, "\"2-2-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-2-0\""))
+                .andExpect(content().string(""));
+
+        verify(brandService, never()).getAll(any(), anyInt());
+    }
+
     @Test
     public void testGetById() throws Exception {
         BrandResponseDto brandDto = new BrandResponseDto();
@@ -47,7 +47,7 @@ public class CategoryControllerTest {
                 .build();
 
         when(service
-                .getAll())
+                .getAll(null, 50))
                 .thenReturn(Arrays.asList(category1, category2));
 
         mockMvc.perform(get("/categories"))
@@ -0,0 +1,105 @@
+package com.prico.controller;
+
+import com.prico.dto.alert.PriceAlertRequestDto;
+import com.prico.dto.alert.PriceAlertResponseDto;
+import com.prico.exception.ResourceNotFoundException;
+import com.prico.service.PriceAlertService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PriceAlertController.class)
+public class PriceAlertControllerTest {
+
+    @MockBean
+    private PriceAlertService priceAlertService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testGetById() throws Exception {
+        PriceAlertResponseDto alert = PriceAlertResponseDto
+                .builder()
+                .id(10L)
+                .productId(1L)
+                .threshold(4.5F)
+                .subscriber("shopper@example.com")
+                .build();
+
+        when(priceAlertService.getById(10L)).thenReturn(alert);
+
+        mockMvc.perform(get("/price-alerts/10"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value(10))
+                .andExpect(jsonPath("$.productId").value(1))
+                .andExpect(jsonPath("$.threshold").value(4.5))
+                .andExpect(jsonPath("$.subscriber").value("shopper@example.com"));
+    }
+
+    @Test
+    public void testGetById_WithNonExistentId() throws Exception {
+        when(priceAlertService.getById(10L)).thenThrow(new ResourceNotFoundException("Invalid price alert"));
+
+        mockMvc.perform(get("/price-alerts/10"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Invalid price alert"));
+    }
+
+    @Test
+    public void testCreate() throws Exception {
+        when(priceAlertService.create(any(PriceAlertRequestDto.class)))
+                .thenReturn(PriceAlertResponseDto.builder().id(10L).build());
+
+        mockMvc.perform(post("/price-alerts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productId\":1,\"threshold\":4.5,\"subscriber\":\"shopper@example.com\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.id").value(10))
+                .andExpect(jsonPath("$.message").value("Price alert has been created successfully"));
+    }
+
+    @Test
+    public void testCreate_TriggeredStraightAway() throws Exception {
+        when(priceAlertService.create(any(PriceAlertRequestDto.class)))
+                .thenReturn(PriceAlertResponseDto.builder().id(10L).triggeredAt(Instant.now()).build());
+
+        mockMvc.perform(post("/price-alerts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productId\":1,\"threshold\":4.5,\"subscriber\":\"shopper@example.com\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.message").value("Price alert has been created and triggered straight away"));
+    }
+
+    @Test
+    public void testCreate_WithInvalidThreshold() throws Exception {
+        mockMvc.perform(post("/price-alerts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productId\":1,\"threshold\":-1,\"subscriber\":\"shopper@example.com\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].field").value("threshold"))
+                .andExpect(jsonPath("$.errors[0].message").value("Threshold should be positive"));
+
+        verify(priceAlertService, never()).create(any());
+    }
+
+    @Test
+    public void testDelete() throws Exception {
+        mockMvc.perform(delete("/price-alerts/10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Price alert has been deleted successfully"));
+
+        verify(priceAlertService).delete(10L);
+    }
+}
@@ -0,0 +1,160 @@
+package com.prico.controller;
+
+import com.prico.config.PriceFeedConfig;
+import com.prico.dto.PriceChangeDto;
+import com.prico.feed.PriceFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PriceFeedController.class)
+@Import(PriceFeedConfig.class)
+@TestPropertySource(properties = "prico.price-feed.buffer-size=16")
+public class PriceFeedControllerTest {
+
+    private static final Pattern PRICE = Pattern.compile("\"offerId\":(\\d+),\"productId\":\\d+,\"storeId\":\\d+,\"price\":([\\d.]+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PriceFeed priceFeed;
+
+    @Test
+    public void testSubscribe_StreamsChangesOfProductAndStore() throws Exception {
+        MockHttpServletResponse response = subscribe("/price-feed?productId=1&storeId=7");
+
+        assertTrue(priceFeed.isWatched(1L, null));
+        assertTrue(priceFeed.isWatched(null, 7L));
+        assertFalse(priceFeed.isWatched(2L, 8L));
+
+        priceFeed.publish(Arrays.asList(change(10L, 1L, 2L, 4.5F), change(11L, 2L, 8L, 3.0F), change(12L, 3L, 7L, 2.5F)));
+
+        String events = await(response, 2);
+        assertTrue(events.contains("event:price\n"));
+        assertTrue(events.contains("\"offerId\":10,\"productId\":1,\"storeId\":2,\"price\":4.5"));
+        assertTrue(events.contains("\"offerId\":12,\"productId\":3,\"storeId\":7,\"price\":2.5"));
+        assertFalse(events.contains("\"offerId\":11"));
+    }
+
+    @Test
+    public void testSubscribe_SubscriberToProductAndStoreGetsChangeOnce() throws Exception {
+        MockHttpServletResponse response = subscribe("/price-feed?productId=1&storeId=2");
+
+        priceFeed.publish(Collections.singletonList(change(10L, 1L, 2L, 4.5F)));
+        priceFeed.publish(Collections.singletonList(change(13L, 1L, 9L, 1.5F)));
+
+        List<String[]> prices = prices(await(response, 2));
+        assertEquals(2, prices.size());
+        assertEquals("10", prices.get(0)[0]);
+        assertEquals("13", prices.get(1)[0]);
+    }
+
+    @Test
+    public void testSubscribe_SlowSubscriberGetsLatestPricePerOffer() throws Exception {
+        MockHttpServletResponse response = subscribe("/price-feed?productId=5");
+        long droppedBefore = priceFeed.droppedCount();
+        List<PriceChangeDto> changes = new ArrayList<>();
+
+        // 1,000 changes of 100 offers, more than the buffer holds
+        for (int i = 1; i <= 1000; i++) {
+            changes.add(change(100L + i % 100, 5L, 99L, i));
+        }
+
+        priceFeed.publish(changes);
+        // Changes published later are sent after everything queued before them
+        priceFeed.publish(Collections.singletonList(change(1L, 5L, 99L, 0.5F)));
+
+        String events = await(response, 1, "\"offerId\":1,");
+        List<String[]> prices = prices(events);
+        long dropped = priceFeed.droppedCount() - droppedBefore;
+
+        assertEquals(1001, prices.size() + dropped);
+        assertTrue(dropped > 0 || prices.size() == 1001);
+
+        // An offer is never sent an older price after a newer one
+        for (int offer = 100; offer < 200; offer++) {
+            float last = 0;
+
+            for (String[] price : prices) {
+                if (price[0].equals(String.valueOf(offer))) {
+                    assertTrue(Float.parseFloat(price[1]) > last);
+                    last = Float.parseFloat(price[1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSubscribe_WithoutIds() throws Exception {
+        mockMvc.perform(get("/price-feed"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Subscribe to at least one productId or storeId"));
+    }
+
+    private MockHttpServletResponse subscribe(String uri) throws Exception {
+        MvcResult result = mockMvc.perform(get(uri).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return result.getResponse();
+    }
+
+    private static String await(MockHttpServletResponse response, int events) throws Exception {
+        return await(response, events, null);
+    }
+
+    // Events are written by the sender threads
+    private static String await(MockHttpServletResponse response, int events, String marker) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = response.getContentAsString();
+
+        while (System.currentTimeMillis() < deadline
+                && (prices(content).size() < events || (marker != null && !content.contains(marker)))) {
+            Thread.sleep(10);
+            content = response.getContentAsString();
+        }
+
+        return content;
+    }
+
+    private static List<String[]> prices(String events) {
+        List<String[]> prices = new ArrayList<>();
+        Matcher matcher = PRICE.matcher(events);
+
+        while (matcher.find()) {
+            prices.add(new String[]{matcher.group(1), matcher.group(2)});
+        }
+
+        return prices;
+    }
+
+    private static PriceChangeDto change(Long offerId, Long productId, Long storeId, float price) {
+        return PriceChangeDto
+                .builder()
+                .offerId(offerId)
+                .productId(productId)
+                .storeId(storeId)
+                .price(price)
+                .changedAt(Instant.now())
+                .build();
+    }
+}
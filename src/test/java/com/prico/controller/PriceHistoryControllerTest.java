@@ -0,0 +1,91 @@
+package com.prico.controller;
+
+import com.prico.dto.history.PriceHistoryResponseDto;
+import com.prico.dto.history.PriceInterval;
+import com.prico.dto.history.PricePointDto;
+import com.prico.exception.BadRequestException;
+import com.prico.exception.ResourceNotFoundException;
+import com.prico.service.PriceHistoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PriceHistoryController.class)
+public class PriceHistoryControllerTest {
+
+    @MockBean
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testGetHistory() throws Exception {
+        PriceHistoryResponseDto history = PriceHistoryResponseDto
+                .builder()
+                .productId(1L)
+                .from(LocalDate.of(2024, 3, 1))
+                .to(LocalDate.of(2024, 3, 31))
+                .interval(PriceInterval.WEEK)
+                .minPrice(4.0F)
+                .maxPrice(6.0F)
+                .avgPrice(5.0F)
+                .observations(3L)
+                .series(Collections.singletonList(PricePointDto
+                        .builder()
+                        .bucket(Instant.parse("2024-02-26T00:00:00Z"))
+                        .avgPrice(5.0F)
+                        .observations(3L)
+                        .build()))
+                .build();
+
+        when(priceHistoryService
+                .getHistory(1L, null, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), PriceInterval.WEEK))
+                .thenReturn(history);
+
+        mockMvc.perform(get("/products/{id}/price-history", 1L)
+                .param("from", "2024-03-01")
+                .param("to", "2024-03-31")
+                .param("interval", "WEEK"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.minPrice").value(4.0))
+                .andExpect(jsonPath("$.from").value("2024-03-01"))
+                .andExpect(jsonPath("$.series[0].bucket").value("2024-02-26T00:00:00Z"))
+                .andExpect(jsonPath("$.series[0].observations").value(3));
+    }
+
+    @Test
+    public void testGetHistory_WithNonExistentProduct() throws Exception {
+        when(priceHistoryService
+                .getHistory(eq(100L), isNull(), isNull(), isNull(), eq(PriceInterval.DAY)))
+                .thenThrow(new ResourceNotFoundException("Product not found with id: 100"));
+
+        mockMvc.perform(get("/products/{id}/price-history", 100L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Product not found with id: 100"));
+    }
+
+    @Test
+    public void testGetHistory_WithInvertedRange() throws Exception {
+        when(priceHistoryService
+                .getHistory(eq(1L), isNull(), any(), any(), eq(PriceInterval.DAY)))
+                .thenThrow(new BadRequestException("from should not be after to"));
+
+        mockMvc.perform(get("/products/{id}/price-history", 1L)
+                .param("from", "2024-03-02")
+                .param("to", "2024-03-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("from should not be after to"));
+    }
+}
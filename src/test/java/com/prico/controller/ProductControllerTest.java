@@ -1,7 +1,14 @@
 package com.prico.controller;
 
+import com.prico.cache.ResponseCache;
+import com.prico.dto.PriceRange;
+import com.prico.dto.ResourceVersionDto;
+import com.prico.dto.SearchFacetsDto;
+import com.prico.dto.SearchResponseDto;
+import com.prico.dto.SuggestionDto;
 import com.prico.dto.comparison.ProductStoreDto;
 import com.prico.dto.comparison.ProductVariationResponseDto;
+import com.prico.dto.comparison.ProductVariationsRequestDto;
 import com.prico.dto.comparison.StoreDto;
 import com.prico.dto.crud.ProductRequestDto;
 import com.prico.dto.crud.ProductResponseDto;
@@ -12,12 +19,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -30,6 +45,9 @@ public class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ResponseCache responseCache;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -50,7 +68,7 @@ public class ProductControllerTest {
                 .build();
 
         when(productService
-                .getAll())
+                .getAll(null, 50))
                 .thenReturn(Arrays.asList(product1, product2));
 
         mockMvc.perform(get("/products"))
@@ -71,23 +89,71 @@ public class ProductControllerTest {
         productDto.setName("Test Product");
         productDto.setDescription("This is a test product");
 
+        when(productService
+                .getVersion(anyLong()))
+                .thenReturn(ResourceVersionDto.builder().etag("\"3-1-0-0\"").lastModified(Instant.parse("2024-05-01T10:00:00Z")).build());
         when(productService
                 .getById(anyLong()))
                 .thenReturn(productDto);
 
         mockMvc.perform(get("/products/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-1-0-0\""))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Wed, 01 May 2024 10:00:00 GMT"))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.name").value("Test Product"))
                 .andExpect(jsonPath("$.description").value("This is a test product"));
     }
 
+    @Test
+    public void testGetById_NotModified() throws Exception {
+        when(productService
+                .getVersion(1L))
+                .thenReturn(ResourceVersionDto.builder().etag("\"3-1-0-0\"").lastModified(Instant.parse("2024-05-01T10:00:00Z")).build());
+
+        mockMvc.perform(get("/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"3-1-0-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(productService, never()).getById(anyLong());
+    }
+
+    @Test
+    public void testGetById_Modified() throws Exception {
+        when(productService
+                .getVersion(1L))
+                .thenReturn(ResourceVersionDto.builder().etag("\"4-1-0-0\"").lastModified(Instant.parse("2024-05-02T10:00:00Z")).build());
+        when(productService
+                .getById(1L))
+                .thenReturn(ProductResponseDto.builder().id(1L).name("Test Product").build());
+
+        mockMvc.perform(get("/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"3-1-0-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4-1-0-0\""))
+                .andExpect(jsonPath("$.name").value("Test Product"));
+    }
+
+    @Test
+    public void testGetById_FromResponseCache() throws Exception {
+        when(responseCache.isEnabled()).thenReturn(true);
+        when(productService
+                .getVersion(1L))
+                .thenReturn(ResourceVersionDto.builder().etag("\"3-1-0-0\"").lastModified(Instant.parse("2024-05-01T10:00:00Z")).build());
+
+        mockMvc.perform(get("/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-1-0-0\""));
+
+        verify(responseCache).write(eq(ResponseCache.Resource.PRODUCT), eq(1L), eq("\"3-1-0-0\""), any(), any(), any());
+        verify(productService, never()).getById(anyLong());
+    }
+
     @Test
     public void testGetById_WithNonExistentId() throws Exception {
         long nonExistentId = 100L;
         when(productService
-                .getById(eq(nonExistentId)))
+                .getVersion(eq(nonExistentId)))
                 .thenThrow(new ResourceNotFoundException("Invalid product"));
 
         mockMvc.perform(get("/products/{id}", nonExistentId))
@@ -223,21 +289,59 @@ public class ProductControllerTest {
 
         when(productService
                 .search(any()))
-                .thenReturn(Arrays.asList(product1, product2));
-
-        String searchJson = "{\"name\":\"Test\",\"category\":\"Category\",\"brand\": \"Brand\"}";
+                .thenReturn(SearchResponseDto
+                        .builder()
+                        .products(Arrays.asList(product1, product2))
+                        .facets(SearchFacetsDto
+                                .builder()
+                                .brands(Collections.singletonMap(5L, 2))
+                                .prices(Collections.singletonMap(PriceRange.UNDER_5, 1))
+                                .build())
+                        .build());
+
+        String searchJson = "{\"name\":\"Test\",\"category\":\"Category\",\"brand\": \"Brand\",\"prices\":[\"UNDER_5\"]}";
 
         mockMvc.perform(post("/products/search")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(searchJson))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.[0].id").value(1))
-                .andExpect(jsonPath("$.[0].name").value("Test Product 1"))
-                .andExpect(jsonPath("$.[0].description").value("This is the 1st test product"))
+                .andExpect(jsonPath("$.products[0].id").value(1))
+                .andExpect(jsonPath("$.products[0].name").value("Test Product 1"))
+                .andExpect(jsonPath("$.products[0].description").value("This is the 1st test product"))
+                .andExpect(jsonPath("$.products[1].id").value(2))
+                .andExpect(jsonPath("$.products[1].name").value("Test Product 2"))
+                .andExpect(jsonPath("$.products[1].description").value("This is the 2nd test product"))
+                .andExpect(jsonPath("$.facets.brands.5").value(2))
+                .andExpect(jsonPath("$.facets.prices.UNDER_5").value(1));
+    }
+
+    @Test
+    public void testSuggest() throws Exception {
+        SuggestionDto brand = SuggestionDto
+                .builder()
+                .text("Yoplait")
+                .type(SuggestionDto.Type.BRAND)
+                .id(1L)
+                .build();
+
+        SuggestionDto product = SuggestionDto
+                .builder()
+                .text("Yoplait Strawberry Yoghurt | 1kg")
+                .type(SuggestionDto.Type.PRODUCT)
+                .id(2L)
+                .build();
+
+        when(productService
+                .suggest("yop", 5))
+                .thenReturn(Arrays.asList(brand, product));
+
+        mockMvc.perform(get("/products/suggest").param("q", "yop").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].text").value("Yoplait"))
+                .andExpect(jsonPath("$.[0].type").value("BRAND"))
                 .andExpect(jsonPath("$.[1].id").value(2))
-                .andExpect(jsonPath("$.[1].name").value("Test Product 2"))
-                .andExpect(jsonPath("$.[1].description").value("This is the 2nd test product"));
+                .andExpect(jsonPath("$.[1].type").value("PRODUCT"));
     }
 
     @Test
@@ -285,12 +389,16 @@ public class ProductControllerTest {
                 .stores(Arrays.asList(store))
                 .build();
 
+        when(productService
+                .getVariationsVersion(productId))
+                .thenReturn(ResourceVersionDto.builder().etag("\"3-7\"").lastModified(Instant.parse("2024-05-01T10:00:00Z")).build());
         when(productService
                 .getVariationsByProduct(productId))
                 .thenReturn(response);
 
         mockMvc.perform(get("/products/{id}/variations", productId))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-7\""))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.productId").value(1))
                 .andExpect(jsonPath("$.productName").value("Test Product 1"))
@@ -304,11 +412,68 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.stores.[0].variations[0].price").value(4.5));
     }
 
+    @Test
+    public void testGetVariations_NotModified() throws Exception {
+        when(productService
+                .getVariationsVersion(1L))
+                .thenReturn(ResourceVersionDto.builder().etag("\"3-7\"").lastModified(Instant.parse("2024-05-01T10:00:00Z")).build());
+
+        mockMvc.perform(get("/products/{id}/variations", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"3-6\", \"3-7\""))
+                .andExpect(status().isNotModified());
+
+        verify(productService, never()).getVariationsByProduct(anyLong());
+    }
+
+    @Test
+    public void testGetVariationsByProducts() throws Exception {
+        Map<Long, ProductVariationResponseDto> response = new LinkedHashMap<>();
+        response.put(2L, ProductVariationResponseDto.builder().productId(2L).productName("Test Product 2").build());
+        response.put(1L, ProductVariationResponseDto.builder().productId(1L).productName("Test Product 1").build());
+
+        when(productService
+                .getVariationsByProducts(Arrays.asList(2L, 1L)))
+                .thenReturn(response);
+
+        mockMvc.perform(post("/products/variations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productIds\":[2,1]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.2.productName").value("Test Product 2"))
+                .andExpect(jsonPath("$.1.productName").value("Test Product 1"));
+    }
+
+    @Test
+    public void testGetVariationsByProducts_WithoutIds() throws Exception {
+        mockMvc.perform(post("/products/variations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productIds\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].field").value("productIds"));
+
+        verify(productService, never()).getVariationsByProducts(anyList());
+    }
+
+    @Test
+    public void testGetVariationsByProducts_OverBatchLimit() throws Exception {
+        String ids = LongStream
+                .rangeClosed(1, ProductVariationsRequestDto.MAX_PRODUCTS + 1)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        mockMvc.perform(post("/products/variations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productIds\":[" + ids + "]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].field").value("productIds"));
+
+        verify(productService, never()).getVariationsByProducts(anyList());
+    }
+
     @Test
     public void testGetVariations_WithNonExistentId() throws Exception {
         long nonExistentId = 100L;
         when(productService
-                .getVariationsByProduct(eq(nonExistentId)))
+                .getVariationsVersion(eq(nonExistentId)))
                 .thenThrow(new ResourceNotFoundException("Invalid product"));
 
         mockMvc.perform(get("/products/{id}/variations", nonExistentId))
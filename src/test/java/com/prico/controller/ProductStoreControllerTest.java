@@ -0,0 +1,249 @@
+package com.prico.controller;
+
+import com.prico.dto.crud.BulkProductStoreResultDto;
+import com.prico.dto.crud.ProductStoreResponseDto;
+import com.prico.dto.match.OfferMatchResponseDto;
+import com.prico.dto.match.ProductCandidateDto;
+import com.prico.exception.BadRequestException;
+import com.prico.exception.ResourceNotFoundException;
+import com.prico.ingest.OfferWriteCoalescer;
+import com.prico.service.ProductStoreService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ProductStoreController.class)
+public class ProductStoreControllerTest {
+
+    @MockBean
+    private ProductStoreService productStoreService;
+
+    @MockBean
+    private OfferWriteCoalescer coalescer;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testGetAll() throws Exception {
+        ProductStoreResponseDto productStore1 = ProductStoreResponseDto
+                .builder()
+                .id(11L)
+                .name("Product 1 at Store 1")
+                .price(4.5F)
+                .build();
+
+        ProductStoreResponseDto productStore2 = ProductStoreResponseDto
+                .builder()
+                .id(12L)
+                .name("Product 1 at Store 2")
+                .price(4.2F)
+                .build();
+
+        when(productStoreService
+                .getAll(10L, 2))
+                .thenReturn(Arrays.asList(productStore1, productStore2));
+
+        mockMvc.perform(get("/product-stores").param("after", "10").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("X-Next-Cursor", "12"))
+                .andExpect(jsonPath("$.[0].id").value(11))
+                .andExpect(jsonPath("$.[0].price").value(4.5))
+                .andExpect(jsonPath("$.[1].id").value(12))
+                .andExpect(jsonPath("$.[1].price").value(4.2));
+    }
+
+    @Test
+    public void testGetById() throws Exception {
+        ProductStoreResponseDto productStore = ProductStoreResponseDto
+                .builder()
+                .id(11L)
+                .name("Product 1 at Store 1")
+                .url("store1.com/product1")
+                .price(4.5F)
+                .build();
+
+        when(productStoreService
+                .getById(11L))
+                .thenReturn(productStore);
+
+        mockMvc.perform(get("/product-stores/{id}", 11L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(11))
+                .andExpect(jsonPath("$.url").value("store1.com/product1"));
+    }
+
+    @Test
+    public void testGetById_WithNonExistentId() throws Exception {
+        when(productStoreService
+                .getById(eq(100L)))
+                .thenThrow(new ResourceNotFoundException("Product Store not found with id: 100"));
+
+        mockMvc.perform(get("/product-stores/{id}", 100L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Product Store not found with id: 100"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExport_WritesOneOfferPerLine() throws Exception {
+        doAnswer(x -> {
+            Consumer<ProductStoreResponseDto> consumer = x.getArgument(0);
+            consumer.accept(ProductStoreResponseDto.builder().id(11L).price(4.5F).build());
+            consumer.accept(ProductStoreResponseDto.builder().id(12L).price(4.2F).build());
+            return null;
+        }).when(productStoreService).exportAll(any());
+
+        mockMvc.perform(get("/product-stores/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(allOf(
+                        org.hamcrest.Matchers.startsWith("{\"id\":11,"),
+                        containsString("}\n{\"id\":12,"),
+                        org.hamcrest.Matchers.endsWith("}\n"))));
+    }
+
+    @Test
+    public void testBulkUpsert() throws Exception {
+        BulkProductStoreResultDto created = BulkProductStoreResultDto
+                .builder()
+                .index(0)
+                .id(11L)
+                .status(BulkProductStoreResultDto.Status.CREATED)
+                .build();
+
+        BulkProductStoreResultDto rejected = BulkProductStoreResultDto
+                .builder()
+                .index(1)
+                .status(BulkProductStoreResultDto.Status.REJECTED)
+                .message("Store not found with id: 9")
+                .build();
+
+        when(productStoreService
+                .bulkUpsert(anyList()))
+                .thenReturn(Arrays.asList(created, rejected));
+
+        String bulkJson = "{\"offers\":[" +
+                "{\"name\":\"Offer 1\",\"url\":\"store1.com/1\",\"price\":4.5,\"productId\":1,\"storeId\":2}," +
+                "{\"name\":\"Offer 2\",\"url\":\"store9.com/2\",\"price\":4.2,\"productId\":1,\"storeId\":9}]}";
+
+        mockMvc.perform(post("/product-stores/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(bulkJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("1 offers have been saved, 0 unchanged, 1 rejected"))
+                .andExpect(jsonPath("$.data[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.data[0].id").value(11))
+                .andExpect(jsonPath("$.data[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.data[1].message").value("Store not found with id: 9"));
+    }
+
+    @Test
+    public void testBulkUpsert_WithoutOffers() throws Exception {
+        mockMvc.perform(post("/product-stores/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"offers\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation failed"))
+                .andExpect(jsonPath("$.errors[0].field").value("offers"));
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        when(coalescer
+                .submit(eq(11L), any()))
+                .thenReturn(OfferWriteCoalescer.Result.QUEUED);
+
+        mockMvc.perform(put("/product-stores/11")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Offer 1\",\"url\":\"store1.com/1\",\"price\":4.5,\"productId\":1,\"storeId\":2}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.message").value("Offer update has been accepted"));
+
+        verify(coalescer).submit(eq(11L), argThat(x -> x.getPrice() == 4.5F && x.getStoreId() == 2L));
+    }
+
+    @Test
+    public void testUpdate_WithUnchangedOffer() throws Exception {
+        when(coalescer
+                .submit(eq(11L), any()))
+                .thenReturn(OfferWriteCoalescer.Result.SKIPPED);
+
+        mockMvc.perform(put("/product-stores/11")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Offer 1\",\"url\":\"store1.com/1\",\"price\":4.5,\"productId\":1,\"storeId\":2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Offer is unchanged"));
+    }
+
+    @Test
+    public void testUpdate_WithUnknownOffer() throws Exception {
+        doThrow(new ResourceNotFoundException("Product Store not found with id: 11"))
+                .when(productStoreService)
+                .checkUpdate(eq(11L), any());
+
+        mockMvc.perform(put("/product-stores/11")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Offer 1\",\"url\":\"store1.com/1\",\"price\":4.5,\"productId\":1,\"storeId\":2}"))
+                .andExpect(status().isNotFound());
+
+        verify(coalescer, never()).submit(any(), any());
+    }
+
+    @Test
+    public void testUpdate_WithoutPrice() throws Exception {
+        mockMvc.perform(put("/product-stores/11")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Offer 1\",\"url\":\"store1.com/1\",\"productId\":1,\"storeId\":2}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].field").value("price"));
+
+        verifyNoInteractions(coalescer);
+    }
+
+    @Test
+    public void testMatch() throws Exception {
+        when(productStoreService
+                .matchProduct(any(), eq(3)))
+                .thenReturn(new OfferMatchResponseDto(1L, Collections.singletonList(new ProductCandidateDto(1L, 0.9F))));
+
+        mockMvc.perform(post("/product-stores/match?limit=3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Yoplait Strawberry Yoghurt 1kg\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productId").value(1))
+                .andExpect(jsonPath("$.candidates[0].score").value(0.9));
+
+        verify(productStoreService).matchProduct(argThat(x -> x.getName().equals("Yoplait Strawberry Yoghurt 1kg")), eq(3));
+    }
+
+    @Test
+    public void testMatch_WithoutName() throws Exception {
+        when(productStoreService
+                .matchProduct(any(), anyInt()))
+                .thenThrow(new BadRequestException("Name should not be NULL or EMPTY"));
+
+        mockMvc.perform(post("/product-stores/match")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Name should not be NULL or EMPTY"));
+    }
+}
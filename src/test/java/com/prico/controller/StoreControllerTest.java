@@ -49,7 +49,7 @@ public class StoreControllerTest {
                 .build();
 
         when(storeService
-                .getAll())
+                .getAll(null, 50))
                 .thenReturn(Arrays.asList(store1, store2));
 
         mockMvc.perform(get("/stores"))
@@ -0,0 +1,82 @@
+package com.prico.feed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prico.dto.PriceChangeDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceFeedTest {
+
+    private final PriceFeed priceFeed = new PriceFeed(16, 1, Duration.ofMinutes(1), Duration.ofMinutes(1),
+            Duration.ofMillis(100), new ObjectMapper().findAndRegisterModules(), null);
+
+    private final CountDownLatch unblock = new CountDownLatch(1);
+
+    @AfterEach
+    public void tearDown() {
+        unblock.countDown();
+        priceFeed.close();
+    }
+
+    @Test
+    public void testPublish_StalledSubscriberDoesNotHoldUpOthers() throws Exception {
+        // Given
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch received = new CountDownLatch(1);
+
+        priceFeed.subscribe(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                blocked.countDown();
+                await(unblock);
+            }
+        }, Collections.singletonList(1L), Collections.emptyList());
+
+        priceFeed.subscribe(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                received.countDown();
+            }
+        }, Collections.singletonList(2L), Collections.emptyList());
+
+        // When
+        priceFeed.publish(Collections.singletonList(change(10L, 1L)));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        priceFeed.publish(Arrays.asList(change(11L, 1L), change(12L, 2L)));
+
+        // Then
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        assertEquals(1, priceFeed.stalledCount());
+        assertEquals(1, priceFeed.subscriberCount());
+        assertFalse(priceFeed.isWatched(1L, null));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static PriceChangeDto change(Long offerId, Long productId) {
+        return PriceChangeDto
+                .builder()
+                .offerId(offerId)
+                .productId(productId)
+                .storeId(1L)
+                .price(2.5F)
+                .changedAt(Instant.now())
+                .build();
+    }
+}
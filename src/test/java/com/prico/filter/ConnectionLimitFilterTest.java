@@ -0,0 +1,78 @@
+package com.prico.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionLimitFilterTest {
+
+    private final ConnectionLimitFilter filter = new ConnectionLimitFilter(1, Duration.ofMillis(50), new ObjectMapper());
+
+    @Test
+    public void testDoFilter_ReleasesPermitAfterRequest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/products"), response, (req, res) -> {
+            assertEquals(0, filter.availablePermits());
+        });
+
+        assertEquals(200, response.getStatus());
+        assertEquals(1, filter.availablePermits());
+    }
+
+    @Test
+    public void testDoFilter_WhenNoPermitWithinTimeout_Returns503() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<?> first = executor.submit(() -> {
+                filter.doFilter(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse(), (req, res) -> {
+                    entered.countDown();
+
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                return null;
+            });
+
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/brands"), response, (req, res) -> fail("Should not be called"));
+
+            assertEquals(503, response.getStatus());
+            assertEquals("1", response.getHeader("Retry-After"));
+            assertTrue(response.getContentAsString().contains("Server is busy, please retry"));
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            assertEquals(1, filter.availablePermits());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDoFilter_SkipsActuator() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse(), (req, res) -> {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), response, (r, s) -> { });
+            assertEquals(200, response.getStatus());
+        });
+    }
+}
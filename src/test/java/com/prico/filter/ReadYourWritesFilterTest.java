@@ -0,0 +1,56 @@
+package com.prico.filter;
+
+import com.prico.datasource.ReadYourWrites;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.Cookie;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+    @Test
+    public void testDoFilter_AfterWrite_PinsClientToPrimary() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long start = System.currentTimeMillis();
+
+        filter.doFilter(new MockHttpServletRequest("PUT", "/products/1"), response, (req, res) -> {
+            assertFalse(ReadYourWrites.isPinned());
+            ReadYourWrites.wrote();
+            assertTrue(ReadYourWrites.isPinned());
+        });
+
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(cookie);
+        assertEquals(5, cookie.getMaxAge());
+        assertTrue(Long.parseLong(cookie.getValue()) >= start + 5000);
+        assertFalse(ReadYourWrites.isPinned());
+    }
+
+    @Test
+    public void testDoFilter_WithPinCookie_ReadsFromPrimaryUntilItEnds() throws Exception {
+        MockHttpServletRequest pinned = new MockHttpServletRequest("GET", "/products/1");
+        pinned.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, String.valueOf(System.currentTimeMillis() + 5000)));
+
+        filter.doFilter(pinned, new MockHttpServletResponse(), (req, res) -> assertTrue(ReadYourWrites.isPinned()));
+
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/products/1");
+        expired.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, String.valueOf(System.currentTimeMillis() - 1)));
+
+        filter.doFilter(expired, new MockHttpServletResponse(), (req, res) -> assertFalse(ReadYourWrites.isPinned()));
+    }
+
+    @Test
+    public void testDoFilter_WithoutWrite_SetsNoCookie() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/products"), response, (req, res) -> assertFalse(ReadYourWrites.isPinned()));
+
+        assertNull(response.getCookie(ReadYourWritesFilter.COOKIE));
+    }
+}
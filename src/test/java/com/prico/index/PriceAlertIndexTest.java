@@ -0,0 +1,189 @@
+package com.prico.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceAlertIndexTest {
+
+    private PriceAlertIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new PriceAlertIndex();
+    }
+
+    @Test
+    public void testUpdate_FiresAlertsAboveTheNewLowestPrice() {
+        assertNull(index.add(1L, 10L, 4.0F, 5.0F));
+        assertNull(index.add(1L, 11L, 3.0F, null));
+        assertNull(index.add(1L, 12L, 4.5F, null));
+        assertNull(index.add(2L, 13L, 4.0F, 5.0F));
+
+        List<PriceAlertIndex.Match> matches = index.update(1L, 3.5F);
+
+        assertEquals(Arrays.asList(10L, 12L), alertIds(matches));
+        assertEquals(4.0F, matches.get(0).getThreshold());
+        assertEquals(3.5F, matches.get(0).getPrice());
+        assertEquals(1L, matches.get(0).getProductId());
+        assertEquals(2, index.size());
+        assertTrue(index.update(1L, 3.5F).isEmpty());
+    }
+
+    @Test
+    public void testUpdate_ThresholdEqualToPriceDoesNotFire() {
+        index.add(1L, 10L, 4.0F, 5.0F);
+
+        assertTrue(index.update(1L, 4.0F).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testUpdate_ProductWithoutOffersFiresNothing() {
+        index.add(1L, 10L, 4.0F, 5.0F);
+
+        assertTrue(index.update(1L, null).isEmpty());
+        assertEquals(Collections.singletonList(10L), alertIds(index.update(1L, 1.0F)));
+        assertFalse(index.watches(1L));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testUpdate_UnwatchedProduct() {
+        assertTrue(index.update(1L, 1.0F).isEmpty());
+        assertFalse(index.watches(1L));
+    }
+
+    @Test
+    public void testAdd_FiresStraightAwayBelowLowestPrice() {
+        index.add(1L, 10L, 2.0F, 3.0F);
+
+        // The index already watches the product, so its own lowest price counts
+        PriceAlertIndex.Match match = index.add(1L, 11L, 3.5F, 9.0F);
+
+        assertNotNull(match);
+        assertEquals(11L, match.getAlertId());
+        assertEquals(3.0F, match.getPrice());
+        assertNotNull(index.add(2L, 12L, 3.5F, 3.0F));
+        assertFalse(index.watches(2L));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testAdd_SameAlertTwiceCountsOnce() {
+        index.add(1L, 10L, 2.0F, 3.0F);
+        index.add(1L, 10L, 2.0F, 3.0F);
+
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testRemove() {
+        index.add(1L, 10L, 4.0F, 5.0F);
+        index.add(1L, 11L, 3.0F, 5.0F);
+
+        index.remove(1L, 10L, 4.0F);
+        assertEquals(1, index.size());
+        assertTrue(index.update(1L, 3.5F).isEmpty());
+
+        index.remove(1L, 11L, 3.0F);
+        assertEquals(0, index.size());
+        assertFalse(index.watches(1L));
+    }
+
+    @Test
+    public void testLoader_MergesIntoIndexAndFiresCrossedAlerts() {
+        index.add(9L, 90L, 1.0F, 5.0F);
+
+        PriceAlertIndex.Loader loader = index.loader();
+        loader.add(1L, 12L, 4.5F);
+        loader.add(1L, 10L, 4.0F);
+        loader.add(1L, 11L, 3.0F);
+        loader.add(2L, 13L, 4.0F);
+
+        Map<Long, Float> lowestPrices = new HashMap<>();
+        lowestPrices.put(1L, 4.2F);
+        List<PriceAlertIndex.Match> matches = loader.finish(lowestPrices);
+
+        assertEquals(Collections.singletonList(12L), alertIds(matches));
+        assertTrue(index.watches(9L));
+        assertTrue(index.watches(2L));
+        assertEquals(4, index.size());
+        assertEquals(Arrays.asList(11L, 10L), alertIds(index.update(1L, 2.0F)));
+    }
+
+    @Test
+    public void testLoader_KeepsAlertsAddedWhileLoading() {
+        PriceAlertIndex.Loader loader = index.loader();
+        loader.add(1L, 10L, 4.0F);
+        loader.add(1L, 11L, 3.0F);
+
+        // Added after commit while the loader reads, one of them also read by it
+        index.add(1L, 11L, 3.0F, 4.2F);
+        index.add(1L, 12L, 2.0F, 4.2F);
+
+        List<PriceAlertIndex.Match> matches = loader.finish(Collections.singletonMap(1L, 5.0F));
+
+        assertTrue(matches.isEmpty());
+        assertEquals(3, index.size());
+        assertEquals(Arrays.asList(11L, 10L), alertIds(index.update(1L, 2.5F)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testIndex_WithIdsPastIntRange() {
+        long big = Integer.MAX_VALUE + 10L;
+
+        PriceAlertIndex.Loader loader = index.loader();
+        loader.add(1L, big + 2, 4.0F);
+        loader.add(1L, big, 4.0F);
+        loader.add(1L, 5L, 4.0F);
+        loader.finish(Collections.emptyMap());
+
+        assertNull(index.add(1L, big + 1, 4.0F, null));
+        index.remove(1L, big + 2, 4.0F);
+        assertNull(index.add(1L, 1L << 40, 3.0F, null));
+
+        assertEquals(Arrays.asList(5L, big, big + 1), alertIds(index.update(1L, 3.5F)));
+        assertEquals(Collections.singletonList(1L << 40), alertIds(index.update(1L, 1.0F)));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testUpdate_MatchesScan() {
+        Random random = new Random(42);
+        Map<Long, Float> thresholds = new HashMap<>();
+
+        for (long id = 1; id <= 2000; id++) {
+            float threshold = 1 + random.nextInt(1000) / 100F;
+            thresholds.put(id, threshold);
+            assertNull(index.add(1L, id, threshold, null));
+        }
+
+        float price = 20F;
+
+        while (index.size() > 0) {
+            price -= random.nextFloat();
+            float lowest = price;
+
+            Set<Long> expected = thresholds
+                    .entrySet()
+                    .stream()
+                    .filter(x -> x.getValue() > lowest)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toSet());
+
+            assertEquals(expected, new HashSet<>(alertIds(index.update(1L, lowest))));
+            thresholds.keySet().removeAll(expected);
+            assertEquals(thresholds.size(), index.size());
+        }
+    }
+
+    private static List<Long> alertIds(List<PriceAlertIndex.Match> matches) {
+        return matches.stream().map(PriceAlertIndex.Match::getAlertId).collect(Collectors.toList());
+    }
+}
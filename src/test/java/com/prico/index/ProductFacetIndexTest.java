@@ -0,0 +1,216 @@
+package com.prico.index;
+
+import com.prico.dto.PriceRange;
+import com.prico.dto.SearchRequestDto;
+import com.prico.model.Brand;
+import com.prico.model.Category;
+import com.prico.model.Product;
+import com.prico.repository.ProductRepository;
+import com.prico.repository.projection.ProductFacetRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+public class ProductFacetIndexTest {
+
+    private static final List<Long> ALL = Arrays.asList(1L, 2L, 3L, 4L);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        // Brand 1 yogurts at stores 10 and 20, a brand 2 butter at store 20, and a product without offers
+        index.rebuild(Arrays.asList(
+                row(1L, 1L, 1L, 4.5F, 10L),
+                row(1L, 1L, 1L, 4.5F, 20L),
+                row(2L, 1L, 1L, 12F, 20L),
+                row(3L, 2L, 2L, 7F, 20L),
+                row(4L, 2L, null, null, null)));
+    }
+
+    @Test
+    public void testSearch_WithoutFilters_CountsEveryFacet() {
+        ProductFacetIndex.Result result = index.search(ALL, SearchRequestDto.builder().build());
+
+        assertEquals(4, result.getHits().getCardinality());
+        assertEquals(map(1L, 2, 2L, 2), result.getFacets().getBrands());
+        assertEquals(map(1L, 2, 2L, 1), result.getFacets().getCategories());
+        assertEquals(map(20L, 3, 10L, 1), result.getFacets().getStores());
+        assertEquals(Arrays.asList(20L, 10L), new ArrayList<>(result.getFacets().getStores().keySet()));
+        assertEquals(map(PriceRange.FROM_5_TO_10, 1, PriceRange.FROM_10_TO_20, 1, PriceRange.UNDER_5, 1),
+                result.getFacets().getPrices());
+    }
+
+    @Test
+    public void testSearch_CountsOnlyMatchedProducts() {
+        ProductFacetIndex.Result result = index.search(Arrays.asList(2L, 3L), SearchRequestDto.builder().build());
+
+        assertFalse(result.contains(1L));
+        assertEquals(map(1L, 1, 2L, 1), result.getFacets().getBrands());
+        assertEquals(map(20L, 2), result.getFacets().getStores());
+    }
+
+    @Test
+    public void testSearch_FilterKeepsOtherValuesOfItsOwnFacet() {
+        SearchRequestDto filters = SearchRequestDto
+                .builder()
+                .brandIds(Collections.singletonList(1L))
+                .storeIds(Collections.singletonList(20L))
+                .build();
+
+        ProductFacetIndex.Result result = index.search(ALL, filters);
+
+        assertEquals(2, result.getHits().getCardinality());
+        assertTrue(result.contains(1L));
+        assertTrue(result.contains(2L));
+        // Brands are counted with the store filter only, stores with the brand filter only
+        assertEquals(map(1L, 2, 2L, 1), result.getFacets().getBrands());
+        assertEquals(map(10L, 1, 20L, 2), result.getFacets().getStores());
+        assertEquals(map(1L, 2), result.getFacets().getCategories());
+    }
+
+    @Test
+    public void testSearch_ValuesWithinFacetAreOred() {
+        SearchRequestDto filters = SearchRequestDto
+                .builder()
+                .prices(Arrays.asList(PriceRange.UNDER_5, PriceRange.FROM_10_TO_20))
+                .build();
+
+        ProductFacetIndex.Result result = index.search(ALL, filters);
+
+        assertTrue(result.contains(1L));
+        assertTrue(result.contains(2L));
+        assertFalse(result.contains(3L));
+        assertFalse(result.contains(4L));
+    }
+
+    @Test
+    public void testIndex_MovesProductToNewBrandAndCategory() {
+        index.index(Product
+                .builder()
+                .id(2L)
+                .brand(Brand.builder().id(2L).build())
+                .category(Category.builder().id(3L).build())
+                .build());
+
+        ProductFacetIndex.Result result = index.search(ALL, SearchRequestDto.builder().build());
+
+        assertEquals(map(2L, 3, 1L, 1), result.getFacets().getBrands());
+        assertEquals(map(1L, 1, 2L, 1, 3L, 1), result.getFacets().getCategories());
+        // Offers are untouched
+        assertEquals(map(20L, 3, 10L, 1), result.getFacets().getStores());
+    }
+
+    @Test
+    public void testRemove() {
+        index.remove(1L);
+
+        ProductFacetIndex.Result result = index.search(ALL, SearchRequestDto.builder().build());
+
+        assertEquals(map(20L, 2), result.getFacets().getStores());
+        assertFalse(result.getFacets().getPrices().containsKey(PriceRange.UNDER_5));
+    }
+
+    @Test
+    public void testReindex_ReplacesStoresAndPrice() {
+        when(productRepository
+                .findFacetRowsByProductIds(Collections.singleton(1L)))
+                .thenReturn(Collections.singletonList(row(1L, 1L, 1L, 25F, 30L)));
+
+        index.reindex(Collections.singleton(1L));
+
+        ProductFacetIndex.Result result = index.search(ALL, SearchRequestDto
+                .builder()
+                .storeIds(Collections.singletonList(30L))
+                .build());
+
+        assertEquals(1, result.getHits().getCardinality());
+        assertTrue(result.contains(1L));
+        assertEquals(map(PriceRange.FROM_20_TO_50, 1), result.getFacets().getPrices());
+        assertFalse(index.search(ALL, SearchRequestDto.builder().build()).getFacets().getStores().containsKey(10L));
+    }
+
+    @Test
+    public void testIndex_WithIdsPastIntRange() {
+        long large = 1L << 31;
+        long tooLarge = 1L << 32;
+
+        index.index(Product.builder().id(large).brand(Brand.builder().id(3L).build()).build());
+        index.index(Product.builder().id(tooLarge).brand(Brand.builder().id(3L).build()).build());
+        index.remove(tooLarge);
+
+        ProductFacetIndex.Result result = index.search(Arrays.asList(1L, large, tooLarge), SearchRequestDto
+                .builder()
+                .brandIds(Collections.singletonList(3L))
+                .build());
+
+        assertTrue(result.contains(large));
+        assertFalse(result.contains(tooLarge));
+        assertEquals(map(1L, 1, 3L, 1), result.getFacets().getBrands());
+    }
+
+    @Test
+    public void testPriceRange_Of() {
+        assertEquals(PriceRange.UNDER_5, PriceRange.of(0F));
+        assertEquals(PriceRange.FROM_5_TO_10, PriceRange.of(5F));
+        assertEquals(PriceRange.FROM_50, PriceRange.of(50F));
+        assertEquals(PriceRange.FROM_50, PriceRange.of(1000F));
+    }
+
+    @Test
+    public void testLoad_KeepsWritesMadeWhileLoading() {
+        // Given
+        when(productRepository.findFacetRowsByProductIds(anyCollection()))
+                .thenReturn(Collections.singletonList(row(5L, 2L, 2L, 3F, 10L)));
+        when(productRepository.findFacetRows()).thenAnswer(x -> {
+            // Written after the rows were read
+            index.reindex(Collections.singleton(5L));
+            index.remove(1L);
+            return Collections.singletonList(row(1L, 1L, 1L, 4.5F, 10L));
+        });
+
+        // When
+        index.load();
+
+        // Then
+        ProductFacetIndex.Result result = index.search(Arrays.asList(1L, 5L), SearchRequestDto.builder().build());
+
+        assertEquals(map(2L, 1), result.getFacets().getBrands());
+        assertEquals(map(PriceRange.UNDER_5, 1), result.getFacets().getPrices());
+    }
+
+    private static ProductFacetRow row(Long productId, Long brandId, Long categoryId, Float lowestPrice, Long storeId) {
+        return new ProductFacetRow() {
+            public Long getProductId() { return productId; }
+            public Long getBrandId() { return brandId; }
+            public Long getCategoryId() { return categoryId; }
+            public Float getLowestPrice() { return lowestPrice; }
+            public Long getStoreId() { return storeId; }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Map<K, Integer> map(Object... entries) {
+        Map<K, Integer> map = new LinkedHashMap<>();
+
+        for (int i = 0; i < entries.length; i += 2) {
+            map.put((K) entries[i], (Integer) entries[i + 1]);
+        }
+
+        return map;
+    }
+}
@@ -0,0 +1,172 @@
+package com.prico.index;
+
+import com.prico.model.Brand;
+import com.prico.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductMatchIndexTest {
+
+    private ProductMatchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductMatchIndex();
+
+        ProductMatchIndex.Loader loader = index.loader();
+        loader.add(1L, "Strawberry Yoghurt | 1kg", "Yoplait");
+        loader.add(2L, "Petit Miam Strawberry & Banana | 70g", "Yoplait");
+        loader.add(3L, "Salted Butter | 250g", "The Organic Milk Company");
+        loader.add(4L, "Strawberry Yoghurt | 500g", "Yoplait");
+        loader.finish();
+    }
+
+    @Test
+    public void testWords_SplitsLettersFromDigitsIgnoringCase() {
+        assertArrayEquals(ProductMatchIndex.words("Yoplait 1 KG"), ProductMatchIndex.words("yoplait 1kg"));
+        assertArrayEquals(ProductMatchIndex.words("Salted Butter", "Organic"), ProductMatchIndex.words("organic, butter - SALTED"));
+        assertEquals(0, ProductMatchIndex.words(" | ", null).length);
+    }
+
+    @Test
+    public void testCandidates_ScoresNearDuplicatesFirst() {
+        List<ProductMatchIndex.Candidate> result = index.candidates("YOPLAIT strawberry yoghurt 1 kg", 10);
+
+        assertEquals(1L, result.get(0).getProductId());
+        assertEquals(1F, result.get(0).getScore());
+        assertEquals(4L, result.get(1).getProductId());
+        // yoplait, strawberry, yoghurt out of 7 words
+        assertEquals(3F / 7, result.get(1).getScore(), 1e-6);
+        assertFalse(ids(result).contains(3L));
+    }
+
+    @Test
+    public void testCandidates_WithUnrelatedName_ReturnsNothing() {
+        assertTrue(index.candidates("Bluetooth noise cancelling headphones", 10).isEmpty());
+        assertTrue(index.candidates(" - ", 10).isEmpty());
+    }
+
+    @Test
+    public void testResolve_OnlyLinksAboveThreshold() {
+        assertEquals(1L, index.resolve("Yoplait Strawberry Yoghurt 1kg", 0.8F));
+        assertNull(index.resolve("Yoplait Strawberry Yoghurt Twin Pack 1kg", 0.8F));
+        assertNull(index.resolve("Salted Butter", 0.8F));
+    }
+
+    @Test
+    public void testResolve_WithTiedProducts_DoesNotLink() {
+        index.index(Product.builder().id(5L).name("Strawberry Yoghurt | 1kg").brand(new Brand(1L, "Yoplait", "Yogurt brand")).build());
+
+        assertNull(index.resolve("Yoplait Strawberry Yoghurt 1kg", 0.8F));
+    }
+
+    @Test
+    public void testIndex_ReplacesAndRemovesProducts() {
+        index.index(Product.builder().id(1L).name("Vanilla Yoghurt | 1kg").brand(new Brand(1L, "Yoplait", "Yogurt brand")).build());
+        index.remove(3L);
+
+        assertEquals(1L, index.resolve("Yoplait Vanilla Yoghurt 1kg", 0.8F));
+        assertNull(index.resolve("Yoplait Strawberry Yoghurt 1kg", 0.8F));
+        assertTrue(index.candidates("The Organic Milk Company Salted Butter 250g", 10).isEmpty());
+    }
+
+    @Test
+    public void testCompaction_KeepsPendingWrites() {
+        for (long id = 10; id < 10 + ProductMatchIndex.MAX_PENDING; id++) {
+            index.index(Product.builder().id(id).name("Generic Item " + id).build());
+        }
+
+        index.remove(2L);
+
+        assertEquals(20L, index.resolve("generic item 20", 0.8F));
+        assertEquals(1L, index.resolve("Yoplait Strawberry Yoghurt 1kg", 0.8F));
+        assertTrue(index.candidates("Yoplait Petit Miam Strawberry & Banana 70g", 10).stream().noneMatch(x -> x.getProductId() == 2L));
+    }
+
+    @Test
+    public void testLoad_KeepsWritesMadeWhileLoading() {
+        ProductMatchIndex.Loader loader = index.loader();
+        loader.add(1L, "Strawberry Yoghurt | 1kg", "Yoplait");
+        loader.add(3L, "Salted Butter | 250g", "The Organic Milk Company");
+
+        index.index(Product.builder().id(1L).name("Vanilla Yoghurt | 1kg").brand(new Brand(1L, "Yoplait", "Yogurt brand")).build());
+        index.remove(3L);
+        loader.finish();
+
+        assertEquals(1L, index.resolve("Yoplait Vanilla Yoghurt 1kg", 0.8F));
+        assertNull(index.resolve("The Organic Milk Company Salted Butter 250g", 0.8F));
+    }
+
+    @Test
+    public void testCompaction_KeepsProductsRewrittenWhileMerging() throws Exception {
+        for (long id = 10; id < 10 + ProductMatchIndex.MAX_PENDING - 1; id++) {
+            index.index(Product.builder().id(id).name("Generic Item " + id).build());
+        }
+
+        // Rewrites product 1 over and over while the writes below fill the overlay and merge it
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                index.index(Product.builder().id(1L).name(i % 2 == 0 ? "Blueberry Yoghurt | 1kg" : "Vanilla Yoghurt | 1kg").build());
+            }
+
+            index.index(Product.builder().id(1L).name("Blueberry Yoghurt | 1kg").build());
+        });
+
+        writer.start();
+
+        for (long id = 20_000; id < 20_000 + 3 * ProductMatchIndex.MAX_PENDING; id++) {
+            index.index(Product.builder().id(id).name("Other Item " + id).build());
+        }
+
+        writer.join();
+
+        assertEquals(1L, index.resolve("Blueberry Yoghurt 1kg", 0.8F));
+        assertNull(index.resolve("Vanilla Yoghurt 1kg", 0.8F));
+    }
+
+    @Test
+    public void testCandidates_FindsNearDuplicatesInLargeCatalog() {
+        Random random = new Random(42);
+        String[] words = {"Strawberry", "Yoghurt", "Organic", "Salted", "Butter", "Full", "Cream", "Milk", "Greek",
+                "Style", "Natural", "Vanilla", "Chocolate", "Lite", "Original", "Free", "Range", "Eggs", "Bread", "Rolls"};
+        String[] brands = {"Yoplait", "Chobani", "Lurpak", "Anchor", "Tip Top", "Sunny Queen"};
+
+        ProductMatchIndex.Loader loader = index.loader();
+        String[] names = new String[20_000];
+
+        for (int i = 0; i < names.length; i++) {
+            StringBuilder name = new StringBuilder();
+            int count = 3 + random.nextInt(4);
+
+            for (int w = 0; w < count; w++) {
+                name.append(words[random.nextInt(words.length)]).append(' ');
+            }
+
+            names[i] = name.append("| ").append(random.nextInt(2000)).append('g').toString();
+            loader.add(i, names[i], brands[random.nextInt(brands.length)]);
+        }
+
+        loader.finish();
+
+        int found = 0;
+
+        for (int i = 0; i < 200; i++) {
+            // The product name without its brand, as stores often list it
+            if (ids(index.candidates(names[i], 10)).contains((long) i)) {
+                found++;
+            }
+        }
+
+        assertTrue(found >= 180, found + " of 200 found");
+    }
+
+    private static List<Long> ids(List<ProductMatchIndex.Candidate> candidates) {
+        return candidates.stream().map(ProductMatchIndex.Candidate::getProductId).collect(Collectors.toList());
+    }
+}
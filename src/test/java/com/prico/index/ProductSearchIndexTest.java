@@ -0,0 +1,159 @@
+package com.prico.index;
+
+import com.prico.model.Brand;
+import com.prico.model.Category;
+import com.prico.model.Product;
+import com.prico.repository.BrandRepository;
+import com.prico.repository.CategoryRepository;
+import com.prico.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private BrandRepository brandRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private ProductSearchIndex index;
+
+    private Brand yoplait;
+
+    private Category butter;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        yoplait = new Brand(1L, "Yoplait", "Yogurt brand");
+        Brand organic = new Brand(2L, "The Organic Milk Company", "Dairy brand");
+        Category yogurt = new Category(1L, "Yogurt", "A dairy product.");
+        butter = new Category(2L, "Butter & margarine", "A dairy product.");
+
+        Product product1 = Product
+                .builder()
+                .id(1L)
+                .name("Yoplait Strawberry Yoghurt | 1kg")
+                .brand(yoplait)
+                .category(yogurt)
+                .build();
+
+        Product product2 = Product
+                .builder()
+                .id(2L)
+                .name("Yoplait Petit Miam Strawberry & Banana | 70g")
+                .brand(yoplait)
+                .category(yogurt)
+                .build();
+
+        Product product3 = Product
+                .builder()
+                .id(3L)
+                .name("The Organic Milk Company Salted Butter | 250g")
+                .brand(organic)
+                .category(butter)
+                .build();
+
+        index.rebuild(
+                Arrays.asList(product1, product2, product3),
+                Arrays.asList(yoplait, organic),
+                Arrays.asList(yogurt, butter));
+    }
+
+    @Test
+    public void testLoad_KeepsWritesMadeWhileLoading() {
+        // Given
+        Product product = Product.builder().id(1L).name("Yoplait Strawberry Yoghurt | 1kg").brand(yoplait).build();
+
+        when(productRepository.findAll()).thenAnswer(x -> {
+            // Written after the products were read
+            index.index(Product.builder().id(4L).name("Yoplait Mango Yoghurt | 1kg").brand(yoplait).build());
+            index.remove(1L);
+            return Collections.singletonList(product);
+        });
+        when(brandRepository.findAll()).thenReturn(Collections.singletonList(yoplait));
+        when(categoryRepository.findAll()).thenReturn(Collections.emptyList());
+
+        // When
+        index.load();
+
+        // Then
+        assertEquals(Collections.singletonList(4L), index.search("yoghurt", null, null));
+    }
+
+    @Test
+    public void testSearch_ByAllCriteria() {
+        List<Long> result = index.search("banana", "yoplait", "yogurt");
+        assertEquals(Collections.singletonList(2L), result);
+    }
+
+    @Test
+    public void testSearch_WithoutName() {
+        List<Long> result = index.search(null, "organic milk", "butter");
+        assertEquals(Collections.singletonList(3L), result);
+    }
+
+    @Test
+    public void testSearch_RanksTighterMatchesFirst() {
+        List<Long> result = index.search("strawberry", null, "yogurt");
+        assertEquals(Arrays.asList(1L, 2L), result);
+    }
+
+    @Test
+    public void testSearch_ShortQueryFallsBackToScan() {
+        List<Long> result = index.search("1k", null, null);
+        assertEquals(Collections.singletonList(1L), result);
+    }
+
+    @Test
+    public void testSearch_NoCriteria_ReturnsEmpty() {
+        assertTrue(index.search(" ", null, "").isEmpty());
+    }
+
+    @Test
+    public void testIndex_UpdatedProductIsReindexed() {
+        Product updated = Product
+                .builder()
+                .id(1L)
+                .name("Yoplait Mango Yoghurt | 1kg")
+                .brand(yoplait)
+                .category(butter)
+                .build();
+
+        index.index(updated);
+
+        assertTrue(index.search("strawberry yoghurt", null, null).isEmpty());
+        assertEquals(Collections.singletonList(1L), index.search("mango", null, "butter"));
+    }
+
+    @Test
+    public void testRemove() {
+        index.remove(2L);
+
+        assertEquals(Collections.singletonList(1L), index.search(null, "yoplait", null));
+    }
+
+    @Test
+    public void testIndexBrand_RenamedBrandMatchesNewName() {
+        index.indexBrand(new Brand(1L, "Danone", "Renamed"));
+
+        assertTrue(index.search(null, "yoplait", null).isEmpty());
+        assertEquals(Arrays.asList(1L, 2L), index.search(null, "danone", null));
+    }
+}
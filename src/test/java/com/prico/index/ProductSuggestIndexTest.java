@@ -0,0 +1,175 @@
+package com.prico.index;
+
+import com.prico.dto.SuggestionDto;
+import com.prico.model.Brand;
+import com.prico.model.Category;
+import com.prico.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSuggestIndexTest {
+
+    private ProductSuggestIndex index;
+
+    private Brand yoplait;
+
+    @BeforeEach
+    public void setUp() {
+        yoplait = new Brand(1L, "Yoplait", "Yogurt brand");
+        Brand organic = new Brand(2L, "The Organic Milk Company", "Dairy brand");
+        Category yogurt = new Category(1L, "Yogurt", "A dairy product.");
+        Category butter = new Category(2L, "Butter & margarine", "A dairy product.");
+
+        Product product1 = Product
+                .builder()
+                .id(1L)
+                .name("Yoplait Strawberry Yoghurt | 1kg")
+                .brand(yoplait)
+                .category(yogurt)
+                .offerCount(5)
+                .build();
+
+        Product product2 = Product
+                .builder()
+                .id(2L)
+                .name("Yoplait Petit Miam Strawberry & Banana | 70g")
+                .brand(yoplait)
+                .category(yogurt)
+                .offerCount(2)
+                .build();
+
+        Product product3 = Product
+                .builder()
+                .id(3L)
+                .name("The Organic Milk Company Salted Butter | 250g")
+                .brand(organic)
+                .category(butter)
+                .offerCount(1)
+                .build();
+
+        index = new ProductSuggestIndex();
+        index.rebuild(
+                Arrays.asList(product1, product2, product3),
+                Arrays.asList(yoplait, organic),
+                Arrays.asList(yogurt, butter));
+    }
+
+    @Test
+    public void testSuggest_RanksByOfferCount() {
+        List<SuggestionDto> result = index.suggest("yo", 10);
+
+        // Brand and category carry the offers of both yogurts
+        assertEquals(Arrays.asList("Yogurt", "Yoplait", "Yoplait Strawberry Yoghurt | 1kg", "Yoplait Petit Miam Strawberry & Banana | 70g"),
+                texts(result));
+        assertEquals(SuggestionDto.Type.CATEGORY, result.get(0).getType());
+        assertEquals(1L, result.get(0).getId());
+        assertEquals(SuggestionDto.Type.PRODUCT, result.get(2).getType());
+    }
+
+    @Test
+    public void testSuggest_MatchesWordStartsIgnoringCase() {
+        assertEquals(Arrays.asList("Yoplait Strawberry Yoghurt | 1kg", "Yoplait Petit Miam Strawberry & Banana | 70g"),
+                texts(index.suggest("STRAW", 10)));
+        assertEquals(Arrays.asList("Butter & margarine", "The Organic Milk Company Salted Butter | 250g"),
+                texts(index.suggest("butt", 10)));
+        assertTrue(index.suggest("awberry", 10).isEmpty());
+    }
+
+    @Test
+    public void testSuggest_MatchesAcrossWords() {
+        assertEquals(Arrays.asList("Yoplait Petit Miam Strawberry & Banana | 70g"), texts(index.suggest("petit mi", 10)));
+    }
+
+    @Test
+    public void testSuggest_ReturnsTopK() {
+        assertEquals(Arrays.asList("Yogurt", "Yoplait"), texts(index.suggest("yo", 2)));
+    }
+
+    @Test
+    public void testIndex_AddsAndReweighsProducts() {
+        index.index(Product.builder().id(4L).name("Yoplait Vanilla Yoghurt | 1kg").offerCount(6).build());
+        index.index(Product.builder().id(2L).name("Yoplait Petit Miam Strawberry & Banana | 70g").offerCount(9).build());
+
+        assertEquals(Arrays.asList("Yoplait Petit Miam Strawberry & Banana | 70g", "Yoplait", "Yoplait Vanilla Yoghurt | 1kg", "Yoplait Strawberry Yoghurt | 1kg"),
+                texts(index.suggest("yoplait", 10)));
+    }
+
+    @Test
+    public void testRemove() {
+        index.remove(1L);
+
+        assertEquals(Arrays.asList("Yoplait Petit Miam Strawberry & Banana | 70g"), texts(index.suggest("straw", 10)));
+    }
+
+    @Test
+    public void testIndexBrand_KeepsWeight() {
+        yoplait.setName("Yoplait Australia");
+        index.indexBrand(yoplait);
+
+        List<SuggestionDto> result = index.suggest("yoplait", 1);
+
+        assertEquals("Yoplait Australia", result.get(0).getText());
+        assertEquals(SuggestionDto.Type.BRAND, result.get(0).getType());
+    }
+
+    @Test
+    public void testCompaction_KeepsPendingWrites() {
+        for (long id = 10; id < 10 + ProductSuggestIndex.MAX_PENDING; id++) {
+            index.index(Product.builder().id(id).name("Generic Item " + id).build());
+        }
+
+        index.remove(2L);
+
+        assertEquals(Arrays.asList("Yoplait Strawberry Yoghurt | 1kg"), texts(index.suggest("straw", 10)));
+        assertEquals(5, index.suggest("generic", 5).size());
+    }
+
+    @Test
+    public void testIndex_WithIdPastIntRange() {
+        long id = 1L << 40;
+
+        index.index(Product.builder().id(id).name("Greek Style Yoghurt | 500g").offerCount(1).build());
+
+        List<SuggestionDto> result = index.suggest("greek", 10);
+        assertEquals(1, result.size());
+        assertEquals(id, result.get(0).getId());
+        assertEquals(SuggestionDto.Type.PRODUCT, result.get(0).getType());
+    }
+
+    @Test
+    public void testPrefixIndex_StaysUnderMemoryBudget() {
+        Random random = new Random(42);
+        String[] words = {"Yoplait", "Strawberry", "Yoghurt", "Organic", "Salted", "Butter", "Full", "Cream",
+                "Milk", "Greek", "Style", "Natural", "Vanilla", "Chocolate", "Lite", "Original", "Free", "Range"};
+        List<PrefixIndex.Term> terms = new ArrayList<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder name = new StringBuilder();
+            int count = 3 + random.nextInt(4);
+
+            for (int w = 0; w < count; w++) {
+                name.append(words[random.nextInt(words.length)]).append(' ');
+            }
+
+            terms.add(new PrefixIndex.Term(i, name.append("| ").append(random.nextInt(2000)).append('g').toString(), random.nextInt(50)));
+        }
+
+        PrefixIndex prefixIndex = PrefixIndex.build(terms);
+
+        // Text included
+        assertTrue(prefixIndex.sizeInBytes() / prefixIndex.size() < 100, prefixIndex.sizeInBytes() / prefixIndex.size() + " bytes per term");
+        assertEquals(10, prefixIndex.complete("gre", 10, x -> true).size());
+    }
+
+    private static List<String> texts(List<SuggestionDto> suggestions) {
+        return suggestions.stream().map(SuggestionDto::getText).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,141 @@
+package com.prico.ingest;
+
+import com.prico.dto.crud.BulkProductStoreResultDto;
+import com.prico.dto.crud.ProductStoreRequestDto;
+import com.prico.service.ProductStoreService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+public class OfferWriteCoalescerTest {
+
+    private ProductStoreService service;
+
+    private OfferDigests digests;
+
+    private OfferWriteCoalescer coalescer;
+
+    @BeforeEach
+    public void setUp() {
+        service = mock(ProductStoreService.class);
+        digests = new OfferDigests(100, Duration.ofHours(1), null);
+        // Flushed by the tests
+        coalescer = new OfferWriteCoalescer(service, digests, Duration.ofHours(1), null);
+
+        when(service.updateAll(anyMap())).thenAnswer(invocation -> {
+            Map<Long, ProductStoreRequestDto> offers = invocation.getArgument(0);
+            offers.forEach(digests::put);
+            return updated(offers.keySet());
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        coalescer.close();
+    }
+
+    @Test
+    public void testSubmit_CoalescesUpdatesOfTheSameOfferWithinAWindow() {
+        assertEquals(OfferWriteCoalescer.Result.QUEUED, coalescer.submit(1L, offer(4.5F)));
+        assertEquals(OfferWriteCoalescer.Result.QUEUED, coalescer.submit(2L, offer(3.0F)));
+        assertEquals(OfferWriteCoalescer.Result.COALESCED, coalescer.submit(1L, offer(4.4F)));
+
+        coalescer.flush();
+
+        Map<Long, ProductStoreRequestDto> expected = new LinkedHashMap<>();
+        expected.put(1L, offer(4.4F));
+        expected.put(2L, offer(3.0F));
+        verify(service).updateAll(expected);
+        assertEquals(1, coalescer.coalescedCount());
+        assertEquals(2, coalescer.writtenCount());
+    }
+
+    @Test
+    public void testSubmit_SkipsOffersAlreadyInTheSubmittedState() {
+        coalescer.submit(1L, offer(4.5F));
+        coalescer.flush();
+
+        assertEquals(OfferWriteCoalescer.Result.SKIPPED, coalescer.submit(1L, offer(4.5F)));
+        assertEquals(OfferWriteCoalescer.Result.QUEUED, coalescer.submit(1L, offer(4.4F)));
+        // Back to the written state, but the pending update still has to be replaced
+        assertEquals(OfferWriteCoalescer.Result.COALESCED, coalescer.submit(1L, offer(4.5F)));
+
+        coalescer.flush();
+
+        verify(service, times(2)).updateAll(Collections.singletonMap(1L, offer(4.5F)));
+        assertEquals(1, digests.skippedCount());
+    }
+
+    @Test
+    public void testIsUnchanged_DoesNotCountTheSkip() {
+        coalescer.submit(1L, offer(4.5F));
+        coalescer.flush();
+
+        // The controller checks before it submits
+        assertTrue(coalescer.isUnchanged(1L, offer(4.5F)));
+        assertEquals(OfferWriteCoalescer.Result.SKIPPED, coalescer.submit(1L, offer(4.5F)));
+
+        assertEquals(1, digests.skippedCount());
+    }
+
+    @Test
+    public void testFlush_RetriesOfferByOfferWhenTheBatchFails() {
+        doThrow(new IllegalStateException("Deadlock")).when(service).updateAll(argThat(x -> x.size() > 1));
+        doThrow(new IllegalStateException("Bad offer")).when(service).updateAll(Collections.singletonMap(1L, offer(4.5F)));
+
+        coalescer.submit(1L, offer(4.5F));
+        coalescer.submit(2L, offer(3.0F));
+        coalescer.flush();
+
+        verify(service).updateAll(Collections.singletonMap(2L, offer(3.0F)));
+        assertEquals(1, coalescer.writtenCount());
+        // The failed offer is not known as written, so submitting it again is not skipped
+        assertEquals(OfferWriteCoalescer.Result.QUEUED, coalescer.submit(1L, offer(4.5F)));
+    }
+
+    @Test
+    public void testDigest_CoversEveryWrittenField() {
+        ProductStoreRequestDto offer = offer(4.5F);
+        long digest = OfferDigests.digest(offer);
+
+        assertEquals(digest, OfferDigests.digest(offer(4.5F)));
+
+        ProductStoreRequestDto moved = offer(4.5F);
+        moved.setProductId(2L);
+        ProductStoreRequestDto renamed = offer(4.5F);
+        renamed.setName("Product 1 at Store 1 (new)");
+        ProductStoreRequestDto withImage = offer(4.5F);
+        withImage.setImageUrl("https://store1.com/product1.png");
+
+        assertNotEquals(digest, OfferDigests.digest(offer(4.4F)));
+        assertNotEquals(digest, OfferDigests.digest(moved));
+        assertNotEquals(digest, OfferDigests.digest(renamed));
+        assertNotEquals(digest, OfferDigests.digest(withImage));
+    }
+
+    private static ProductStoreRequestDto offer(Float price) {
+        return ProductStoreRequestDto
+                .builder()
+                .name("Product 1 at Store 1")
+                .url("https://store1.com/product1")
+                .price(price)
+                .productId(1L)
+                .storeId(2L)
+                .build();
+    }
+
+    private static List<BulkProductStoreResultDto> updated(Collection<Long> ids) {
+        return ids
+                .stream()
+                .map(id -> BulkProductStoreResultDto.builder().id(id).status(BulkProductStoreResultDto.Status.UPDATED).build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,298 @@
+package com.prico.metrics;
+
+import com.prico.model.*;
+import com.prico.repository.*;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the number of SQL statements behind the read endpoints. A failing count usually means an N+1 crept in.
+ */
+@SpringBootTest(properties = "prico.debug.headers=true")
+@AutoConfigureMockMvc
+public class QueryCountIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductStoreRepository productStoreRepository;
+
+    private Brand brand;
+
+    private Category category;
+
+    private Product product;
+
+    private Product productWithoutOffers;
+
+    private ProductStore offer;
+
+    @BeforeEach
+    public void setUp() {
+        category = categoryRepository.save(Category.builder().name("Dairy").build());
+        brand = brandRepository.save(Brand.builder().name("Yoplait").build());
+        Brand chobani = brandRepository.save(Brand.builder().name("Chobani").build());
+
+        product = productRepository.save(Product.builder().name("Yoplait Strawberry Yoghurt | 1kg").brand(brand).category(category).build());
+        productRepository.save(Product.builder().name("Yoplait Petit Miam | 70g").brand(brand).category(category).build());
+        productWithoutOffers = productRepository.save(Product.builder().name("Chobani Greek Yoghurt | 907g").brand(chobani).category(category).build());
+
+        Store woolworths = storeRepository.save(Store.builder().name("Woolworths").build());
+        Store coles = storeRepository.save(Store.builder().name("Coles").build());
+
+        offer = productStoreRepository.save(ProductStore.builder().name("Yoplait 1kg").price(6.5F).product(product).store(woolworths).build());
+        productStoreRepository.save(ProductStore.builder().name("Yoplait 1kg").price(5.9F).product(product).store(coles).build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        productStoreRepository.deleteAll();
+        productRepository.deleteAll();
+        brandRepository.deleteAll();
+        categoryRepository.deleteAll();
+        storeRepository.deleteAll();
+    }
+
+    @Test
+    public void testGetProducts() throws Exception {
+        // Brand and category come with the page query through the entity graph
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryCountHeaderAdvice.STATEMENTS_HEADER, "1"))
+                .andExpect(header().string(QueryCountHeaderAdvice.ENTITY_LOADS_HEADER, "6"));
+    }
+
+    @Test
+    public void testGetProductById() throws Exception {
+        // The version lookup and the product
+        mockMvc.perform(get("/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryCountHeaderAdvice.STATEMENTS_HEADER, "2"));
+    }
+
+    @Test
+    public void testGetProductById_NotModified() throws Exception {
+        String etag = mockMvc.perform(get("/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        double before = statements("/products/{id}");
+
+        mockMvc.perform(get("/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        assertEquals(1, statements("/products/{id}") - before);
+    }
+
+    @Test
+    public void testGetProductStoreById() throws Exception {
+        mockMvc.perform(get("/product-stores/{id}", offer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryCountHeaderAdvice.STATEMENTS_HEADER, "1"));
+    }
+
+    @Test
+    public void testGetProductStores() throws Exception {
+        mockMvc.perform(get("/product-stores"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryCountHeaderAdvice.STATEMENTS_HEADER, "1"))
+                .andExpect(header().string(QueryCountHeaderAdvice.ENTITY_LOADS_HEADER, "7"));
+    }
+
+    @Test
+    public void testDeleteProduct_DoesNotLoadAssociations() throws Exception {
+        // existsById, the load behind deleteById and the delete itself
+        mockMvc.perform(delete("/products/{id}", productWithoutOffers.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryCountHeaderAdvice.STATEMENTS_HEADER, "3"))
+                .andExpect(header().string(QueryCountHeaderAdvice.ENTITY_LOADS_HEADER, "1"));
+    }
+
+    @Test
+    public void testGetVariations() throws Exception {
+        mockMvc.perform(get("/products/{id}/variations", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryCountHeaderAdvice.STATEMENTS_HEADER, "2"));
+    }
+
+    @Test
+    public void testGetVariations_NotModifiedUntilAnOfferChanges() throws Exception {
+        String etag = mockMvc.perform(get("/products/{id}/variations", product.getId()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        double before = statements("/products/{id}/variations");
+
+        mockMvc.perform(get("/products/{id}/variations", product.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // A single lookup of the product's offers version
+        assertEquals(1, statements("/products/{id}/variations") - before);
+
+        mockMvc.perform(post("/product-stores/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"offers\":[{\"name\":\"Yoplait 1kg\",\"url\":\"woolworths.com.au/yoplait\",\"price\":5.5," +
+                        "\"productId\":" + product.getId() + ",\"storeId\":" + offer.getStore().getId() + "}]}"))
+                .andExpect(status().is2xxSuccessful());
+
+        mockMvc.perform(get("/products/{id}/variations", product.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    public void testGetBrands_NotModifiedFromQueryCache() throws Exception {
+        String etag = mockMvc.perform(get("/brands"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        double before = statements("/brands");
+
+        mockMvc.perform(get("/brands").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        assertEquals(0, statements("/brands") - before);
+
+        mockMvc.perform(put("/brands/{id}", brand.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Yoplait Australia\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/brands").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    public void testGetBrandById_ServedFromSecondLevelCache() throws Exception {
+        mockMvc.perform(get("/brands/{id}", brand.getId()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/brands/{id}", brand.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryCountHeaderAdvice.STATEMENTS_HEADER, "0"));
+
+        FunctionCounter hits = meterRegistry
+                .find("hibernate.second.level.cache.requests")
+                .tags("region", Brand.class.getName(), "result", "hit")
+                .functionCounter();
+
+        assertNotNull(hits);
+        assertTrue(hits.count() > 0);
+    }
+
+    @Test
+    public void testUpdateBrand_KeepsSecondLevelCacheCurrent() throws Exception {
+        mockMvc.perform(get("/brands/{id}", brand.getId()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/brands/{id}", brand.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Yoplait Australia\"}"))
+                .andExpect(status().isOk());
+
+        // The update wrote the new state through to the cache, so it is still served without a select
+        mockMvc.perform(get("/brands/{id}", brand.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Yoplait Australia")))
+                .andExpect(header().string(QueryCountHeaderAdvice.STATEMENTS_HEADER, "0"));
+    }
+
+    @Test
+    public void testUpdateProduct_ReadsBrandAndCategoryFromSecondLevelCache() throws Exception {
+        // Listing products puts their brands and categories in the cache
+        mockMvc.perform(get("/products")).andExpect(status().isOk());
+
+        // Only the product select and the update reach the database
+        mockMvc.perform(put("/products/{id}", product.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Yoplait Strawberry Yoghurt | 1.2kg\",\"brandId\":" + brand.getId() + ",\"categoryId\":" + category.getId() + "}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryCountHeaderAdvice.STATEMENTS_HEADER, "2"));
+    }
+
+    @Test
+    public void testRequestsAreRecordedAsMetrics() throws Exception {
+        mockMvc.perform(get("/brands")).andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry
+                .find(QueryCountInterceptor.STATEMENTS_METRIC)
+                .tags("method", "GET", "uri", "/brands")
+                .summary();
+
+        assertNotNull(statements);
+        // The list version and the page, both cached afterwards
+        assertEquals(1, statements.count());
+        assertEquals(2, statements.totalAmount());
+    }
+
+    @Test
+    public void testJdbcTemplateStatementsAreCounted() {
+        QueryCounter.start();
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM brand", Long.class);
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM brand WHERE id = ?", Long.class, brand.getId());
+        } finally {
+            assertEquals(2, QueryCounter.stop().getStatements());
+        }
+    }
+
+    // 304s have no body, so their counts are read from the metrics rather than the debug headers
+    private double statements(String uri) {
+        DistributionSummary statements = meterRegistry
+                .find(QueryCountInterceptor.STATEMENTS_METRIC)
+                .tags("method", "GET", "uri", uri)
+                .summary();
+
+        return statements != null ? statements.totalAmount() : 0;
+    }
+}
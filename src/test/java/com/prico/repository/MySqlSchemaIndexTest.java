@@ -0,0 +1,151 @@
+package com.prico.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link SchemaIndexTest} with MySQL's optimizer, on a MySQL database migrated with the MySQL-only migrations
+ * as well and seeded so the plans are the ones a real catalog gets. Skipped where Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+// ANALYZE TABLE commits, so the seed rows are committed rather than rolled back after each test
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class MySqlSchemaIndexTest {
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    private static boolean seeded;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void mysql(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("spring.datasource.driver-class-name", MYSQL::getDriverClassName);
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.MySQL8Dialect");
+        registry.add("spring.flyway.locations", () -> "classpath:db/migration,classpath:db/vendor/{vendor}");
+    }
+
+    @BeforeEach
+    public void setUp() {
+        if (seeded) {
+            return;
+        }
+
+        // 3 stores, 200 products with 10 offers each, and 3 years of observations
+        jdbcTemplate.update("INSERT INTO store (name) VALUES ('Woolworths'), ('Coles'), ('Aldi')");
+
+        List<Object[]> products = new ArrayList<>();
+        List<Object[]> offers = new ArrayList<>();
+        List<Object[]> observations = new ArrayList<>();
+
+        for (int i = 1; i <= 200; i++) {
+            products.add(new Object[]{"Product " + i});
+        }
+
+        for (int i = 1; i <= 2000; i++) {
+            long productId = 1 + i % 200;
+            long storeId = 1 + i % 3;
+            float price = 1 + i % 97;
+
+            offers.add(new Object[]{"Offer " + i, "https://store" + storeId + ".com.au/" + i, price, productId, storeId});
+            observations.add(new Object[]{i, productId, storeId, price,
+                    Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(13L * i))});
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO product (name) VALUES (?)", products);
+        jdbcTemplate.batchUpdate("INSERT INTO product_store (name, url, price, product_id, store_id) VALUES (?, ?, ?, ?, ?)", offers);
+        jdbcTemplate.batchUpdate("INSERT INTO price_observation (product_store_id, product_id, store_id, price, observed_at) " +
+                "VALUES (?, ?, ?, ?, ?)", observations);
+        jdbcTemplate.queryForList("ANALYZE TABLE store, product, product_store, price_observation");
+
+        seeded = true;
+    }
+
+    @Test
+    public void testOffersOfProductByPrice_UsesProductPriceIndex() {
+        assertUsesIndex("SELECT ps.id, ps.price, ps.store_id FROM product_store ps " +
+                "WHERE ps.product_id = 1 ORDER BY ps.price, ps.id", "ps", "idx_product_store_product_price");
+    }
+
+    @Test
+    public void testVariationsOfProduct_DoesNotScan() {
+        assertDoesNotScan(SchemaIndexTest.VARIATIONS);
+    }
+
+    @Test
+    public void testCheapestPriceOfProduct_IsReadFromProductPriceIndex() {
+        // MySQL reads the first entry of the product in the index while planning
+        assertThat(explain("SELECT MIN(ps.price) FROM product_store ps WHERE ps.product_id = 1").get(0).get("Extra"))
+                .isEqualTo("Select tables optimized away");
+    }
+
+    @Test
+    public void testOffersOfStore_DoesNotScan() {
+        assertDoesNotScan("SELECT ps.id, ps.name, ps.price FROM product_store ps WHERE ps.store_id = 1 ORDER BY ps.id");
+    }
+
+    @Test
+    public void testOfferKeys_UsesStoreUrlIndex() {
+        assertUsesIndex("SELECT ps.id FROM product_store ps " +
+                "WHERE ps.store_id IN (1, 2) AND ps.url IN ('https://store1.com.au/3', 'https://store2.com.au/1')",
+                "ps", "idx_product_store_store_url");
+    }
+
+    @Test
+    public void testPriceHistoryOfProduct_UsesObservationIndexInOneYear() {
+        String sql = "SELECT po.observed_at, po.store_id, po.price FROM price_observation po " +
+                "WHERE po.product_id = 1 " +
+                "AND po.observed_at >= TIMESTAMP '2026-01-01 00:00:00' " +
+                "AND po.observed_at < TIMESTAMP '2026-04-01 00:00:00'";
+
+        assertUsesIndex(sql, "po", "idx_price_observation_product");
+        assertThat(row(sql, "po").get("partitions")).isEqualTo("p2026");
+    }
+
+    private void assertUsesIndex(String sql, String table, String index) {
+        assertThat(row(sql, table).get("key")).isEqualTo(index);
+        assertDoesNotScan(sql);
+    }
+
+    private void assertDoesNotScan(String sql) {
+        explain(sql).forEach(x -> assertThat(x.get("type")).as("access to %s", x.get("table")).isNotEqualTo("ALL"));
+    }
+
+    private Map<String, Object> row(String sql, String table) {
+        return explain(sql)
+                .stream()
+                .filter(x -> table.equals(x.get("table")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No plan row for " + table));
+    }
+
+    private List<Map<String, Object>> explain(String sql) {
+        return jdbcTemplate.queryForList("EXPLAIN " + sql);
+    }
+}
@@ -0,0 +1,128 @@
+package com.prico.repository;
+
+import com.prico.model.Product;
+import com.prico.model.ProductStore;
+import com.prico.model.Store;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(OfferSummaryJdbcRepository.class)
+public class OfferSummaryJdbcRepositoryTest {
+
+    @Autowired
+    private OfferSummaryJdbcRepository offerSummaryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductStoreRepository productStoreRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Product product1;
+
+    private Product product2;
+
+    private Store store1;
+
+    private Store store2;
+
+    @BeforeEach
+    public void setUp() {
+        product1 = productRepository.save(Product.builder().name("Yoplait Strawberry Yoghurt | 1kg").build());
+        product2 = productRepository.save(Product.builder().name("Yoplait Petit Miam Strawberry & Banana | 70g").build());
+        store1 = storeRepository.save(Store.builder().name("Woolworths").build());
+        store2 = storeRepository.save(Store.builder().name("Coles").build());
+
+        productStoreRepository.saveAll(Arrays.asList(
+                ProductStore.builder().name("Yoplait 1kg").price(6.5F).product(product1).store(store1).build(),
+                ProductStore.builder().name("Yoplait 1kg - special").price(5.9F).product(product1).store(store1).build(),
+                ProductStore.builder().name("Yoplait Strawberry 1kg").price(6.1F).product(product1).store(store2).build()));
+        productStoreRepository.flush();
+    }
+
+    @Test
+    public void testRefresh_ComputesCheapestOfferAndCounts() {
+        offerSummaryRepository.refresh(Collections.singleton(product1.getId()));
+
+        Product result = reload(product1);
+        assertEquals(5.9F, result.getLowestPrice());
+        assertEquals(store1.getId(), result.getCheapestStoreId());
+        assertEquals("Woolworths", result.getCheapestStoreName());
+        assertEquals(3, result.getOfferCount());
+        assertEquals(2, result.getStoreCount());
+    }
+
+    @Test
+    public void testRefresh_ProductWithoutOffers_HasEmptySummary() {
+        offerSummaryRepository.refresh(Collections.singleton(product2.getId()));
+
+        Product result = reload(product2);
+        assertNull(result.getLowestPrice());
+        assertNull(result.getCheapestStoreId());
+        assertEquals(0, result.getOfferCount());
+        assertEquals(0, result.getStoreCount());
+    }
+
+    @Test
+    public void testRefresh_BumpsOffersVersion() {
+        Long before = reload(product1).getOffersVersion();
+
+        offerSummaryRepository.refresh(Collections.singleton(product1.getId()));
+
+        assertEquals(before + 1, reload(product1).getOffersVersion());
+        assertEquals(before, reload(product2).getOffersVersion());
+    }
+
+    @Test
+    public void testRefreshMissing_OnlyComputesUnsetSummaries() {
+        assertEquals(2, offerSummaryRepository.refreshMissing());
+        assertEquals(0, offerSummaryRepository.refreshMissing());
+    }
+
+    @Test
+    public void testRenameStore_UpdatesCheapestStoreName() {
+        offerSummaryRepository.refresh(Arrays.asList(product1.getId(), product2.getId()));
+        offerSummaryRepository.renameStore(store1.getId(), "Woolies");
+
+        assertEquals("Woolies", reload(product1).getCheapestStoreName());
+    }
+
+    @Test
+    public void testRenameStore_BumpsOffersVersionOfProductsItOffers() {
+        offerSummaryRepository.refresh(Arrays.asList(product1.getId(), product2.getId()));
+        Long product1Version = reload(product1).getOffersVersion();
+        Long product2Version = reload(product2).getOffersVersion();
+
+        // Store 2 offers product 1 without being its cheapest store
+        offerSummaryRepository.renameStore(store2.getId(), "Coles Local");
+
+        Product result = reload(product1);
+        assertEquals("Woolworths", result.getCheapestStoreName());
+        assertEquals(product1Version + 1, result.getOffersVersion());
+        assertEquals(product2Version, reload(product2).getOffersVersion());
+    }
+
+    private Product reload(Product product) {
+        entityManager.clear();
+        return productRepository.findById(product.getId()).get();
+    }
+}
@@ -0,0 +1,120 @@
+package com.prico.repository;
+
+import com.prico.index.PriceAlertIndex;
+import com.prico.model.PriceAlert;
+import com.prico.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PriceAlertJdbcRepository.class)
+public class PriceAlertJdbcRepositoryTest {
+
+    @Autowired
+    private PriceAlertJdbcRepository priceAlertJdbcRepository;
+
+    @Autowired
+    private PriceAlertRepository priceAlertRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Product product1;
+
+    private Product product2;
+
+    private PriceAlert alert1;
+
+    private PriceAlert alert2;
+
+    @BeforeEach
+    public void setUp() {
+        product1 = productRepository.save(Product.builder().name("Yoplait Strawberry Yoghurt | 1kg").build());
+        product2 = productRepository.save(Product.builder().name("Yoplait Petit Miam Strawberry & Banana | 70g").build());
+        productRepository.flush();
+        jdbcTemplate.update("UPDATE product SET lowest_price = ? WHERE id = ?", 5.9F, product1.getId());
+
+        alert1 = priceAlertRepository.save(alert(product1, 5.5F, null));
+        alert2 = priceAlertRepository.save(alert(product2, 1.5F, null));
+        priceAlertRepository.save(alert(product1, 7.5F, Instant.now()));
+        priceAlertRepository.flush();
+    }
+
+    @Test
+    public void testForEachActive() {
+        List<Long> alertIds = new ArrayList<>();
+
+        priceAlertJdbcRepository.forEachActive((alertId, productId, threshold) -> {
+            alertIds.add(alertId);
+
+            if (alertId.equals(alert1.getId())) {
+                assertEquals(product1.getId(), productId);
+                assertEquals(5.5F, threshold);
+            }
+        });
+
+        assertEquals(new HashSet<>(Arrays.asList(alert1.getId(), alert2.getId())), new HashSet<>(alertIds));
+    }
+
+    @Test
+    public void testFindWatchedLowestPrices_LeavesOutProductsWithoutOffers() {
+        assertEquals(Collections.singletonMap(product1.getId(), 5.9F), priceAlertJdbcRepository.findWatchedLowestPrices());
+    }
+
+    @Test
+    public void testFindLowestPrices() {
+        Map<Long, Float> prices = priceAlertJdbcRepository.findLowestPrices(Arrays.asList(product1.getId(), product2.getId()));
+
+        assertEquals(Collections.singletonMap(product1.getId(), 5.9F), prices);
+    }
+
+    @Test
+    public void testTrigger_MarksAlertAndWritesOutboxOnce() {
+        PriceAlertIndex.Match match = new PriceAlertIndex.Match(alert1.getId(), product1.getId(), 5.5F, 4.9F);
+        Instant triggeredAt = Instant.parse("2024-03-01T10:00:00Z");
+
+        priceAlertJdbcRepository.trigger(Collections.singletonList(match), triggeredAt);
+        priceAlertJdbcRepository.trigger(Collections.singletonList(match), Instant.now());
+        entityManager.clear();
+
+        assertEquals(triggeredAt, priceAlertRepository.findById(alert1.getId()).get().getTriggeredAt());
+        assertNull(priceAlertRepository.findById(alert2.getId()).get().getTriggeredAt());
+
+        List<Map<String, Object>> outbox = jdbcTemplate.queryForList(
+                "SELECT alert_id, product_id, threshold, price, sent_at FROM price_alert_outbox");
+        assertEquals(1, outbox.size());
+        assertEquals(alert1.getId(), ((Number) outbox.get(0).get("alert_id")).longValue());
+        assertEquals(product1.getId(), ((Number) outbox.get(0).get("product_id")).longValue());
+        assertEquals(4.9F, ((Number) outbox.get(0).get("price")).floatValue());
+        assertNull(outbox.get(0).get("sent_at"));
+    }
+
+    private static PriceAlert alert(Product product, Float threshold, Instant triggeredAt) {
+        return PriceAlert
+                .builder()
+                .productId(product.getId())
+                .threshold(threshold)
+                .subscriber("shopper@example.com")
+                .createdAt(Instant.now())
+                .triggeredAt(triggeredAt)
+                .build();
+    }
+}
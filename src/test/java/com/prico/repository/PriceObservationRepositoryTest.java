@@ -0,0 +1,64 @@
+package com.prico.repository;
+
+import com.prico.model.PriceObservation;
+import com.prico.repository.projection.PricePoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class PriceObservationRepositoryTest {
+
+    @Autowired
+    private PriceObservationRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        repository.save(observation(1L, 2L, 6.5F, "2024-03-02T09:00:00Z"));
+        repository.save(observation(1L, 3L, 5.9F, "2024-03-01T09:00:00Z"));
+        repository.save(observation(1L, 2L, 6.1F, "2024-04-01T00:00:00Z"));
+        repository.save(observation(4L, 2L, 1.0F, "2024-03-01T12:00:00Z"));
+    }
+
+    @Test
+    public void testFindPoints_ReturnsProductRangeOrderedByTime() {
+        List<PricePoint> result = repository.findPoints(1L,
+                Instant.parse("2024-03-01T00:00:00Z"),
+                Instant.parse("2024-04-01T00:00:00Z"));
+
+        assertEquals(2, result.size());
+        assertEquals(5.9F, result.get(0).getPrice());
+        assertEquals(3L, result.get(0).getStoreId());
+        assertEquals(Instant.parse("2024-03-02T09:00:00Z"), result.get(1).getObservedAt());
+    }
+
+    @Test
+    public void testFindPoints_WithStore_ReturnsOnlyThatStore() {
+        List<PricePoint> result = repository.findStorePoints(1L, 2L,
+                Instant.parse("2024-01-01T00:00:00Z"),
+                Instant.parse("2025-01-01T00:00:00Z"));
+
+        assertEquals(2, result.size());
+        assertEquals(6.5F, result.get(0).getPrice());
+        assertEquals(6.1F, result.get(1).getPrice());
+    }
+
+    private static PriceObservation observation(Long productId, Long storeId, Float price, String observedAt) {
+        return PriceObservation
+                .builder()
+                .productStoreId(productId * 10 + storeId)
+                .productId(productId)
+                .storeId(storeId)
+                .price(price)
+                .observedAt(Instant.parse(observedAt))
+                .build();
+    }
+}
@@ -3,6 +3,7 @@ package com.prico.repository;
 import com.prico.model.Brand;
 import com.prico.model.Category;
 import com.prico.model.Product;
+import com.prico.util.Pagination;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +13,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -113,4 +115,15 @@ public class ProductRepositoryTest {
         List<Product> result = repository.search("strawberry","yogurt", null);
         assertEquals(2, result.size());
     }
+
+    @Test
+    public void testFindByIdGreaterThan_ReturnsPageAfterCursor() {
+        List<Product> firstPage = repository.findByIdGreaterThan(0L, Pagination.keyset(2));
+        assertEquals(2, firstPage.size());
+        assertTrue(firstPage.get(0).getId() < firstPage.get(1).getId());
+
+        List<Product> secondPage = repository.findByIdGreaterThan(firstPage.get(1).getId(), Pagination.keyset(2));
+        assertEquals(1, secondPage.size());
+        assertEquals("The Organic Milk Company Salted Butter | 250g", secondPage.get(0).getName());
+    }
 }
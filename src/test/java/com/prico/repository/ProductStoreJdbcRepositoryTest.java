@@ -0,0 +1,121 @@
+package com.prico.repository;
+
+import com.prico.dto.crud.ProductStoreRequestDto;
+import com.prico.model.PriceObservation;
+import com.prico.model.Product;
+import com.prico.model.ProductStore;
+import com.prico.model.Store;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductStoreJdbcRepository.class)
+public class ProductStoreJdbcRepositoryTest {
+
+    @Autowired
+    private ProductStoreJdbcRepository jdbcRepository;
+
+    @Autowired
+    private ProductStoreRepository productStoreRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private PriceObservationRepository priceObservationRepository;
+
+    private Product product;
+
+    private Store store;
+
+    @BeforeEach
+    public void setUp() {
+        product = productRepository.save(Product.builder().name("Yoplait Strawberry Yoghurt | 1kg").build());
+        store = storeRepository.save(Store.builder().name("Woolworths").build());
+    }
+
+    @Test
+    public void testInsertAll_ReturnsGeneratedIdsInOrder() {
+        List<ProductStoreRequestDto> offers = new ArrayList<>();
+
+        for (int i = 0; i < ProductStoreJdbcRepository.BATCH_SIZE + 5; i++) {
+            offers.add(offer("https://woolworths.com.au/" + i, 1F + i));
+        }
+
+        List<Long> ids = jdbcRepository.insertAll(offers);
+
+        assertEquals(offers.size(), ids.size());
+
+        ProductStore last = productStoreRepository.findById(ids.get(ids.size() - 1)).get();
+        assertEquals("https://woolworths.com.au/" + (offers.size() - 1), last.getUrl());
+        assertEquals(product.getId(), last.getProduct().getId());
+        assertEquals(store.getId(), last.getStore().getId());
+    }
+
+    @Test
+    public void testUpdateAll() {
+        Long id = jdbcRepository.insertAll(Collections.singletonList(offer("https://woolworths.com.au/1", 5.5F))).get(0);
+
+        ProductStoreRequestDto update = offer("https://woolworths.com.au/1", 4.9F);
+        update.setName("Yoplait Strawberry 1kg - special");
+        jdbcRepository.updateAll(Collections.singletonMap(id, update));
+
+        ProductStore updated = productStoreRepository.findById(id).get();
+        assertEquals(4.9F, updated.getPrice());
+        assertEquals("Yoplait Strawberry 1kg - special", updated.getName());
+    }
+
+    @Test
+    public void testFindOfferKeys_MatchesStoreAndUrl() {
+        Long id = jdbcRepository.insertAll(Collections.singletonList(offer("https://woolworths.com.au/1", 5.5F))).get(0);
+
+        assertEquals(id, productStoreRepository
+                .findOfferKeys(Collections.singleton(store.getId()), Arrays.asList("https://woolworths.com.au/1", "other"))
+                .get(0)
+                .getId());
+    }
+
+    @Test
+    public void testInsertObservations() {
+        Long id = jdbcRepository.insertAll(Collections.singletonList(offer("https://woolworths.com.au/1", 5.5F))).get(0);
+        Instant observedAt = Instant.parse("2024-03-01T10:15:30Z");
+
+        jdbcRepository.insertObservations(Collections.singletonList(PriceObservation
+                .builder()
+                .productStoreId(id)
+                .productId(product.getId())
+                .storeId(store.getId())
+                .price(5.5F)
+                .observedAt(observedAt)
+                .build()));
+
+        PriceObservation saved = priceObservationRepository.findAll().get(0);
+        assertEquals(id, saved.getProductStoreId());
+        assertEquals(5.5F, saved.getPrice());
+        assertEquals(observedAt, saved.getObservedAt());
+    }
+
+    private ProductStoreRequestDto offer(String url, Float price) {
+        return ProductStoreRequestDto
+                .builder()
+                .name("Yoplait Strawberry 1kg")
+                .url(url)
+                .price(price)
+                .productId(product.getId())
+                .storeId(store.getId())
+                .build();
+    }
+}
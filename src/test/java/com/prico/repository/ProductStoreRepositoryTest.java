@@ -1,15 +1,22 @@
 package com.prico.repository;
 
+import com.prico.dto.comparison.ProductVariationRow;
 import com.prico.model.*;
+import com.prico.repository.projection.ProductFacetRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -64,12 +71,16 @@ public class ProductStoreRepositoryTest {
         // Add variations;
         ProductStore product1Store1 = ProductStore
                 .builder()
+                .name("Yoplait Strawberry 1kg")
+                .price(6.5F)
                 .product(product1)
                 .store(store1)
                 .build();
 
         ProductStore product1Store2 = ProductStore
                 .builder()
+                .name("Yoplait Strawberry Yoghurt 1kg")
+                .price(5.9F)
                 .product(product1)
                 .store(store2)
                 .build();
@@ -89,4 +100,75 @@ public class ProductStoreRepositoryTest {
         List<ProductStore> result = productStoreRepository.findAllByProduct(product2);
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    public void testFindVariationRows_HasVariations_ReturnsOneRowPerVariationByPrice() {
+        List<ProductVariationRow> result = productRepository.findVariationRows(product1.getId());
+
+        assertEquals(2, result.size());
+        assertEquals("Coles", result.get(0).getStoreName());
+        assertEquals(5.9F, result.get(0).getPrice());
+        assertEquals("Woolworths", result.get(1).getStoreName());
+        assertEquals(product1.getName(), result.get(1).getProductName());
+    }
+
+    @Test
+    public void testFindVariationRows_HasNoVariations_ReturnsProductRow() {
+        List<ProductVariationRow> result = productRepository.findVariationRows(product2.getId());
+
+        assertEquals(1, result.size());
+        assertEquals(product2.getId(), result.get(0).getProductId());
+        assertNull(result.get(0).getVariationId());
+    }
+
+    @Test
+    public void testFindVariationRows_UnknownProduct_ReturnsEmpty() {
+        assertTrue(productRepository.findVariationRows(-1L).isEmpty());
+    }
+
+    @Test
+    public void testFindVariationRowsByProductIds_ReturnsRowsOfEveryProduct() {
+        List<ProductVariationRow> result = productRepository.findVariationRowsByProductIds(Arrays.asList(product2.getId(), product1.getId(), -1L));
+
+        assertEquals(3, result.size());
+        assertEquals(product1.getId(), result.get(0).getProductId());
+        assertEquals("Coles", result.get(0).getStoreName());
+        assertEquals(product1.getId(), result.get(1).getProductId());
+        assertEquals(product2.getId(), result.get(2).getProductId());
+        assertNull(result.get(2).getVariationId());
+    }
+
+    @Test
+    public void testStreamAll_ReturnsOffersWithProductAndStoreById() {
+        try (Stream<ProductStore> stream = productStoreRepository.streamAll()) {
+            List<ProductStore> result = stream.collect(Collectors.toList());
+
+            assertEquals(2, result.size());
+            assertTrue(result.get(0).getId() < result.get(1).getId());
+            assertEquals("Woolworths", result.get(0).getStore().getName());
+            assertEquals(product1.getName(), result.get(1).getProduct().getName());
+        }
+    }
+
+    @Test
+    public void testFindFacetRows_ReturnsOneRowPerProductAndStore() {
+        List<ProductFacetRow> result = productRepository.findFacetRows();
+
+        assertEquals(3, result.size());
+        assertEquals(2, result.stream().filter(x -> x.getProductId().equals(product1.getId())).count());
+        assertNull(result
+                .stream()
+                .filter(x -> x.getProductId().equals(product2.getId()))
+                .findFirst()
+                .get()
+                .getStoreId());
+    }
+
+    @Test
+    public void testFindFacetRowsByProductIds_ReturnsOnlyRequestedProducts() {
+        List<ProductFacetRow> result = productRepository.findFacetRowsByProductIds(Collections.singleton(product1.getId()));
+
+        assertEquals(2, result.size());
+        assertTrue(result.stream().allMatch(x -> x.getProductId().equals(product1.getId()) && x.getStoreId() != null));
+    }
 }
@@ -0,0 +1,47 @@
+package com.prico.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migrates a database created by the application before Flyway, which the main configuration baselines at V1.
+ */
+public class SchemaBaselineTest {
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:baseline-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    @Test
+    public void testMigrate_FromBaseline_AddsEverythingAfterV1() {
+        // Given
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__create_schema.sql")).execute(dataSource);
+        jdbcTemplate.update("INSERT INTO product (name) VALUES ('Yoplait Strawberry Yoghurt | 1kg')");
+
+        // When
+        Flyway
+                .configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        // Then
+        Map<String, Object> product = jdbcTemplate.queryForMap("SELECT lowest_price, offer_count, version FROM product");
+        assertThat(product.get("offer_count")).isNull();
+        assertThat(product.get("version")).isEqualTo(0L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price_observation", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price_alert", Integer.class)).isZero();
+    }
+}
@@ -0,0 +1,83 @@
+package com.prico.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN for the hot offer and price history queries against the migrated schema and fails
+ * if any of them stops using its index. This runs on H2; {@link MySqlSchemaIndexTest} checks the same
+ * queries with MySQL's optimizer.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class SchemaIndexTest {
+
+    // ProductRepository.findVariationRows. No index covers the offer names and urls, so the offers are read from the table
+    static final String VARIATIONS = "SELECT p.id, p.name, p.image_url, s.id, s.name, s.website, ps.id, ps.name, ps.url, ps.image_url, ps.price " +
+            "FROM product p " +
+            "LEFT JOIN product_store ps ON ps.product_id = p.id " +
+            "LEFT JOIN store s ON ps.store_id = s.id " +
+            "WHERE p.id = 1 " +
+            "ORDER BY ps.price, ps.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testOffersOfProductByPrice_UsesProductPriceIndex() {
+        assertUsesIndex("SELECT ps.id, ps.price, ps.store_id FROM product_store ps " +
+                "WHERE ps.product_id = 1 ORDER BY ps.price, ps.id", "idx_product_store_product_price");
+    }
+
+    @Test
+    public void testVariationsOfProduct_DoesNotScan() {
+        // Any index leading with product_id will do
+        assertDoesNotScan(VARIATIONS);
+    }
+
+    @Test
+    public void testCheapestPriceOfProduct_UsesProductPriceIndex() {
+        assertUsesIndex("SELECT MIN(ps.price) FROM product_store ps WHERE ps.product_id = 1",
+                "idx_product_store_product_price");
+    }
+
+    @Test
+    public void testOffersOfStore_DoesNotScan() {
+        // Any index leading with store_id will do, including the one behind the foreign key
+        assertDoesNotScan("SELECT ps.id, ps.name, ps.price FROM product_store ps WHERE ps.store_id = 1 ORDER BY ps.id");
+    }
+
+    @Test
+    public void testOfferKeys_UsesStoreUrlIndex() {
+        assertUsesIndex("SELECT ps.id FROM product_store ps " +
+                "WHERE ps.store_id IN (1, 2) AND ps.url IN ('https://woolworths.com.au/1', 'https://coles.com.au/1')",
+                "idx_product_store_store_url");
+    }
+
+    @Test
+    public void testPriceHistoryOfProduct_UsesObservationIndex() {
+        assertUsesIndex("SELECT po.observed_at, po.store_id, po.price FROM price_observation po " +
+                "WHERE po.product_id = 1 " +
+                "AND po.observed_at >= TIMESTAMP '2024-01-01 00:00:00' " +
+                "AND po.observed_at < TIMESTAMP '2024-04-01 00:00:00'",
+                "idx_price_observation_product");
+    }
+
+    private void assertUsesIndex(String sql, String index) {
+        assertThat(explain(sql)).containsIgnoringCase(index);
+        assertDoesNotScan(sql);
+    }
+
+    private void assertDoesNotScan(String sql) {
+        assertThat(explain(sql)).doesNotContainIgnoringCase("tableScan");
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
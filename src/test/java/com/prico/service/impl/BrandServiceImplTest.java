@@ -1,10 +1,14 @@
 package com.prico.service.impl;
 
+import com.prico.dto.ResourceVersionDto;
 import com.prico.dto.crud.BrandRequestDto;
 import com.prico.dto.crud.BrandResponseDto;
 import com.prico.model.Brand;
 import com.prico.exception.ResourceNotFoundException;
+import com.prico.index.ProductSearchIndex;
+import com.prico.index.ProductSuggestIndex;
 import com.prico.repository.BrandRepository;
+import com.prico.repository.projection.TableVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -17,8 +21,10 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,6 +33,12 @@ public class BrandServiceImplTest {
     @Mock
     private BrandRepository brandRepository;
 
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductSuggestIndex suggestIndex;
+
     @InjectMocks
     private BrandServiceImpl brandService;
 
@@ -73,6 +85,23 @@ public class BrandServiceImplTest {
         assertThat(result.getDescription()).isEqualTo("Brand description");
     }
 
+    @Test
+    public void testGetListVersion() {
+        // Given
+        TableVersion version = mock(TableVersion.class);
+        when(version.getRowCount()).thenReturn(2L);
+        when(version.getMaxId()).thenReturn(5L);
+        when(version.getVersionSum()).thenReturn(3L);
+        when(brandRepository.findTableVersion()).thenReturn(version);
+
+        // When
+        ResourceVersionDto result = brandService.getListVersion();
+
+        // Then
+        assertEquals("\"2-5-3\"", result.getEtag());
+        assertNull(result.getLastModified());
+    }
+
     @Test
     public void testGetById_WhenBrandNotFound_ThrowNotFoundException() {
         // Given
@@ -4,6 +4,8 @@ import com.prico.dto.crud.CategoryRequestDto;
 import com.prico.dto.crud.CategoryResponseDto;
 import com.prico.model.Category;
 import com.prico.exception.ResourceNotFoundException;
+import com.prico.index.ProductSearchIndex;
+import com.prico.index.ProductSuggestIndex;
 import com.prico.repository.CategoryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,6 +29,12 @@ public class CategoryServiceImplTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductSuggestIndex suggestIndex;
+
     @InjectMocks
     private CategoryServiceImpl productCategoryService;
 
@@ -0,0 +1,260 @@
+package com.prico.service.impl;
+
+import com.prico.dto.alert.PriceAlertRequestDto;
+import com.prico.dto.alert.PriceAlertResponseDto;
+import com.prico.exception.ResourceNotFoundException;
+import com.prico.index.PriceAlertIndex;
+import com.prico.model.PriceAlert;
+import com.prico.model.Product;
+import com.prico.repository.PriceAlertJdbcRepository;
+import com.prico.repository.PriceAlertRepository;
+import com.prico.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class PriceAlertServiceImplTest {
+
+    @Mock
+    private PriceAlertRepository repository;
+
+    @Mock
+    private PriceAlertJdbcRepository jdbcRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Spy
+    private PriceAlertIndex index = new PriceAlertIndex();
+
+    @InjectMocks
+    private PriceAlertServiceImpl priceAlertService;
+
+    private Product product;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        product = Product.builder().id(1L).name("Product 1").lowestPrice(5.0F).build();
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(repository.save(any())).thenAnswer(x -> {
+            PriceAlert alert = x.getArgument(0);
+            alert.setId(10L);
+            return alert;
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        priceAlertService.shutdown();
+    }
+
+    @Test
+    public void testCreate_IndexesAlert() {
+        // When
+        PriceAlertResponseDto result = priceAlertService.create(request(4.0F));
+
+        // Then
+        assertThat(result.getId()).isEqualTo(10L);
+        assertThat(result.getThreshold()).isEqualTo(4.0F);
+        assertThat(result.getCreatedAt()).isNotNull();
+        assertNull(result.getTriggeredAt());
+        assertTrue(index.watches(1L));
+        verify(jdbcRepository, never()).trigger(any(), any());
+    }
+
+    @Test
+    public void testCreate_IndexesAlertAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            priceAlertService.create(request(4.0F));
+
+            // Then
+            assertFalse(index.watches(1L));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertTrue(index.watches(1L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testCreate_TriggersStraightAwayBelowLowestPrice() {
+        // When
+        PriceAlertResponseDto result = priceAlertService.create(request(6.0F));
+
+        // Then
+        assertThat(result.getTriggeredAt()).isNotNull();
+        assertFalse(index.watches(1L));
+
+        ArgumentCaptor<List<PriceAlertIndex.Match>> matches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcRepository).trigger(matches.capture(), eq(result.getTriggeredAt()));
+        assertEquals(10L, matches.getValue().get(0).getAlertId());
+        assertEquals(5.0F, matches.getValue().get(0).getPrice());
+    }
+
+    @Test
+    public void testCreate_WithNonExistentProduct() {
+        PriceAlertRequestDto request = request(4.0F);
+        request.setProductId(9L);
+
+        assertThrows(ResourceNotFoundException.class, () -> priceAlertService.create(request));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    public void testMatch_TriggersAlertsThePriceDroppedBelow() {
+        // Given
+        index.add(1L, 10L, 4.0F, 5.0F);
+        index.add(1L, 11L, 3.0F, 5.0F);
+        when(jdbcRepository.findLowestPrices(Collections.singletonList(1L))).thenReturn(Collections.singletonMap(1L, 3.5F));
+
+        // When
+        priceAlertService.match(Collections.singletonList(1L));
+
+        // Then
+        ArgumentCaptor<List<PriceAlertIndex.Match>> matches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcRepository).trigger(matches.capture(), any(Instant.class));
+        assertEquals(1, matches.getValue().size());
+        assertEquals(10L, matches.getValue().get(0).getAlertId());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testOnOffersChanged_MatchesWatchedProductsOffTheCallingThread() {
+        // Given
+        index.add(1L, 10L, 4.0F, 5.0F);
+        when(jdbcRepository.findLowestPrices(anyCollection())).thenReturn(Collections.singletonMap(1L, 3.5F));
+
+        // When
+        priceAlertService.onOffersChanged(Arrays.asList(1L, 2L, 1L));
+
+        // Then
+        verify(jdbcRepository, timeout(1000)).trigger(anyList(), any(Instant.class));
+        verify(jdbcRepository).findLowestPrices(Collections.singletonList(1L));
+    }
+
+    @Test
+    public void testOnOffersChanged_IgnoresUnwatchedProducts() {
+        // When
+        priceAlertService.onOffersChanged(Collections.singleton(2L));
+
+        // Then
+        verifyNoInteractions(jdbcRepository);
+    }
+
+    @Test
+    public void testLoad_TriggersAlertsCrossedWhileDown() {
+        // Given
+        doAnswer(x -> {
+            PriceAlertJdbcRepository.AlertConsumer consumer = x.getArgument(0);
+            consumer.accept(10L, 1L, 4.0F);
+            consumer.accept(11L, 1L, 6.0F);
+            return null;
+        }).when(jdbcRepository).forEachActive(any());
+        when(jdbcRepository.findWatchedLowestPrices()).thenReturn(Collections.singletonMap(1L, 5.0F));
+
+        // When
+        priceAlertService.load();
+
+        // Then
+        ArgumentCaptor<List<PriceAlertIndex.Match>> matches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcRepository).trigger(matches.capture(), any(Instant.class));
+        assertEquals(11L, matches.getValue().get(0).getAlertId());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testDelete_RemovesAlertFromIndex() {
+        // Given
+        PriceAlert alert = PriceAlert.builder().id(10L).productId(1L).threshold(4.0F).subscriber("a@b.com").build();
+        index.add(1L, 10L, 4.0F, 5.0F);
+        when(repository.findById(10L)).thenReturn(Optional.of(alert));
+
+        // When
+        priceAlertService.delete(10L);
+
+        // Then
+        verify(repository).delete(alert);
+        assertFalse(index.watches(1L));
+    }
+
+    @Test
+    public void testDelete_RemovesAlertFromIndexAfterCommit() {
+        // Given
+        PriceAlert alert = PriceAlert.builder().id(10L).productId(1L).threshold(4.0F).subscriber("a@b.com").build();
+        index.add(1L, 10L, 4.0F, 5.0F);
+        when(repository.findById(10L)).thenReturn(Optional.of(alert));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            priceAlertService.delete(10L);
+
+            // Then
+            assertTrue(index.watches(1L));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertFalse(index.watches(1L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testLoad_KeepsAlertsWatchedWhileLoading() {
+        // Given
+        doAnswer(x -> {
+            PriceAlertJdbcRepository.AlertConsumer consumer = x.getArgument(0);
+            consumer.accept(10L, 1L, 4.0F);
+            // Created and indexed after commit while the alerts are read
+            index.add(2L, 20L, 3.0F, 5.0F);
+            return null;
+        }).when(jdbcRepository).forEachActive(any());
+        when(jdbcRepository.findWatchedLowestPrices()).thenReturn(Collections.singletonMap(1L, 5.0F));
+
+        // When
+        priceAlertService.load();
+
+        // Then
+        assertTrue(index.watches(1L));
+        assertTrue(index.watches(2L));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void testDelete_WithNonExistentId() {
+        when(repository.findById(10L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> priceAlertService.delete(10L));
+    }
+
+    private static PriceAlertRequestDto request(Float threshold) {
+        return PriceAlertRequestDto
+                .builder()
+                .productId(1L)
+                .threshold(threshold)
+                .subscriber("shopper@example.com")
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.prico.service.impl;
+
+import com.prico.dto.history.PriceHistoryResponseDto;
+import com.prico.dto.history.PriceInterval;
+import com.prico.exception.BadRequestException;
+import com.prico.exception.ResourceNotFoundException;
+import com.prico.repository.PriceObservationRepository;
+import com.prico.repository.ProductRepository;
+import com.prico.repository.projection.PricePoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class PriceHistoryServiceImplTest {
+
+    @Mock
+    private PriceObservationRepository priceObservationRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private PriceHistoryServiceImpl priceHistoryService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(productRepository.existsById(1L)).thenReturn(true);
+    }
+
+    @Test
+    public void testGetHistory_AggregatesRangeAndBuckets() {
+        // Given
+        List<PricePoint> points = Arrays.asList(
+                point("2024-03-01T09:00:00Z", 2L, 6.0F),
+                point("2024-03-01T18:00:00Z", 3L, 5.0F),
+                point("2024-03-04T09:00:00Z", 2L, 4.0F));
+
+        when(priceObservationRepository.findPoints(1L,
+                Instant.parse("2024-03-01T00:00:00Z"),
+                Instant.parse("2024-04-01T00:00:00Z")))
+                .thenReturn(points);
+
+        // When
+        PriceHistoryResponseDto result = priceHistoryService.getHistory(1L, null,
+                LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), PriceInterval.DAY);
+
+        // Then
+        assertEquals(4.0F, result.getMinPrice());
+        assertEquals(6.0F, result.getMaxPrice());
+        assertEquals(5.0F, result.getAvgPrice());
+        assertEquals(3L, result.getObservations());
+        assertEquals(2, result.getSeries().size());
+        assertEquals(Instant.parse("2024-03-01T00:00:00Z"), result.getSeries().get(0).getBucket());
+        assertEquals(5.5F, result.getSeries().get(0).getAvgPrice());
+        assertEquals(2L, result.getSeries().get(0).getObservations());
+        assertEquals(Instant.parse("2024-03-04T00:00:00Z"), result.getSeries().get(1).getBucket());
+    }
+
+    @Test
+    public void testGetHistory_WithStoreAndNoObservations_ReturnsEmptySeries() {
+        // Given
+        when(priceObservationRepository.findStorePoints(eq(1L), eq(2L), any(), any())).thenReturn(Collections.emptyList());
+
+        // When
+        PriceHistoryResponseDto result = priceHistoryService.getHistory(1L, 2L, null, null, PriceInterval.WEEK);
+
+        // Then
+        assertNull(result.getMinPrice());
+        assertEquals(0L, result.getObservations());
+        assertTrue(result.getSeries().isEmpty());
+        assertEquals(result.getTo().minusDays(PriceHistoryServiceImpl.DEFAULT_RANGE_DAYS), result.getFrom());
+    }
+
+    @Test
+    public void testGetHistory_WhenProductNotFound_ThrowNotFoundException() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> priceHistoryService.getHistory(9L, null, null, null, PriceInterval.DAY));
+    }
+
+    @Test
+    public void testGetHistory_WithInvertedRange_ThrowBadRequestException() {
+        assertThrows(BadRequestException.class,
+                () -> priceHistoryService.getHistory(1L, null, LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 1), PriceInterval.DAY));
+    }
+
+    @Test
+    public void testBucketOf_AlignsWeeksAndMonthsInUtc() {
+        Instant instant = Instant.parse("2024-03-14T22:30:00Z");
+
+        assertEquals(Instant.parse("2024-03-14T22:00:00Z"), PriceInterval.HOUR.bucketOf(instant));
+        assertEquals(Instant.parse("2024-03-11T00:00:00Z"), PriceInterval.WEEK.bucketOf(instant));
+        assertEquals(Instant.parse("2024-03-01T00:00:00Z"), PriceInterval.MONTH.bucketOf(instant));
+    }
+
+    private static PricePoint point(String observedAt, Long storeId, Float price) {
+        PricePoint point = mock(PricePoint.class);
+        when(point.getObservedAt()).thenReturn(Instant.parse(observedAt));
+        when(point.getStoreId()).thenReturn(storeId);
+        when(point.getPrice()).thenReturn(price);
+        return point;
+    }
+}
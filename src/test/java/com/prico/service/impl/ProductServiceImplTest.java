@@ -1,32 +1,57 @@
 package com.prico.service.impl;
 
+import com.prico.cache.ResponseCache;
+import com.prico.config.CacheConfig;
 import com.prico.dto.comparison.ProductStoreDto;
 import com.prico.dto.comparison.ProductVariationResponseDto;
+import com.prico.dto.comparison.ProductVariationRow;
 import com.prico.dto.comparison.StoreDto;
 import com.prico.dto.crud.ProductRequestDto;
 import com.prico.dto.crud.ProductResponseDto;
+import com.prico.dto.PriceRange;
+import com.prico.dto.ResourceVersionDto;
+import com.prico.dto.SearchFacetsDto;
 import com.prico.dto.SearchRequestDto;
+import com.prico.dto.SearchResponseDto;
+import com.prico.dto.SuggestionDto;
 import com.prico.model.Product;
 import com.prico.exception.ResourceNotFoundException;
-import com.prico.model.ProductStore;
-import com.prico.model.Store;
+import com.prico.index.ProductFacetIndex;
+import com.prico.index.ProductMatchIndex;
+import com.prico.index.ProductSearchIndex;
+import com.prico.index.ProductSuggestIndex;
 import com.prico.repository.ProductRepository;
-import com.prico.repository.ProductStoreRepository;
+import com.prico.repository.projection.ProductVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 public class ProductServiceImplTest {
@@ -35,7 +60,25 @@ public class ProductServiceImplTest {
     private ProductRepository productRepository;
 
     @Mock
-    private ProductStoreRepository productStoreRepository;
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductSuggestIndex suggestIndex;
+
+    @Mock
+    private ProductFacetIndex facetIndex;
+
+    @Mock
+    private ProductMatchIndex matchIndex;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache variationsCache;
+
+    @Mock
+    private ResponseCache responseCache;
 
     @InjectMocks
     private ProductServiceImpl productService;
@@ -43,6 +86,8 @@ public class ProductServiceImplTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+
+        when(cacheManager.getCache(CacheConfig.VARIATIONS_CACHE)).thenReturn(variationsCache);
     }
 
     @Test
@@ -73,7 +118,7 @@ public class ProductServiceImplTest {
         // Given
         long productId = 1L;
         Product mockProduct = new Product(productId, "Product 1", "Product description");
-        when(productRepository.findById(productId)).thenReturn(Optional.of(mockProduct));
+        when(productRepository.findWithBrandAndCategoryById(productId)).thenReturn(Optional.of(mockProduct));
 
         // When
         ProductResponseDto result = productService.getById(productId);
@@ -85,11 +130,59 @@ public class ProductServiceImplTest {
         assertThat(result.getDescription()).isEqualTo("Product description");
     }
 
+    @Test
+    public void testGetVersion() {
+        // Given
+        long productId = 1L;
+        ProductVersion version = mock(ProductVersion.class);
+        when(version.getVersion()).thenReturn(3L);
+        when(version.getOffersVersion()).thenReturn(7L);
+        when(version.getBrandVersion()).thenReturn(1L);
+        when(version.getUpdatedAt()).thenReturn(Instant.parse("2024-05-01T10:00:00Z"));
+        when(version.getBrandUpdatedAt()).thenReturn(Instant.parse("2024-05-02T10:00:00Z"));
+        when(productRepository.findVersionById(productId)).thenReturn(Optional.of(version));
+
+        // When
+        ResourceVersionDto result = productService.getVersion(productId);
+
+        // Then
+        assertEquals("\"3-7-1-0\"", result.getEtag());
+        assertEquals(Instant.parse("2024-05-02T10:00:00Z"), result.getLastModified());
+    }
+
+    @Test
+    public void testGetVersion_WhenProductNotFound_ThrowNotFoundException() {
+        // Given
+        when(productRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThrows(ResourceNotFoundException.class, () -> productService.getVersion(1L));
+    }
+
+    @Test
+    public void testGetVariationsVersion() {
+        // Given
+        long productId = 1L;
+        ProductVersion version = mock(ProductVersion.class);
+        when(version.getVersion()).thenReturn(3L);
+        when(version.getOffersVersion()).thenReturn(7L);
+        when(version.getBrandVersion()).thenReturn(1L);
+        when(version.getUpdatedAt()).thenReturn(Instant.parse("2024-05-01T10:00:00Z"));
+        when(productRepository.findVersionById(productId)).thenReturn(Optional.of(version));
+
+        // When
+        ResourceVersionDto result = productService.getVariationsVersion(productId);
+
+        // Then
+        assertEquals("\"3-7\"", result.getEtag());
+        assertEquals(Instant.parse("2024-05-01T10:00:00Z"), result.getLastModified());
+    }
+
     @Test
     public void testGetById_WhenProductNotFound_ThrowNotFoundException() {
         // Given
         long productId = 1L;
-        when(productRepository.findById(productId)).thenReturn(Optional.empty());
+        when(productRepository.findWithBrandAndCategoryById(productId)).thenReturn(Optional.empty());
 
         // When/Then
         assertThrows(ResourceNotFoundException.class, () -> productService.getById(productId));
@@ -114,6 +207,8 @@ public class ProductServiceImplTest {
         assertThat(result.getId()).isEqualTo(1L);
         assertThat(result.getName()).isEqualTo("New Product");
         assertThat(result.getDescription()).isEqualTo("Product description");
+        verify(suggestIndex).index(savedProduct);
+        verify(matchIndex).index(savedProduct);
     }
 
     @Test
@@ -139,6 +234,39 @@ public class ProductServiceImplTest {
         assertThat(result.getId()).isEqualTo(productId);
         assertThat(result.getName()).isEqualTo("Updated Product");
         assertThat(result.getDescription()).isEqualTo("Product description");
+        verify(responseCache).evict(productId);
+    }
+
+    @Test
+    public void testUpdate_EvictsCachesAndIndexesAfterCommit() {
+        // Given
+        long productId = 1L;
+        ProductRequestDto updatedProduct = ProductRequestDto.builder().name("Updated Product").build();
+        Product savedProduct = new Product(1L, "Updated Product", null);
+
+        when(productRepository.findById(productId)).thenReturn(Optional.of(new Product(1L, "Original Product", null)));
+        when(productRepository.save(any())).thenReturn(savedProduct);
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // When
+            productService.update(productId, updatedProduct);
+
+            // Then
+            verify(variationsCache, never()).evict(productId);
+            verify(responseCache, never()).evict(productId);
+            verifyNoInteractions(searchIndex, facetIndex, suggestIndex, matchIndex);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            verify(variationsCache).evict(productId);
+            verify(responseCache).evict(productId);
+            verify(searchIndex).index(savedProduct);
+            verify(matchIndex).index(savedProduct);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test
@@ -167,6 +295,77 @@ public class ProductServiceImplTest {
 
         // Then
         verify(productRepository).deleteById(productId);
+        verify(suggestIndex).remove(productId);
+        verify(matchIndex).remove(productId);
+        verify(responseCache).evict(productId);
+    }
+
+    @Test
+    public void testDelete_WithOffers_KeepsIndexes() {
+        // Given
+        long productId = 1L;
+        when(productRepository.existsById(productId)).thenReturn(true);
+        doThrow(new DataIntegrityViolationException("fk_product_store_product")).when(productRepository).flush();
+
+        // When/Then
+        assertThrows(DataIntegrityViolationException.class, () -> productService.delete(productId));
+        verifyNoInteractions(searchIndex, facetIndex, suggestIndex, matchIndex);
+    }
+
+    @Test
+    public void testDelete_KeepsIndexesUntilCommit() {
+        // Given
+        long productId = 1L;
+        when(productRepository.existsById(productId)).thenReturn(true);
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // When
+            productService.delete(productId);
+
+            // Then
+            verifyNoInteractions(searchIndex, facetIndex, suggestIndex, matchIndex);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            verify(searchIndex).remove(productId);
+            verify(facetIndex).remove(productId);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testSuggest_CapsLimit() {
+        // Given
+        List<SuggestionDto> suggestions = Collections.singletonList(SuggestionDto
+                .builder()
+                .text("Yoplait")
+                .type(SuggestionDto.Type.BRAND)
+                .id(1L)
+                .build());
+        when(suggestIndex.isReady()).thenReturn(true);
+        when(suggestIndex.suggest("yo", 20)).thenReturn(suggestions);
+
+        // When
+        List<SuggestionDto> result = productService.suggest("yo", 1000);
+
+        // Then
+        assertEquals(suggestions, result);
+    }
+
+    @Test
+    public void testSuggest_WithShortQuery_ReturnsEmpty() {
+        // Given
+        when(suggestIndex.isReady()).thenReturn(true);
+
+        // When
+        List<SuggestionDto> result = productService.suggest(" y ", 10);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(suggestIndex, never()).suggest(any(), anyInt());
     }
 
     @Test
@@ -196,9 +395,11 @@ public class ProductServiceImplTest {
                 .brand("Brand Name")
                 .build();
 
-        List<ProductResponseDto> results = productService.search(searchRequestDto);
+        SearchResponseDto response = productService.search(searchRequestDto);
+        List<ProductResponseDto> results = response.getProducts();
 
         // Then
+        assertThat(response.getFacets()).isNull();
         assertThat(results).isNotNull();
         assertEquals(2, results.size());
         assertThat(results.get(0).getId()).isEqualTo(1L);
@@ -210,38 +411,119 @@ public class ProductServiceImplTest {
     }
 
     @Test
-    public void testGetVariationsByProduct() {
+    public void testSearch_WhileFacetIndexLoading_FiltersOnProductFields() {
         // Given
-        Product product = Product
+        Product product1 = Product.builder().id(1L).name("Product 1").lowestPrice(4.5F).build();
+        Product product2 = Product.builder().id(2L).name("Product 2").lowestPrice(12F).build();
+        when(searchIndex.isReady()).thenReturn(true);
+        when(productRepository
+                .search("product", null, null))
+                .thenReturn(Arrays.asList(product1, product2));
+
+        // When
+        SearchRequestDto searchRequestDto = SearchRequestDto
                 .builder()
-                .id(1L)
-                .name("Product 1")
-                .description("Product 1 description")
-                .imageUrl("https://prico.com/images/product1.jpg")
+                .name("Product")
+                .prices(Collections.singletonList(PriceRange.FROM_10_TO_20))
                 .build();
 
+        SearchResponseDto response = productService.search(searchRequestDto);
+
+        // Then
+        assertEquals(1, response.getProducts().size());
+        assertThat(response.getProducts().get(0).getId()).isEqualTo(2L);
+        assertThat(response.getFacets()).isNull();
+    }
+
+    @Test
+    public void testSearch_WhenIndexReady_HydratesRankedIds() {
+        // Given
+        Product product1 = new Product(1L, "Product 1", "Product 1 description");
+        Product product2 = new Product(2L, "Product 2", "Product 2 description");
+        SearchFacetsDto facets = SearchFacetsDto
+                .builder()
+                .brands(Collections.singletonMap(5L, 2))
+                .build();
+
+        SearchRequestDto searchRequestDto = SearchRequestDto
+                .builder()
+                .name("Product")
+                .build();
+
+        when(searchIndex.isReady()).thenReturn(true);
+        when(facetIndex.isReady()).thenReturn(true);
+        when(searchIndex
+                .search("Product", null, null))
+                .thenReturn(Arrays.asList(2L, 1L));
+        when(facetIndex
+                .search(Arrays.asList(2L, 1L), searchRequestDto))
+                .thenReturn(new ProductFacetIndex.Result(RoaringBitmap.bitmapOf(1, 2), facets));
         when(productRepository
-                .findById(1L))
-                .thenReturn(Optional.of(product));
+                .findAllById(Arrays.asList(2L, 1L)))
+                .thenReturn(Arrays.asList(product1, product2));
+
+        // When
+        SearchResponseDto response = productService.search(searchRequestDto);
+        List<ProductResponseDto> results = response.getProducts();
+
+        // Then
+        assertEquals(2, results.size());
+        assertThat(results.get(0).getId()).isEqualTo(2L);
+        assertThat(results.get(1).getId()).isEqualTo(1L);
+        assertThat(response.getFacets()).isEqualTo(facets);
+        verify(productRepository, never()).search(any(), any(), any());
+    }
+
+    @Test
+    public void testSearch_WithFacetFilters_HydratesOnlyHits() {
+        // Given
+        Product product1 = new Product(1L, "Product 1", "Product 1 description");
 
-        Store store = Store
+        SearchRequestDto searchRequestDto = SearchRequestDto
                 .builder()
-                .id(3L)
-                .name("Store 1")
+                .name("Product")
+                .brandIds(Collections.singletonList(5L))
                 .build();
 
-        ProductStore variation1 = ProductStore
+        when(searchIndex.isReady()).thenReturn(true);
+        when(facetIndex.isReady()).thenReturn(true);
+        when(searchIndex
+                .search("Product", null, null))
+                .thenReturn(Arrays.asList(2L, 1L));
+        when(facetIndex
+                .search(Arrays.asList(2L, 1L), searchRequestDto))
+                .thenReturn(new ProductFacetIndex.Result(RoaringBitmap.bitmapOf(1), new SearchFacetsDto()));
+        when(productRepository
+                .findAllById(Collections.singletonList(1L)))
+                .thenReturn(Collections.singletonList(product1));
+
+        // When
+        SearchResponseDto response = productService.search(searchRequestDto);
+
+        // Then
+        assertEquals(1, response.getProducts().size());
+        assertThat(response.getProducts().get(0).getId()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testGetVariationsByProduct() {
+        // Given
+        ProductVariationRow variation1 = ProductVariationRow
                 .builder()
-                .name("Product 1 variation")
-                .imageUrl("image.jpg")
-                .url("https://store1.com/product1-variation")
+                .productId(1L)
+                .productName("Product 1")
+                .productImageUrl("https://prico.com/images/product1.jpg")
+                .storeId(3L)
+                .storeName("Store 1")
+                .variationId(31L)
+                .variationName("Product 1 variation")
+                .variationImageUrl("image.jpg")
+                .variationUrl("https://store1.com/product1-variation")
                 .price(5.5F)
-                .product(product)
-                .store(store)
                 .build();
 
-        when(productStoreRepository
-                .findAllByProduct(product))
+        when(productRepository
+                .findVariationRows(1L))
                 .thenReturn(Arrays.asList(variation1));
 
         // When
@@ -266,67 +548,14 @@ public class ProductServiceImplTest {
 
     @Test
     public void testGetVariationsByProduct_GroupByStore() {
-        // Given
-        Product product = Product
-                .builder()
-                .id(1L)
-                .name("Product 1")
-                .description("Product 1 description")
-                .imageUrl("https://prico.com/images/product1.jpg")
-                .build();
+        // Given rows ordered by price, as returned by the query
+        ProductVariationRow variation3 = variationRow(22L, "Store 2", 113L, 3, 5.3F);
+        ProductVariationRow variation1 = variationRow(11L, "Store 1", 111L, 1, 5.5F);
+        ProductVariationRow variation2 = variationRow(11L, "Store 1", 112L, 2, 5.6F);
 
         when(productRepository
-                .findById(1L))
-                .thenReturn(Optional.of(product));
-
-        Store store1 = Store
-                .builder()
-                .id(11L)
-                .name("Store 1")
-                .build();
-
-        Store store2 = Store
-                .builder()
-                .id(22L)
-                .name("Store 2")
-                .build();
-
-        ProductStore variation1 = ProductStore
-                .builder()
-                .id(111L)
-                .name("Product 1 variation 1")
-                .imageUrl("image1.jpg")
-                .url("https://store1.com/product1-variation1")
-                .price(5.5F)
-                .product(product)
-                .store(store1)
-                .build();
-
-        ProductStore variation2 = ProductStore
-                .builder()
-                .id(112L)
-                .name("Product 1 variation 2")
-                .imageUrl("image2.jpg")
-                .url("https://store1.com/product1-variation2")
-                .price(5.6F)
-                .product(product)
-                .store(store1)
-                .build();
-
-        ProductStore variation3 = ProductStore
-                .builder()
-                .id(113L)
-                .name("Product 1 variation 3")
-                .imageUrl("image3.jpg")
-                .url("https://store1.com/product1-variation3")
-                .price(5.3F)
-                .product(product)
-                .store(store2)
-                .build();
-
-        when(productStoreRepository
-                .findAllByProduct(product))
-                .thenReturn(Arrays.asList(variation1, variation2, variation3));
+                .findVariationRows(1L))
+                .thenReturn(Arrays.asList(variation3, variation1, variation2));
 
         // When
         ProductVariationResponseDto result = productService.getVariationsByProduct(1L);
@@ -368,15 +597,91 @@ public class ProductServiceImplTest {
         assertEquals(5.3F, productStoreDto3.getPrice());
     }
 
+    @Test
+    public void testGetVariationsByProduct_WithoutVariations_ReturnsProductOnly() {
+        // Given
+        ProductVariationRow productOnly = ProductVariationRow
+                .builder()
+                .productId(1L)
+                .productName("Product 1")
+                .build();
+
+        when(productRepository
+                .findVariationRows(1L))
+                .thenReturn(Arrays.asList(productOnly));
+
+        // When
+        ProductVariationResponseDto result = productService.getVariationsByProduct(1L);
+
+        // Then
+        assertEquals(1L, result.getProductId());
+        assertNull(result.getStores());
+    }
 
     @Test
     public void testGetVariationsByProduct_WhenProductNotFound_ThrowNotFoundException() {
         // Given
         when(productRepository
-                .findById(1L))
-                .thenReturn(Optional.empty());
+                .findVariationRows(1L))
+                .thenReturn(Collections.emptyList());
 
         // When / Then
         assertThrows(ResourceNotFoundException.class, () -> productService.getVariationsByProduct(1L));
     }
+
+    @Test
+    public void testGetVariationsByProducts_LoadsMissesInOneQuery() {
+        // Given
+        ProductVariationResponseDto cached = ProductVariationResponseDto.builder().productId(2L).productName("Product 2").build();
+        when(variationsCache.get(2L, ProductVariationResponseDto.class)).thenReturn(cached);
+
+        ProductVariationRow product3 = ProductVariationRow.builder().productId(3L).productName("Product 3").build();
+
+        when(productRepository
+                .findVariationRowsByProductIds(Arrays.asList(3L, 1L, 9L)))
+                .thenReturn(Arrays.asList(variationRow(11L, "Store 1", 111L, 1, 5.5F), product3));
+
+        // When
+        Map<Long, ProductVariationResponseDto> result = productService.getVariationsByProducts(Arrays.asList(3L, 2L, 1L, 3L, 9L));
+
+        // Then
+        assertThat(result.keySet()).containsExactly(3L, 2L, 1L);
+        assertEquals("Product 3", result.get(3L).getProductName());
+        assertNull(result.get(3L).getStores());
+        assertEquals(cached, result.get(2L));
+        assertEquals("Store 1", result.get(1L).getStores().get(0).getName());
+        verify(productRepository).findVariationRowsByProductIds(anyCollection());
+        verify(variationsCache).put(1L, result.get(1L));
+        verify(variationsCache).put(3L, result.get(3L));
+    }
+
+    @Test
+    public void testGetVariationsByProducts_AllCached_DoesNotQuery() {
+        // Given
+        ProductVariationResponseDto cached = ProductVariationResponseDto.builder().productId(1L).build();
+        when(variationsCache.get(1L, ProductVariationResponseDto.class)).thenReturn(cached);
+
+        // When
+        Map<Long, ProductVariationResponseDto> result = productService.getVariationsByProducts(Collections.singletonList(1L));
+
+        // Then
+        assertEquals(Collections.singletonMap(1L, cached), result);
+        verify(productRepository, never()).findVariationRowsByProductIds(any());
+    }
+
+    private static ProductVariationRow variationRow(Long storeId, String storeName, Long id, int index, Float price) {
+        return ProductVariationRow
+                .builder()
+                .productId(1L)
+                .productName("Product 1")
+                .productImageUrl("https://prico.com/images/product1.jpg")
+                .storeId(storeId)
+                .storeName(storeName)
+                .variationId(id)
+                .variationName("Product 1 variation " + index)
+                .variationImageUrl("image" + index + ".jpg")
+                .variationUrl("https://store1.com/product1-variation" + index)
+                .price(price)
+                .build();
+    }
 }
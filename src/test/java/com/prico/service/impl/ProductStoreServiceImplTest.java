@@ -0,0 +1,554 @@
+package com.prico.service.impl;
+
+import com.prico.cache.ResponseCache;
+import com.prico.config.CacheConfig;
+import com.prico.dto.PriceChangeDto;
+import com.prico.dto.crud.BulkProductStoreResultDto;
+import com.prico.dto.crud.ProductStoreRequestDto;
+import com.prico.dto.crud.ProductStoreResponseDto;
+import com.prico.exception.BadRequestException;
+import com.prico.exception.ResourceNotFoundException;
+import com.prico.feed.PriceFeed;
+import com.prico.dto.match.OfferMatchResponseDto;
+import com.prico.index.ProductFacetIndex;
+import com.prico.index.ProductMatchIndex;
+import com.prico.ingest.OfferDigests;
+import com.prico.model.PriceObservation;
+import com.prico.model.Product;
+import com.prico.model.ProductStore;
+import com.prico.model.Store;
+import com.prico.repository.OfferSummaryJdbcRepository;
+import com.prico.repository.PriceObservationRepository;
+import com.prico.repository.ProductRepository;
+import com.prico.repository.ProductStoreJdbcRepository;
+import com.prico.repository.ProductStoreRepository;
+import com.prico.repository.StoreRepository;
+import com.prico.repository.projection.OfferKey;
+import com.prico.service.PriceAlertService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ProductStoreServiceImplTest {
+
+    @Mock
+    private ProductStoreRepository productStoreRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StoreRepository storeRepository;
+
+    @Mock
+    private ProductStoreJdbcRepository jdbcRepository;
+
+    @Mock
+    private PriceObservationRepository priceObservationRepository;
+
+    @Mock
+    private OfferSummaryJdbcRepository offerSummaryRepository;
+
+    @Mock
+    private ProductFacetIndex facetIndex;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache variationsCache;
+
+    @Mock
+    private ResponseCache responseCache;
+
+    @Mock
+    private PriceAlertService priceAlertService;
+
+    @Mock
+    private PriceFeed priceFeed;
+
+    @Mock
+    private OfferDigests digests;
+
+    @Mock
+    private ProductMatchIndex matchIndex;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private ProductStoreServiceImpl productStoreService;
+
+    private Product product;
+
+    private Store store;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        product = new Product(1L, "Product 1", "Product 1 description");
+        store = Store.builder().id(2L).name("Store 1").build();
+
+        when(cacheManager.getCache(CacheConfig.VARIATIONS_CACHE)).thenReturn(variationsCache);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(storeRepository.findById(2L)).thenReturn(Optional.of(store));
+        when(productStoreRepository.save(any())).thenAnswer(x -> x.getArgument(0));
+    }
+
+    @Test
+    public void testCreate_EvictsProductVariations() {
+        // When
+        ProductStore result = productStoreService.create(request(1L, 4.5F));
+
+        // Then
+        assertThat(result.getProduct()).isEqualTo(product);
+        assertThat(result.getStore()).isEqualTo(store);
+        verify(variationsCache).evict(1L);
+        verify(responseCache).evict(1L);
+        verify(offerSummaryRepository).refresh(Collections.singleton(1L));
+        verify(priceAlertService).onOffersChanged(Collections.singleton(1L));
+    }
+
+    @Test
+    public void testCreate_RecordsPriceObservation() {
+        // Given
+        when(productStoreRepository.save(any())).thenAnswer(x -> {
+            ProductStore saved = x.getArgument(0);
+            saved.setId(10L);
+            return saved;
+        });
+
+        // When
+        productStoreService.create(request(1L, 4.5F));
+
+        // Then
+        ArgumentCaptor<PriceObservation> observation = ArgumentCaptor.forClass(PriceObservation.class);
+        verify(priceObservationRepository).save(observation.capture());
+        assertEquals(10L, observation.getValue().getProductStoreId());
+        assertEquals(1L, observation.getValue().getProductId());
+        assertEquals(2L, observation.getValue().getStoreId());
+        assertEquals(4.5F, observation.getValue().getPrice());
+        assertThat(observation.getValue().getObservedAt()).isNotNull();
+    }
+
+    @Test
+    public void testCreate_WhenStoreNotFound_ThrowNotFoundException() {
+        // Given
+        ProductStoreRequestDto request = request(1L, 4.5F);
+        request.setStoreId(3L);
+
+        // When/Then
+        assertThrows(ResourceNotFoundException.class, () -> productStoreService.create(request));
+        verify(variationsCache, never()).evict(any());
+    }
+
+    @Test
+    public void testUpdate_MovedToAnotherProduct_EvictsBothProducts() {
+        // Given
+        Product otherProduct = new Product(5L, "Product 5", "Product 5 description");
+        ProductStore existing = ProductStore.builder().id(10L).product(otherProduct).store(store).build();
+        when(productStoreRepository.findById(10L)).thenReturn(Optional.of(existing));
+
+        // When
+        ProductStore result = productStoreService.update(10L, request(1L, 3.9F));
+
+        // Then
+        assertThat(result.getPrice()).isEqualTo(3.9F);
+        verify(variationsCache).evict(5L);
+        verify(responseCache).evict(5L);
+        verify(variationsCache).evict(1L);
+        verify(responseCache).evict(1L);
+        verify(priceObservationRepository).save(any());
+        verify(offerSummaryRepository).refresh(Arrays.asList(5L, 1L));
+        verify(facetIndex).reindex(Arrays.asList(5L, 1L));
+    }
+
+    @Test
+    public void testUpdate_WithUnchangedPrice_DoesNotRecordObservation() {
+        // Given
+        ProductStore existing = ProductStore.builder().id(10L).price(3.9F).product(product).store(store).build();
+        when(productStoreRepository.findById(10L)).thenReturn(Optional.of(existing));
+
+        // When
+        productStoreService.update(10L, request(1L, 3.9F));
+
+        // Then
+        verify(priceObservationRepository, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdate_PublishesPriceChangeToWatchers() {
+        // Given
+        ProductStore existing = ProductStore.builder().id(10L).price(4.2F).product(product).store(store).build();
+        when(productStoreRepository.findById(10L)).thenReturn(Optional.of(existing));
+        when(priceFeed.isWatched(1L, 2L)).thenReturn(true);
+
+        // When
+        productStoreService.update(10L, request(1L, 3.9F));
+
+        // Then
+        ArgumentCaptor<List<PriceChangeDto>> changes = ArgumentCaptor.forClass(List.class);
+        verify(priceFeed).publish(changes.capture());
+        assertEquals(1, changes.getValue().size());
+        assertEquals(10L, changes.getValue().get(0).getOfferId());
+        assertEquals(3.9F, changes.getValue().get(0).getPrice());
+        assertEquals(4.2F, changes.getValue().get(0).getPreviousPrice());
+    }
+
+    @Test
+    public void testUpdate_WithUnchangedPrice_PublishesNothing() {
+        // Given
+        ProductStore existing = ProductStore.builder().id(10L).price(3.9F).product(product).store(store).build();
+        when(productStoreRepository.findById(10L)).thenReturn(Optional.of(existing));
+        when(priceFeed.isWatched(any(), any())).thenReturn(true);
+
+        // When
+        productStoreService.update(10L, request(1L, 3.9F));
+
+        // Then
+        verify(priceFeed, never()).publish(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDelete_PublishesRemoval() {
+        // Given
+        ProductStore existing = ProductStore.builder().id(10L).price(4.2F).product(product).store(store).build();
+        when(productStoreRepository.findById(10L)).thenReturn(Optional.of(existing));
+        when(priceFeed.isWatched(1L, 2L)).thenReturn(true);
+
+        // When
+        productStoreService.delete(10L);
+
+        // Then
+        ArgumentCaptor<List<PriceChangeDto>> changes = ArgumentCaptor.forClass(List.class);
+        verify(priceFeed).publish(changes.capture());
+        assertNull(changes.getValue().get(0).getPrice());
+        assertEquals(4.2F, changes.getValue().get(0).getPreviousPrice());
+    }
+
+    @Test
+    public void testDelete_EvictsProductVariations() {
+        // Given
+        ProductStore existing = ProductStore.builder().id(10L).product(product).store(store).build();
+        when(productStoreRepository.findById(10L)).thenReturn(Optional.of(existing));
+
+        // When
+        productStoreService.delete(10L);
+
+        // Then
+        verify(productStoreRepository).delete(existing);
+        verify(digests).invalidate(10L);
+        verify(variationsCache).evict(1L);
+        verify(responseCache).evict(1L);
+        verify(offerSummaryRepository).refresh(Collections.singleton(1L));
+    }
+
+    @Test
+    public void testDelete_WhenProductStoreNotFound_ThrowNotFoundException() {
+        // Given
+        when(productStoreRepository.findById(10L)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThrows(ResourceNotFoundException.class, () -> productStoreService.delete(10L));
+    }
+
+    @Test
+    public void testExportAll_DetachesOffersAndClearsInChunks() {
+        // Given
+        when(productStoreRepository.streamAll()).thenReturn(IntStream
+                .rangeClosed(1, 2500)
+                .mapToObj(i -> ProductStore.builder().id((long) i).product(product).store(store).build()));
+
+        List<ProductStoreResponseDto> exported = new ArrayList<>();
+
+        // When
+        productStoreService.exportAll(exported::add);
+
+        // Then
+        assertEquals(2500, exported.size());
+        assertEquals(2500L, exported.get(2499).getId());
+        verify(entityManager, times(2)).clear();
+        verify(entityManager, times(2498)).detach(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBulkUpsert_InsertsUpdatesAndRejectsPerRow() {
+        // Given
+        ProductStoreRequestDto newOffer = request(1L, 4.5F);
+        newOffer.setUrl("https://store1.com/new");
+
+        ProductStoreRequestDto existingOffer = request(1L, 3.9F);
+        existingOffer.setUrl("https://store1.com/existing");
+
+        ProductStoreRequestDto unknownProduct = request(9L, 3.9F);
+
+        ProductStoreRequestDto newOfferAgain = request(1L, 4.4F);
+        newOfferAgain.setUrl("https://store1.com/new");
+
+        OfferKey existingKey = mock(OfferKey.class);
+        when(existingKey.getId()).thenReturn(50L);
+        when(existingKey.getStoreId()).thenReturn(2L);
+        when(existingKey.getUrl()).thenReturn("https://store1.com/existing");
+        when(existingKey.getProductId()).thenReturn(5L);
+        when(existingKey.getPrice()).thenReturn(4.1F);
+
+        when(productRepository.findExistingIds(anyCollection())).thenReturn(Collections.singleton(1L));
+        when(storeRepository.findExistingIds(anyCollection())).thenReturn(Collections.singleton(2L));
+        when(productStoreRepository.findOfferKeys(anyCollection(), anyCollection())).thenReturn(Collections.singletonList(existingKey));
+        when(jdbcRepository.insertAll(Collections.singletonList(newOfferAgain))).thenReturn(Collections.singletonList(60L));
+
+        // When
+        List<BulkProductStoreResultDto> results = productStoreService.bulkUpsert(
+                Arrays.asList(newOffer, existingOffer, unknownProduct, newOfferAgain));
+
+        // Then
+        assertEquals(4, results.size());
+        assertEquals(BulkProductStoreResultDto.Status.REJECTED, results.get(0).getStatus());
+        assertEquals(BulkProductStoreResultDto.Status.UPDATED, results.get(1).getStatus());
+        assertEquals(50L, results.get(1).getId());
+        assertEquals(BulkProductStoreResultDto.Status.REJECTED, results.get(2).getStatus());
+        assertEquals("Product not found with id: 9", results.get(2).getMessage());
+        assertEquals(BulkProductStoreResultDto.Status.CREATED, results.get(3).getStatus());
+        assertEquals(60L, results.get(3).getId());
+
+        verify(jdbcRepository).updateAll(Collections.singletonMap(50L, existingOffer));
+
+        ArgumentCaptor<List<PriceObservation>> observations = ArgumentCaptor.forClass(List.class);
+        verify(jdbcRepository).insertObservations(observations.capture());
+        assertEquals(2, observations.getValue().size());
+        assertEquals(50L, observations.getValue().get(0).getProductStoreId());
+        assertEquals(3.9F, observations.getValue().get(0).getPrice());
+        assertEquals(60L, observations.getValue().get(1).getProductStoreId());
+        assertEquals(4.4F, observations.getValue().get(1).getPrice());
+        verify(variationsCache).evict(1L);
+        verify(responseCache).evict(1L);
+        verify(variationsCache).evict(5L);
+        verify(responseCache).evict(5L);
+        verify(offerSummaryRepository).refresh(new HashSet<>(Arrays.asList(1L, 5L)));
+        verify(facetIndex).reindex(new HashSet<>(Arrays.asList(1L, 5L)));
+        verify(priceFeed, never()).publish(any());
+        verify(priceAlertService).onOffersChanged(new HashSet<>(Arrays.asList(1L, 5L)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateAll_MovedToAnotherStore_PublishesToBothStores() {
+        // Given
+        ProductStoreRequestDto movedOffer = request(1L, 4.2F);
+
+        OfferKey movedKey = mock(OfferKey.class);
+        when(movedKey.getId()).thenReturn(50L);
+        when(movedKey.getProductId()).thenReturn(1L);
+        when(movedKey.getStoreId()).thenReturn(3L);
+        when(movedKey.getPrice()).thenReturn(4.2F);
+
+        when(productRepository.findExistingIds(anyCollection())).thenReturn(Collections.singleton(1L));
+        when(storeRepository.findExistingIds(anyCollection())).thenReturn(Collections.singleton(2L));
+        when(productStoreRepository.findOfferKeysByIds(anyCollection())).thenReturn(Collections.singletonList(movedKey));
+        when(priceFeed.isWatched(eq(1L), any())).thenReturn(true);
+
+        // When
+        productStoreService.updateAll(Collections.singletonMap(50L, movedOffer));
+
+        // Then
+        ArgumentCaptor<List<PriceChangeDto>> changes = ArgumentCaptor.forClass(List.class);
+        verify(priceFeed).publish(changes.capture());
+        assertEquals(2, changes.getValue().size());
+        assertEquals(3L, changes.getValue().get(0).getStoreId());
+        assertNull(changes.getValue().get(0).getPrice());
+        assertEquals(2L, changes.getValue().get(1).getStoreId());
+        assertEquals(4.2F, changes.getValue().get(1).getPrice());
+    }
+
+    @Test
+    public void testUpdateAll_SkipsUnchangedAndRejectsMissingOffers() {
+        // Given
+        ProductStoreRequestDto changedOffer = request(1L, 3.9F);
+        ProductStoreRequestDto unchangedOffer = request(1L, 4.2F);
+        ProductStoreRequestDto missingOffer = request(1L, 4.0F);
+
+        OfferKey changedKey = mock(OfferKey.class);
+        when(changedKey.getId()).thenReturn(50L);
+        when(changedKey.getProductId()).thenReturn(1L);
+        when(changedKey.getPrice()).thenReturn(4.1F);
+
+        OfferKey unchangedKey = mock(OfferKey.class);
+        when(unchangedKey.getId()).thenReturn(51L);
+
+        Map<Long, ProductStoreRequestDto> offers = new LinkedHashMap<>();
+        offers.put(50L, changedOffer);
+        offers.put(51L, unchangedOffer);
+        offers.put(52L, missingOffer);
+
+        when(productRepository.findExistingIds(anyCollection())).thenReturn(Collections.singleton(1L));
+        when(storeRepository.findExistingIds(anyCollection())).thenReturn(Collections.singleton(2L));
+        when(productStoreRepository.findOfferKeysByIds(anyCollection())).thenReturn(Arrays.asList(changedKey, unchangedKey));
+        when(digests.isUnchanged(51L, unchangedOffer)).thenReturn(true);
+
+        // When
+        List<BulkProductStoreResultDto> results = productStoreService.updateAll(offers);
+
+        // Then
+        assertEquals(BulkProductStoreResultDto.Status.UPDATED, results.get(0).getStatus());
+        assertEquals(BulkProductStoreResultDto.Status.UNCHANGED, results.get(1).getStatus());
+        assertEquals(51L, results.get(1).getId());
+        assertEquals(BulkProductStoreResultDto.Status.REJECTED, results.get(2).getStatus());
+        assertEquals("Product Store not found with id: 52", results.get(2).getMessage());
+
+        verify(jdbcRepository).updateAll(Collections.singletonMap(50L, changedOffer));
+        verify(jdbcRepository).insertObservations(anyList());
+        verify(offerSummaryRepository).refresh(Collections.singleton(1L));
+        verify(digests).put(50L, changedOffer);
+        verify(digests, never()).put(eq(51L), any());
+    }
+
+    @Test
+    public void testBulkUpsert_LinksOffersWithoutProduct() {
+        // Given
+        ProductStoreRequestDto matched = request(null, 4.5F);
+
+        ProductStoreRequestDto unmatched = request(null, 3.9F);
+        unmatched.setName("Something else entirely");
+        unmatched.setUrl("https://store1.com/other");
+
+        when(matchIndex.resolve(eq("Product 1 at Store 1"), anyFloat())).thenReturn(1L);
+        when(matchIndex.resolve(eq("Something else entirely"), anyFloat())).thenReturn(null);
+        when(productRepository.findExistingIds(anyCollection())).thenReturn(Collections.singleton(1L));
+        when(storeRepository.findExistingIds(anyCollection())).thenReturn(Collections.singleton(2L));
+        when(jdbcRepository.insertAll(Collections.singletonList(matched))).thenReturn(Collections.singletonList(60L));
+
+        // When
+        List<BulkProductStoreResultDto> results = productStoreService.bulkUpsert(Arrays.asList(matched, unmatched));
+
+        // Then
+        assertEquals(BulkProductStoreResultDto.Status.CREATED, results.get(0).getStatus());
+        assertEquals("Linked to product 1", results.get(0).getMessage());
+        assertEquals(1L, matched.getProductId());
+        assertEquals(BulkProductStoreResultDto.Status.REJECTED, results.get(1).getStatus());
+        assertEquals("Product should not be NULL", results.get(1).getMessage());
+        verify(offerSummaryRepository).refresh(Collections.singleton(1L));
+    }
+
+    @Test
+    public void testBulkUpsert_RejectsRowsFailingRequestConstraints() {
+        // Given
+        ProductStoreRequestDto blankName = request(1L, 4.5F);
+        blankName.setName(" ");
+
+        ProductStoreRequestDto negativePrice = request(1L, -1F);
+
+        when(productRepository.findExistingIds(anyCollection())).thenReturn(Collections.singleton(1L));
+        when(storeRepository.findExistingIds(anyCollection())).thenReturn(Collections.singleton(2L));
+
+        // When
+        List<BulkProductStoreResultDto> results = productStoreService.bulkUpsert(Arrays.asList(blankName, negativePrice));
+
+        // Then
+        assertEquals(BulkProductStoreResultDto.Status.REJECTED, results.get(0).getStatus());
+        assertEquals("Name should not be NULL or EMPTY", results.get(0).getMessage());
+        assertEquals(BulkProductStoreResultDto.Status.REJECTED, results.get(1).getStatus());
+        assertEquals("Price should not be NULL or 0", results.get(1).getMessage());
+    }
+
+    @Test
+    public void testCheckUpdate_WhenStoreNotFound_ThrowNotFoundException() {
+        // Given
+        when(productStoreRepository.existsById(10L)).thenReturn(true);
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(storeRepository.existsById(2L)).thenReturn(false);
+
+        // When/Then
+        assertThrows(ResourceNotFoundException.class, () -> productStoreService.checkUpdate(10L, request(1L, 4.5F)));
+    }
+
+    @Test
+    public void testMatchProduct_WithTiedCandidates_DoesNotLink() {
+        // Given
+        when(matchIndex.candidates("Product 1 at Store 1", 2)).thenReturn(Arrays.asList(
+                new ProductMatchIndex.Candidate(1L, 1F),
+                new ProductMatchIndex.Candidate(3L, 1F)));
+
+        // When
+        OfferMatchResponseDto result = productStoreService.matchProduct(request(null, 4.5F), 1);
+
+        // Then
+        assertNull(result.getProductId());
+        assertEquals(1, result.getCandidates().size());
+        assertEquals(1L, result.getCandidates().get(0).getProductId());
+    }
+
+    @Test
+    public void testMatchProduct_WithBlankName_ThrowBadRequestException() {
+        // Given
+        ProductStoreRequestDto offer = request(null, 4.5F);
+        offer.setName(" ");
+
+        // When/Then
+        assertThrows(BadRequestException.class, () -> productStoreService.matchProduct(offer, 5));
+        verifyNoInteractions(matchIndex);
+    }
+
+    @Test
+    public void testUpdateAll_WithOnlyUnchangedOffers_WritesNothing() {
+        // Given
+        ProductStoreRequestDto offer = request(1L, 4.2F);
+
+        OfferKey key = mock(OfferKey.class);
+        when(key.getId()).thenReturn(51L);
+
+        when(productRepository.findExistingIds(anyCollection())).thenReturn(Collections.singleton(1L));
+        when(storeRepository.findExistingIds(anyCollection())).thenReturn(Collections.singleton(2L));
+        when(productStoreRepository.findOfferKeysByIds(anyCollection())).thenReturn(Collections.singletonList(key));
+        when(digests.isUnchanged(51L, offer)).thenReturn(true);
+
+        // When
+        List<BulkProductStoreResultDto> results = productStoreService.updateAll(Collections.singletonMap(51L, offer));
+
+        // Then
+        assertEquals(BulkProductStoreResultDto.Status.UNCHANGED, results.get(0).getStatus());
+        verify(jdbcRepository, never()).updateAll(any());
+        verify(jdbcRepository, never()).insertObservations(any());
+        verifyNoInteractions(offerSummaryRepository, facetIndex, priceAlertService);
+    }
+
+    private static ProductStoreRequestDto request(Long productId, Float price) {
+        return ProductStoreRequestDto
+                .builder()
+                .name("Product 1 at Store 1")
+                .url("https://store1.com/product1")
+                .price(price)
+                .productId(productId)
+                .storeId(2L)
+                .build();
+    }
+}
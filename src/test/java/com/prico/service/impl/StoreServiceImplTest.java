@@ -4,12 +4,14 @@ import com.prico.dto.crud.StoreRequestDto;
 import com.prico.dto.crud.StoreResponseDto;
 import com.prico.model.Store;
 import com.prico.exception.ResourceNotFoundException;
+import com.prico.repository.OfferSummaryJdbcRepository;
 import com.prico.repository.StoreRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.CacheManager;
 
 import java.util.Arrays;
 import java.util.List;
@@ -27,6 +29,12 @@ public class StoreServiceImplTest {
     @Mock
     private StoreRepository storeRepository;
 
+    @Mock
+    private OfferSummaryJdbcRepository offerSummaryRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private StoreServiceImpl storeService;
 
@@ -126,6 +134,7 @@ public class StoreServiceImplTest {
         assertThat(result.getName()).isEqualTo("Updated Store");
         assertThat(result.getLocation()).isEqualTo("Updated Store location");
         assertThat(result.getWebsite()).isEqualTo("updated-store1.com");
+        verify(offerSummaryRepository).renameStore(1L, "Updated Store");
     }
 
     @Test
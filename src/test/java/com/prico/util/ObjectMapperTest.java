@@ -125,6 +125,45 @@ public class ObjectMapperTest {
         assertEquals(entity.getCategory().getDescription(), dto.getCategory().getDescription());
     }
 
+    @Test
+    public void testToDto_ProductWithOfferSummary() {
+        // Given
+        Product entity = Product
+                .builder()
+                .id(1L)
+                .name("Product 1")
+                .lowestPrice(4.2F)
+                .cheapestStoreId(3L)
+                .cheapestStoreName("Store 3")
+                .offerCount(5)
+                .storeCount(2)
+                .build();
+
+        // When
+        ProductResponseDto dto = ObjectMapper.toDto(entity);
+
+        // Then
+        assertEquals(4.2F, dto.getLowestPrice());
+        assertEquals(Long.valueOf(3L), dto.getCheapestStoreId());
+        assertEquals("Store 3", dto.getCheapestStoreName());
+        assertEquals(5, dto.getOfferCount());
+        assertEquals(2, dto.getStoreCount());
+    }
+
+    @Test
+    public void testToDto_ProductWithoutOfferSummary() {
+        // Given
+        Product entity = Product.builder().id(1L).name("Product 1").build();
+
+        // When
+        ProductResponseDto dto = ObjectMapper.toDto(entity);
+
+        // Then
+        assertNull(dto.getLowestPrice());
+        assertEquals(0, dto.getOfferCount());
+        assertEquals(0, dto.getStoreCount());
+    }
+
     @Test
     public void testToEntity_Product() {
         // Given